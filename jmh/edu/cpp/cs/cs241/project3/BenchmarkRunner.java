@@ -0,0 +1,42 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the JMH benchmarks of this project, taking the same options as JMH itself, and always
+ * adds the allocation profiler, as <code>-prof gc</code> does, so every result comes with the bytes
+ * allocated per operation next to its time. It is the main class of <code>target/benchmarks.jar</code>,
+ * built with <code>mvn -P jmh package</code>.
+ * @author Joel Tengco
+ *
+ */
+public final class BenchmarkRunner {
+	private BenchmarkRunner() {}
+
+	/**
+	 * Entry point of the benchmarks.
+	 * @param args The options of JMH, such as a pattern of the benchmarks to run, or
+	 * <code>-p size=1000,10000</code> to pick the sizes of the graphs.
+	 */
+	public static void main(String[] args) {
+		try {
+			CommandLineOptions options = new CommandLineOptions(args);
+			new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+		} catch(CommandLineOptionException cloe) {
+			System.err.println(cloe.getMessage());
+			System.exit(1);
+		} catch(RunnerException re) {
+			System.err.println(re.getMessage());
+			System.exit(1);
+		}
+	}
+}
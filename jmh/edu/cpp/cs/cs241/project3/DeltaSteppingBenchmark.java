@@ -0,0 +1,83 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures {@link Digraph#parallelShortestPathTree(int, int, ForkJoinPool)} on pools of each
+ * number of threads, with the bucket width chosen by default, which shows how the parallel search scales
+ * with the number of cores next to the sequential {@link ShortestPathBenchmark#shortestPathTree()}. Thread
+ * counts past the number of cores of the machine only measure the cost of the threads; pick the counts
+ * with <code>-p threads=1,2,4</code>.
+ * @author Joel Tengco
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeltaSteppingBenchmark extends GeneratedGraph {
+	/**
+	 * The number of threads of the pool the searches run on.
+	 */
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private Digraph<City> graph;
+	private ForkJoinPool pool;
+	private int delta;
+	private int[] sources;
+	private int next;
+
+	/**
+	 * Generates the graph, picks the sources of the searches and starts the pool.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+
+		graph = generate();
+		delta = graph.freeze().defaultDelta();
+		sources = new int[inputCount(graph.getVertexCount())];
+		for(int i = 0; i < sources.length; i++)
+			sources[i] = random.nextInt(graph.getVertexCount());
+		pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * Stops the pool started by {@link #setUp()}.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public ShortestPathTree deltaStepping() {
+		int i = next;
+
+		next = i + 1 == sources.length ? 0 : i + 1;
+		return graph.parallelShortestPathTree(sources[i], delta, pool);
+	}
+}
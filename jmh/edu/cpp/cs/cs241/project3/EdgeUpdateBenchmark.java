@@ -0,0 +1,70 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures {@link Digraph#addEdge(int, int, int)} followed by {@link Digraph#removeEdge(int, int)}
+ * of the same road, between two cities not joined by a road yet, so the graph is the same after every
+ * operation.
+ * @author Joel Tengco
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeUpdateBenchmark extends GeneratedGraph {
+	// a power of two, so the next road is picked with a mask
+	private static final int EDITS = 1 << 14;
+
+	private Digraph<City> graph;
+	private int[] sources;
+	private int[] targets;
+	private int next;
+
+	/**
+	 * Generates the graph and picks the roads to add and remove.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		int vertexCount;
+
+		graph = generate();
+		vertexCount = graph.getVertexCount();
+		sources = new int[EDITS];
+		targets = new int[EDITS];
+		for(int i = 0; i < EDITS; i++)
+			do {
+				sources[i] = random.nextInt(vertexCount);
+				targets[i] = random.nextInt(vertexCount);
+			} while(sources[i] == targets[i] || graph.getEdgeWeight(sources[i], targets[i]) != 0);
+	}
+
+	@Benchmark
+	public void addRemoveEdge() {
+		int i = next++ & (EDITS - 1);
+
+		graph.addEdge(sources[i], targets[i], 1 + (i & 63));
+		graph.removeEdge(sources[i], targets[i]);
+	}
+}
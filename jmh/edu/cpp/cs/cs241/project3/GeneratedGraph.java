@@ -0,0 +1,127 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This class is the base of the JMH benchmarks of {@link Digraph}: it holds the kind and size of the
+ * graph each benchmark runs on, as parameters JMH runs every benchmark over, generates the graph with
+ * {@link GraphGenerator}, and holds the helpers the benchmarks pick their inputs with. The sizes run
+ * from 10<sup>3</sup> to 10<sup>7</sup> cities; graphs of 10<sup>7</sup> cities need a heap of several
+ * gigabytes, given with <code>-jvmArgsAppend -Xmx8g</code>, and fewer sizes are picked with
+ * <code>-p size=1000,10000</code>.
+ * <p>
+ * Each benchmark generates its graph and prepares its inputs once per run, and steps through the
+ * inputs one per operation, so no operation is measured on the same input over and over.
+ * @author Joel Tengco
+ *
+ */
+@State(Scope.Benchmark)
+public abstract class GeneratedGraph {
+	// the seed of the graphs and of the picked inputs
+	static final long SEED = 241;
+
+	/**
+	 * The kind of graph: "grid", "geometric" or "scalefree".
+	 */
+	@Param({"grid", "geometric", "scalefree"})
+	public String generator;
+
+	/**
+	 * The number of cities, rounded down to a whole grid for "grid".
+	 */
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	public int size;
+
+	/**
+	 * Generates the graph of the current parameters.
+	 * @return A new graph.
+	 */
+	Digraph<City> generate() {
+		return GraphGenerator.generate(generator, size, SEED);
+	}
+
+	/**
+	 * Gets the number of inputs to prepare for operations that search the graph, lowered on large graphs
+	 * so that preparing them takes a few seconds at most.
+	 * @param vertexCount The number of vertices of the graph.
+	 * @return The number of inputs.
+	 */
+	static int inputCount(int vertexCount) {
+		return (int) Math.max(16, Math.min(1024, 100000000L / vertexCount));
+	}
+
+	/**
+	 * Walks the given number of roads at random from a city, stopping early at a dead end.
+	 */
+	static int walk(Digraph<City> graph, int vertexIndex, int steps, Random random) {
+		for(int step = 0; step < steps; step++) {
+			IndexedEdgeList edges = graph.outgoingEdges(vertexIndex);
+			if(edges.size() == 0)
+				break;
+			vertexIndex = edges.vertex(random.nextInt(edges.size()));
+		}
+
+		return vertexIndex;
+	}
+
+	/**
+	 * Picks a city the given city can reach, trying a few cities at random and keeping the last one
+	 * tried if none of them is reachable.
+	 */
+	static int reachableTarget(Digraph<City> graph, int sourceIndex, Random random) {
+		int targetIndex = random.nextInt(graph.getVertexCount());
+
+		for(int tries = 0; tries < 10 && !reachable(graph, sourceIndex, targetIndex); tries++)
+			targetIndex = random.nextInt(graph.getVertexCount());
+
+		return targetIndex;
+	}
+
+	/**
+	 * Checks if there is a path between two cities.
+	 */
+	static boolean reachable(Digraph<City> graph, int sourceIndex, int targetIndex) {
+		try {
+			graph.getShortestPathLength(sourceIndex, targetIndex);
+			return true;
+		} catch(IllegalArgumentException iae) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes a graph as a city file and a road file, in the formats described in {@link Project3}.
+	 */
+	static void writeDataFiles(Digraph<City> graph, File cityFile, File roadFile) throws IOException {
+		try(BufferedWriter writer = new BufferedWriter(new FileWriter(cityFile), 1 << 16)) {
+			for(int v = 0; v < graph.getVertexCount(); v++) {
+				City city = graph.getVertex(v);
+				writer.write(city.getCityNumber() + " " + city.getCityCode() + " " + city.getCityName() + " "
+								+ city.getCityPopulation() + " " + city.getCityElevation());
+				writer.newLine();
+			}
+		}
+
+		try(BufferedWriter writer = new BufferedWriter(new FileWriter(roadFile), 1 << 16)) {
+			for(int v = 0; v < graph.getVertexCount(); v++) {
+				IndexedEdgeList edges = graph.outgoingEdges(v);
+				for(int slot = 0; slot < edges.size(); slot++) {
+					writer.write((v + 1) + " " + (edges.vertex(slot) + 1) + " " + edges.weight(slot));
+					writer.newLine();
+				}
+			}
+		}
+	}
+}
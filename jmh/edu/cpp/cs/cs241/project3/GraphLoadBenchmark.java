@@ -0,0 +1,80 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures loading a graph: parsing its city and road files with a {@link DataFileLoader},
+ * and mapping it from a graph file with {@link GraphFile#map(File)}. The files are written to a
+ * temporary directory before the run, and deleted after it.
+ * @author Joel Tengco
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphLoadBenchmark extends GeneratedGraph {
+	private File directory;
+	private File cityFile;
+	private File roadFile;
+	private File graphFile;
+
+	/**
+	 * Generates the graph and writes its files.
+	 * @throws IOException If the files cannot be written.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Digraph<City> graph = generate();
+
+		directory = Files.createTempDirectory("graph-benchmark").toFile();
+		cityFile = new File(directory, "city.dat");
+		roadFile = new File(directory, "road.dat");
+		graphFile = new File(directory, "graph.bin");
+		writeDataFiles(graph, cityFile, roadFile);
+		GraphFile.write(graph.freeze(), graphFile);
+	}
+
+	/**
+	 * Deletes the files written by {@link #setUp()}.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		cityFile.delete();
+		roadFile.delete();
+		graphFile.delete();
+		directory.delete();
+	}
+
+	@Benchmark
+	public Digraph<City> loadDataFiles() throws IOException {
+		return new DataFileLoader().load(cityFile, roadFile);
+	}
+
+	@Benchmark
+	public BinaryCityGraph mapGraphFile() throws IOException {
+		return GraphFile.map(graphFile);
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures {@link Digraph#getShortestPath(int, int)} to a near target, a few roads away
+ * from the source, to a far target, picked at random among the cities the source can reach, and to
+ * an unreachable target, a city with no roads at all, which makes the search settle every city the
+ * source can reach before giving up. It also measures {@link Digraph#shortestPathTree(int)}, the
+ * sequential search that {@link DeltaSteppingBenchmark} is compared against.
+ * @author Joel Tengco
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortestPathBenchmark extends GeneratedGraph {
+	/**
+	 * The algorithm used for the searches, see {@link SearchMode}.
+	 */
+	@Param({"DIJKSTRA"})
+	public String mode;
+
+	private Digraph<City> graph;
+	private int[] sources;
+	private int[] nearTargets;
+	private int[] farTargets;
+	private int isolated;
+	private int next;
+
+	/**
+	 * Generates the graph, picks the sources and targets of the searches, and adds the city no search reaches.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		int vertexCount;
+
+		graph = generate();
+		graph.setSearchMode(SearchMode.valueOf(mode));
+		vertexCount = graph.getVertexCount();
+		sources = new int[inputCount(vertexCount)];
+		nearTargets = new int[sources.length];
+		farTargets = new int[sources.length];
+		for(int i = 0; i < sources.length; i++) {
+			sources[i] = random.nextInt(vertexCount);
+			nearTargets[i] = walk(graph, sources[i], 1 + random.nextInt(4), random);
+			// a far target must be reachable, or the search measured is a different one
+			farTargets[i] = reachableTarget(graph, sources[i], random);
+		}
+
+		graph.addVertex(new City(vertexCount + 1, "ISOLATED", "ISOLATED CITY", 0, 0));
+		isolated = vertexCount;
+	}
+
+	@Benchmark
+	public int[] shortestPathNear() {
+		int i = nextInput();
+
+		return graph.getShortestPath(sources[i], nearTargets[i]);
+	}
+
+	@Benchmark
+	public int[] shortestPathFar() {
+		int i = nextInput();
+
+		return graph.getShortestPath(sources[i], farTargets[i]);
+	}
+
+	/**
+	 * Searches for a path that does not exist, which ends with the exception thrown for an unreachable target.
+	 * @return The message of the exception.
+	 */
+	@Benchmark
+	public String shortestPathUnreachable() {
+		try {
+			graph.getShortestPath(sources[nextInput()], isolated);
+			throw new IllegalStateException("The isolated city was reached.");
+		} catch(IllegalArgumentException iae) {
+			return iae.getMessage();
+		}
+	}
+
+	@Benchmark
+	public ShortestPathTree shortestPathTree() {
+		return graph.shortestPathTree(sources[nextInput()]);
+	}
+
+	private int nextInput() {
+		int i = next;
+
+		next = i + 1 == sources.length ? 0 : i + 1;
+		return i;
+	}
+}
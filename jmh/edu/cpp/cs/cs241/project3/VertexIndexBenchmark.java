@@ -0,0 +1,59 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures {@link Digraph#getVertexIndex(Comparable)}, looking up cities by their code
+ * with a new <code>City</code> holding only the code, the way {@link Project3} does.
+ * @author Joel Tengco
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VertexIndexBenchmark extends GeneratedGraph {
+	// a power of two, so the next lookup is picked with a mask
+	private static final int LOOKUPS = 1 << 14;
+
+	private Digraph<City> graph;
+	private City[] lookups;
+	private int next;
+
+	/**
+	 * Generates the graph and picks the cities to look up.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+
+		graph = generate();
+		lookups = new City[LOOKUPS];
+		for(int i = 0; i < lookups.length; i++)
+			lookups[i] = new City(graph.getVertex(random.nextInt(graph.getVertexCount())).getCityCode());
+	}
+
+	@Benchmark
+	public int getVertexIndex() {
+		return graph.getVertexIndex(lookups[next++ & (LOOKUPS - 1)]);
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This class stores the edges of a graph in compressed sparse row (CSR) form. Every edge is
+ * given an edge id, and the edges leaving a single vertex occupy one contiguous run of ids,
+ * from {@link #rowStart(int)} inclusive up to {@link #rowEnd(int)} exclusive. The targets and
+ * weights of the edges are kept in two parallel integer sequences, so walking the edges of a
+ * vertex reads memory in order and no object is needed per edge.
+ * <p>
+ * Where the integers live is up to the subclass: {@link ArrayAdjacency} keeps them in arrays on the
+ * heap, {@link BufferAdjacency} reads them straight out of buffers, such as a mapped graph file, and
+ * {@link PagedAdjacency} keeps them in pages that copies with a few rows replaced can share. In the
+ * last, rows are not in the order of their vertices and some edge ids are unused, so code that visits
+ * every edge goes row by row rather than through the ids from 0 up to {@link #edgeCount()}.
+ * Objects of this class are immutable once constructed.
+ * @author Joel Tengco
+ *
+ */
+abstract class Adjacency {
+	/**
+	 * Gets a copy of this adjacency with the rows of some vertices replaced, and possibly with more
+	 * vertices. Runs of rows that are not replaced are copied over in bulk, so the cost is that of a
+	 * memory copy plus the size of the new rows, and no edge is looked at one by one. The copy is
+	 * kept in arrays, unless a subclass keeps it otherwise.
+	 * @param vertexCount The number of vertices of the copy, at least that of this adjacency. Vertices
+	 * beyond those of this adjacency start out with no edges.
+	 * @param rows The vertices whose rows are replaced, in ascending order.
+	 * @param rowTargets The target of each edge of each new row.
+	 * @param rowWeights The weight of each edge of each new row.
+	 * @param rowSizes The number of edges of each new row, which may be less than the length of its arrays.
+	 * @return A new <code>Adjacency</code> object with the given rows replaced.
+	 */
+	Adjacency withRows(int vertexCount, int[] rows, int[][] rowTargets, int[][] rowWeights, int[] rowSizes) {
+		int oldVertexCount = vertexCount();
+		int[] newOffsets = new int[vertexCount + 1];
+		int[] newTargets;
+		int[] newWeights;
+		int k = 0;
+
+		// work out the new row offsets, taking the size of each row from its replacement if it has one
+		for(int v = 0; v < vertexCount; v++) {
+			int size;
+			if(k < rows.length && rows[k] == v)
+				size = rowSizes[k++];
+			else
+				size = v < oldVertexCount ? rowEnd(v) - rowStart(v) : 0;
+			newOffsets[v + 1] = newOffsets[v] + size;
+		}
+
+		newTargets = new int[newOffsets[vertexCount]];
+		newWeights = new int[newOffsets[vertexCount]];
+		// copy the runs of rows between replaced ones in bulk, and the replaced rows from their arrays
+		int copyFrom = 0;
+		for(k = 0; k < rows.length; k++) {
+			copyRows(copyFrom, Math.min(rows[k], oldVertexCount), newOffsets, newTargets, newWeights);
+			System.arraycopy(rowTargets[k], 0, newTargets, newOffsets[rows[k]], rowSizes[k]);
+			System.arraycopy(rowWeights[k], 0, newWeights, newOffsets[rows[k]], rowSizes[k]);
+			copyFrom = rows[k] + 1;
+		}
+		copyRows(copyFrom, oldVertexCount, newOffsets, newTargets, newWeights);
+
+		return new ArrayAdjacency(newOffsets, newTargets, newWeights);
+	}
+
+	/**
+	 * Gets a copy of this adjacency with its vertices renumbered, each row moved to the new index of its
+	 * vertex and the target of each edge replaced by its new index. The edges of a row keep their order.
+	 * The copy is always kept in arrays.
+	 * @param newIndices The new index of each vertex.
+	 * @param oldIndices The old index of each new index, the inverse of the new indices.
+	 * @return A new <code>Adjacency</code> object with the vertices renumbered.
+	 */
+	Adjacency permuted(int[] newIndices, int[] oldIndices) {
+		int vertexCount = vertexCount();
+		int[] newOffsets = new int[vertexCount + 1];
+		int[] newTargets = new int[edgeCount()];
+		int[] newWeights = new int[edgeCount()];
+
+		for(int v = 0; v < vertexCount; v++) {
+			int oldIndex = oldIndices[v];
+			int size = rowEnd(oldIndex) - rowStart(oldIndex);
+
+			newOffsets[v + 1] = newOffsets[v] + size;
+			copyEdges(rowStart(oldIndex), size, newTargets, newWeights, newOffsets[v]);
+		}
+		for(int e = 0; e < newTargets.length; e++)
+			newTargets[e] = newIndices[newTargets[e]];
+
+		return new ArrayAdjacency(newOffsets, newTargets, newWeights);
+	}
+
+	/**
+	 * Copies the edges of a run of consecutive rows of this adjacency into the arrays of another.
+	 * @param first The first vertex of the run.
+	 * @param end One past the last vertex of the run.
+	 * @param newOffsets The row offsets of the other adjacency.
+	 * @param newTargets The edge targets of the other adjacency.
+	 * @param newWeights The edge weights of the other adjacency.
+	 */
+	private void copyRows(int first, int end, int[] newOffsets, int[] newTargets, int[] newWeights) {
+		if(first >= end)
+			return;
+
+		copyEdges(rowStart(first), rowStart(end) - rowStart(first), newTargets, newWeights, newOffsets[first]);
+	}
+
+	/**
+	 * Copies the targets and weights of a run of consecutive edges into the given arrays.
+	 * @param firstEdge The id of the first edge of the run.
+	 * @param edgeCount The number of edges in the run.
+	 * @param destTargets The array to copy the targets into.
+	 * @param destWeights The array to copy the weights into.
+	 * @param destPosition The position in both arrays of the first edge.
+	 */
+	abstract void copyEdges(int firstEdge, int edgeCount, int[] destTargets, int[] destWeights, int destPosition);
+
+	/**
+	 * Gets the number of vertices described by this adjacency.
+	 * @return The number of vertices.
+	 */
+	abstract int vertexCount();
+
+	/**
+	 * Gets the number of edges described by this adjacency.
+	 * @return The number of edges.
+	 */
+	abstract int edgeCount();
+
+	/**
+	 * Gets the id of the first edge leaving the given vertex.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The id of the first edge of the vertex's row.
+	 */
+	abstract int rowStart(int vertexIndex);
+
+	/**
+	 * Gets the id one past the last edge leaving the given vertex.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The id one past the last edge of the vertex's row.
+	 */
+	abstract int rowEnd(int vertexIndex);
+
+	/**
+	 * Gets the target vertex index of the given edge.
+	 * @param edge The id of the edge.
+	 * @return The index of the vertex the edge points to.
+	 */
+	abstract int target(int edge);
+
+	/**
+	 * Gets the weight of the given edge.
+	 * @param edge The id of the edge.
+	 * @return The weight of the edge.
+	 */
+	abstract int weight(int edge);
+
+	/**
+	 * Gets the weight of the edge from one vertex to another, the same way {@link Digraph#getEdgeWeight(int, int)} does.
+	 * @param sourceIndex The index of the vertex whose the source of the edge.
+	 * @param targetIndex The index of the vertex whose the target of the edge.
+	 * @return The weight of the edge if it exists, otherwise 0.
+	 */
+	int edgeWeight(int sourceIndex, int targetIndex) {
+		for(int e = rowStart(sourceIndex); e < rowEnd(sourceIndex); e++)
+			if(target(e) == targetIndex)
+				return weight(e);
+
+		return 0;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This class stores the edges of a graph in compressed sparse row form in three integer arrays on
+ * the heap, see {@link Adjacency}.
+ * <p>
+ * Objects of this class are immutable once constructed.
+ * @author Joel Tengco
+ *
+ */
+final class ArrayAdjacency extends Adjacency {
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+
+	/**
+	 * Constructs a new <code>ArrayAdjacency</code> object from already built CSR arrays. The arrays are
+	 * used as is, and thus must not be modified afterwards.
+	 * @param offsets An array of length <i>vertexCount + 1</i>, where the edges of vertex <i>v</i> are
+	 * stored from <code>offsets[v]</code> up to <code>offsets[v + 1]</code>.
+	 * @param targets The target vertex index of every edge.
+	 * @param weights The weight of every edge.
+	 */
+	ArrayAdjacency(int[] offsets, int[] targets, int[] weights) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	@Override
+	void copyEdges(int firstEdge, int edgeCount, int[] destTargets, int[] destWeights, int destPosition) {
+		System.arraycopy(targets, firstEdge, destTargets, destPosition, edgeCount);
+		System.arraycopy(weights, firstEdge, destWeights, destPosition, edgeCount);
+	}
+
+	@Override
+	int vertexCount() {
+		return offsets.length - 1;
+	}
+
+	@Override
+	int edgeCount() {
+		return offsets[offsets.length - 1];
+	}
+
+	@Override
+	int rowStart(int vertexIndex) {
+		return offsets[vertexIndex];
+	}
+
+	@Override
+	int rowEnd(int vertexIndex) {
+		return offsets[vertexIndex + 1];
+	}
+
+	@Override
+	int target(int edge) {
+		return targets[edge];
+	}
+
+	@Override
+	int weight(int edge) {
+		return weights[edge];
+	}
+}
@@ -0,0 +1,305 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class finds the routes between many pairs of cities at once, without the interactive loop of
+ * {@link Project3}. Each line of the input holds the codes of a source city and a target city. The
+ * lines are handed out in blocks to a pool of worker threads, which search a frozen graph in parallel,
+ * each with its own search state, and build the output of their block in memory. The blocks are then
+ * written out through the given writer, either in input order or as soon as they are done.
+ * <p>
+ * Each output line holds tab-separated columns: the input line number, the source and target codes,
+ * the distance and the route as comma-separated city codes, and, if timing is on, the microseconds the
+ * query took. A pair that cannot be routed gets "-" as its distance and the reason as its route. Once
+ * a run is done, {@link #getSummary()} reports its throughput and the spread of query times.
+ * @author Joel Tengco
+ *
+ */
+public final class BatchRouter {
+	// the number of input lines handed to a worker at once
+	private static final int BLOCK_SIZE = 1024;
+
+	private final CompactDigraph<City> graph;
+	private final ToIntFunction<City> cityIndex;
+	private final SearchMode searchMode;
+	private final int threadCount;
+	private boolean ordered = true;
+	private boolean timed;
+	// results of the last run
+	private long queryCount;
+	private long failureCount;
+	private long elapsedNanos;
+	private long[] queryNanos = new long[0];
+
+	/**
+	 * Constructs a new <code>BatchRouter</code> object.
+	 * @param graph The graph to search, which is only read, and so may be searched by many threads.
+	 * @param cityIndex A function giving the index of the city with the same code as a given city, or
+	 * -1 if there is none, such as {@link Digraph#getVertexIndex(Comparable)}. It is called by many
+	 * threads at once.
+	 * @param searchMode The algorithm to use for the searches.
+	 * @param threadCount The number of worker threads.
+	 * @throws IllegalArgumentException If the number of threads is not positive.
+	 */
+	public BatchRouter(CompactDigraph<City> graph, ToIntFunction<City> cityIndex, SearchMode searchMode,
+						int threadCount) throws IllegalArgumentException {
+		if(threadCount <= 0)
+			throw new IllegalArgumentException("Number of threads must be positive.");
+
+		this.graph = graph;
+		this.cityIndex = cityIndex;
+		this.searchMode = searchMode;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets whether the results are written in input order, the default, or as soon as each block of
+	 * them is done. The line number column tells the results apart either way.
+	 * @param ordered True to keep the input order, false to write blocks as they complete.
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Sets whether each result line ends with the microseconds its query took. Off by default.
+	 * @param timed True to add a timing column.
+	 */
+	public void setTimed(boolean timed) {
+		this.timed = timed;
+	}
+
+	/**
+	 * Routes every pair of city codes read from the input, and writes the results to the output. At
+	 * most a few blocks per thread are held in memory at once, however long the input is. The output is
+	 * flushed, but neither stream is closed.
+	 * @param in The input, one pair of city codes per line. Blank lines are skipped.
+	 * @param out The output.
+	 * @throws IOException If an input/output exception has occurred.
+	 */
+	public void run(BufferedReader in, Writer out) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+		CompletionService<Block> completed = new ExecutorCompletionService<Block>(pool);
+		ArrayDeque<Future<Block>> pending = new ArrayDeque<Future<Block>>();
+		int maxPending = 4 * threadCount;
+		long startTime = System.nanoTime();
+
+		queryCount = 0;
+		failureCount = 0;
+		queryNanos = new long[1024];
+		try {
+			int lineNumber = 0;
+			String line = in.readLine();
+			while(line != null) {
+				Block block = new Block(lineNumber + 1);
+				while(line != null && block.lineCount < BLOCK_SIZE) {
+					block.lines[block.lineCount++] = line;
+					lineNumber++;
+					line = in.readLine();
+				}
+
+				// in order, blocks are waited for one by one, so the completion queue would only keep them alive
+				pending.add(ordered ? pool.submit(block) : completed.submit(block));
+				// write out finished blocks once enough are waiting, so memory stays bounded
+				if(pending.size() >= maxPending)
+					writeBlock(ordered ? pending.poll() : takeCompleted(completed, pending), out);
+			}
+
+			while(!pending.isEmpty())
+				writeBlock(ordered ? pending.poll() : takeCompleted(completed, pending), out);
+			out.flush();
+		} finally {
+			pool.shutdownNow();
+		}
+
+		elapsedNanos = System.nanoTime() - startTime;
+		queryNanos = Arrays.copyOf(queryNanos, (int) queryCount);
+		Arrays.sort(queryNanos);
+	}
+
+	/**
+	 * Gets the number of pairs routed by the last run, including those that failed.
+	 * @return The number of queries.
+	 */
+	public long getQueryCount() {
+		return queryCount;
+	}
+
+	/**
+	 * Gets the number of pairs of the last run that could not be routed, or were malformed.
+	 * @return The number of failed queries.
+	 */
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * Returns a summary of the last run, formatted as: "Routed <i>n</i> pairs (<i>f</i> failed) in
+	 * <i>s</i> s on <i>t</i> threads: <i>r</i> routes/s; per query mean <i>m</i> us, median <i>p</i> us,
+	 * 99th percentile <i>q</i> us, max <i>x</i> us".
+	 * @return The summary of the last run.
+	 */
+	public String getSummary() {
+		double seconds = elapsedNanos / 1e9;
+		long totalNanos = 0;
+
+		for(long nanos : queryNanos)
+			totalNanos += nanos;
+
+		return String.format("Routed %d pairs (%d failed) in %.3f s on %d threads: %.0f routes/s; "
+								+ "per query mean %.1f us, median %.1f us, 99th percentile %.1f us, max %.1f us",
+								queryCount, failureCount, seconds, threadCount, seconds == 0 ? 0 : queryCount / seconds,
+								queryCount == 0 ? 0 : totalNanos / 1e3 / queryCount, percentile(0.5) / 1e3,
+								percentile(0.99) / 1e3, percentile(1) / 1e3);
+	}
+
+	/**
+	 * Gets a percentile of the query times of the last run.
+	 * @param fraction The fraction of queries at or below the returned time.
+	 * @return The query time in nanoseconds, or 0 if there were no queries.
+	 */
+	private long percentile(double fraction) {
+		if(queryNanos.length == 0)
+			return 0;
+
+		return queryNanos[(int) Math.min(queryNanos.length - 1, Math.ceil(fraction * queryNanos.length) - 1)];
+	}
+
+	/**
+	 * Waits for any block to complete, and forgets it as pending.
+	 */
+	private static Future<Block> takeCompleted(CompletionService<Block> completed, ArrayDeque<Future<Block>> pending) {
+		try {
+			Future<Block> future = completed.take();
+			pending.remove(future);
+			return future;
+		} catch(InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while routing.", ie);
+		}
+	}
+
+	/**
+	 * Waits for a block to be done, writes its results and adds up its query times.
+	 */
+	private void writeBlock(Future<Block> future, Writer out) throws IOException {
+		Block block;
+
+		try {
+			block = future.get();
+		} catch(InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while routing.", ie);
+		} catch(ExecutionException ee) {
+			// the cause goes into the message, as the caller may only report that
+			throw new IllegalStateException("Routing failed: " + ee.getCause(), ee.getCause());
+		}
+
+		out.append(block.output);
+		if(queryCount + block.queryCount > queryNanos.length)
+			queryNanos = Arrays.copyOf(queryNanos, (int) Math.max(queryCount + block.queryCount, 2L * queryNanos.length));
+		System.arraycopy(block.queryNanos, 0, queryNanos, (int) queryCount, block.queryCount);
+		queryCount += block.queryCount;
+		failureCount += block.failureCount;
+	}
+
+	/**
+	 * Used to hold a block of input lines, and once routed by a worker thread, their output and query times.
+	 * @author Joel Tengco
+	 *
+	 */
+	private class Block implements Callable<Block> {
+		private final int firstLineNumber;
+		private final String[] lines = new String[BLOCK_SIZE];
+		private int lineCount;
+		private final StringBuilder output = new StringBuilder();
+		private final long[] queryNanos = new long[BLOCK_SIZE];
+		private int queryCount;
+		private int failureCount;
+
+		public Block(int firstLineNumber) {
+			this.firstLineNumber = firstLineNumber;
+		}
+
+		@Override
+		public Block call() {
+			for(int i = 0; i < lineCount; i++) {
+				StringTokenizer tokenizer = new StringTokenizer(lines[i]);
+				if(!tokenizer.hasMoreTokens())
+					continue;
+
+				long startTime = System.nanoTime();
+				String sourceCode = tokenizer.nextToken();
+				String targetCode = tokenizer.hasMoreTokens() ? tokenizer.nextToken() : null;
+				output.append(firstLineNumber + i).append('\t').append(sourceCode).append('\t')
+						.append(targetCode == null ? "-" : targetCode).append('\t');
+				if(targetCode == null || tokenizer.hasMoreTokens())
+					fail("Expected two city codes.");
+				else
+					route(sourceCode, targetCode);
+
+				queryNanos[queryCount++] = System.nanoTime() - startTime;
+				if(timed)
+					output.append('\t').append(queryNanos[queryCount - 1] / 1000);
+				output.append('\n');
+			}
+
+			Arrays.fill(lines, null);
+			return this;
+		}
+
+		/**
+		 * Finds the route between two cities, and appends its distance and route columns.
+		 */
+		private void route(String sourceCode, String targetCode) {
+			int sourceIndex = cityIndex.applyAsInt(new City(sourceCode));
+			int targetIndex = cityIndex.applyAsInt(new City(targetCode));
+			ShortestPath path;
+
+			if(sourceIndex == -1) {
+				fail("City code " + sourceCode.toUpperCase() + " does not exist in this graph.");
+				return;
+			}
+			if(targetIndex == -1) {
+				fail("City code " + targetCode.toUpperCase() + " does not exist in this graph.");
+				return;
+			}
+
+			try {
+				path = graph.findShortestPath(sourceIndex, targetIndex, QueueStrategy.AUTO, searchMode);
+			} catch(IllegalArgumentException iae) {
+				fail(iae.getMessage());
+				return;
+			}
+
+			PrimitiveIterator.OfInt pathVertices = path.iterator();
+			output.append(path.getLength()).append('\t').append(graph.getVertex(pathVertices.nextInt()).getCityCode());
+			while(pathVertices.hasNext())
+				output.append(',').append(graph.getVertex(pathVertices.nextInt()).getCityCode());
+		}
+
+		private void fail(String message) {
+			output.append("-\t").append(message);
+			failureCount++;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class represents a graph of cities whose edges, city attributes and city codes and names are
+ * read in place from buffers laid out in the {@link GraphFile} format, rather than held as arrays and
+ * objects on the heap. When the buffers are mapped from a graph file, opening the graph costs next to
+ * nothing no matter its size: the operating system pages in only the parts the searches touch, and
+ * shares them between every process that maps the same file. When they are direct buffers, the graph
+ * lives in native memory, adding nothing to the heap or to the work of the garbage collector.
+ * <p>
+ * Searches run exactly as on any other {@link CompactDigraph}. {@link #getVertex(int)} decodes a new
+ * <code>City</code> object from the buffers on every call, and {@link #getVertexIndex(City)} looks
+ * up a city code in the hash table stored with the graph, so no per-vertex object is kept around.
+ * <p>
+ * Objects of this class are immutable, and are obtained through {@link GraphFile#map(java.io.File)}
+ * or {@link GraphFile#copyOffHeap(CompactDigraph)}.
+ * @author Joel Tengco
+ *
+ */
+public final class BinaryCityGraph extends CompactDigraph<City> {
+	private final IntBuffer numbers;
+	private final IntBuffer populations;
+	private final IntBuffer elevations;
+	private final IntBuffer stringStarts;	// code of city v at [v, v + 1), its name at [n + v, n + v + 1)
+	private final IntBuffer codeTable;		// open-addressing table of city indices by folded code, -1 if empty
+	private final ByteBuffer strings;		// UTF-8 bytes of every code, then of every name
+
+	/**
+	 * Constructs a new <code>BinaryCityGraph</code> object over the given buffers, which are used as is,
+	 * from index 0, and thus must not be modified afterwards.
+	 * @param outgoing The outgoing edges of every city.
+	 * @param incoming The incoming edges of every city.
+	 * @param numbers The number of every city.
+	 * @param populations The population of every city.
+	 * @param elevations The elevation of every city.
+	 * @param stringStarts The offset in the string bytes of every city code, then of every city name,
+	 * followed by the total number of string bytes.
+	 * @param codeTable The hash table of city indices by folded city code, probed with
+	 * {@link VertexIndex#slotOf(Object, int)}.
+	 * @param strings The string bytes.
+	 */
+	BinaryCityGraph(Adjacency outgoing, Adjacency incoming, IntBuffer numbers, IntBuffer populations,
+					IntBuffer elevations, IntBuffer stringStarts, IntBuffer codeTable, ByteBuffer strings) {
+		super(null, outgoing, incoming, null);
+		this.numbers = numbers;
+		this.populations = populations;
+		this.elevations = elevations;
+		this.stringStarts = stringStarts;
+		this.codeTable = codeTable;
+		this.strings = strings;
+	}
+
+	/**
+	 * Gets the city at the given index, decoded from the buffers of this graph. Every call returns a
+	 * new <code>City</code> object.
+	 * @param index The index of the city.
+	 * @return A new <code>City</code> object with the attributes of the indexed city.
+	 */
+	@Override
+	public City getVertex(int index) {
+		return new City(numbers.get(index), getCityCode(index), getCityName(index),
+							populations.get(index), elevations.get(index));
+	}
+
+	/**
+	 * Gets the code of the city at the given index, without decoding the rest of the city.
+	 * @param index The index of the city.
+	 * @return The code of the city.
+	 */
+	public String getCityCode(int index) {
+		return string(index);
+	}
+
+	/**
+	 * Gets the name of the city at the given index, without decoding the rest of the city.
+	 * @param index The index of the city.
+	 * @return The name of the city.
+	 */
+	public String getCityName(int index) {
+		return string(getVertexCount() + index);
+	}
+
+	/**
+	 * Gets the index of the city with the same code as the search element, ignoring case, the same
+	 * way as {@link Digraph#getVertexIndex(Comparable)} does with {@link City#CODE_KEY} set as its key.
+	 * @param searchElement A city with the code to look for.
+	 * @return The index of the first city with that code, or -1 if there is none.
+	 */
+	public int getVertexIndex(City searchElement) {
+		String key = City.CODE_KEY.apply(searchElement);
+		int mask = codeTable.limit() - 1;
+
+		for(int slot = VertexIndex.slotOf(key, mask); codeTable.get(slot) != -1; slot = (slot + 1) & mask) {
+			int index = codeTable.get(slot);
+			if(City.CODE_KEY.apply(new City(getCityCode(index))).equals(key))
+				return index;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Decodes one string of the string table.
+	 * @param stringIndex The index of the string, a city index for codes or the number of cities plus
+	 * a city index for names.
+	 * @return The decoded string.
+	 */
+	private String string(int stringIndex) {
+		int start = stringStarts.get(stringIndex);
+		byte[] bytes = new byte[stringStarts.get(stringIndex + 1) - start];
+
+		// absolute bulk gets only came with Java 13, so read through a duplicate instead
+		ByteBuffer view = strings.duplicate();
+		view.position(start);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
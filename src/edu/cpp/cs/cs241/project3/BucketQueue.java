@@ -0,0 +1,161 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class is Dial's bucket queue: a circular array of buckets, one per key, each holding the vertices
+ * waiting with that key in a doubly linked list threaded through per-vertex arrays. Offering a vertex,
+ * lowering its key and removing it all take constant time, with no comparisons; finding the smallest
+ * key steps over the empty buckets between one key and the next, which is cheap when edge weights are
+ * small integers, as road lengths are.
+ * <p>
+ * The queue relies on the keys being monotone, as they are in Dijkstra's algorithm: no vertex may be
+ * offered with a key below the last key polled. The waiting keys then always lie within a window no
+ * wider than the largest edge weight, or the largest jump in key, which the array of buckets grows to
+ * cover, up to 2<sup>30</sup> keys wide; a wider window is rejected, and {@link RadixHeap} should be
+ * used instead. Like {@link IndexedMinHeap}, every vertex waits at most once, so no stale entries are kept.
+ * @author Joel Tengco
+ *
+ */
+final class BucketQueue implements Frontier {
+	// the most buckets the array can have, being the largest power of two an array can hold
+	private static final int MAX_WIDTH = 1 << 30;
+
+	private int[] heads;			// first vertex of each bucket, or -1, indexed by key modulo their number
+	private final int[] next;		// next vertex in the bucket of each waiting vertex, or -1
+	private final int[] previous;	// previous vertex in the bucket of each waiting vertex, or -1
+	private final int[] keys;		// key of each waiting vertex, or -1 if it is not waiting
+	private int size;
+	private int currentKey;			// no waiting vertex has a smaller key
+	private boolean polled;			// whether a vertex was polled since the queue was last cleared
+
+	/**
+	 * Constructs a new, empty <code>BucketQueue</code> object able to hold the vertices
+	 * 0 up to <code>vertexCount - 1</code>.
+	 * @param vertexCount The number of vertices this queue can hold.
+	 */
+	BucketQueue(int vertexCount) {
+		heads = new int[64];
+		next = new int[vertexCount];
+		previous = new int[vertexCount];
+		keys = new int[vertexCount];
+		Arrays.fill(heads, -1);
+		Arrays.fill(keys, -1);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Inserts the given vertex with the given key, or lowers its key if it is already waiting with a
+	 * larger one. Offering a larger key for a vertex already waiting does nothing.
+	 * @throws IllegalArgumentException If the key is smaller than the last key polled, or the keys
+	 * waiting would span more than 2<sup>30</sup> buckets.
+	 */
+	@Override
+	public void offer(int vertexIndex, int key) throws IllegalArgumentException {
+		if(keys[vertexIndex] != -1) {
+			if(key >= keys[vertexIndex])
+				return;
+			unlink(vertexIndex);
+		}
+
+		if(!polled && size == 0)
+			currentKey = key;
+		else if(key < currentKey) {
+			if(polled)
+				throw new IllegalArgumentException("Keys of a bucket queue must not go below the last key polled.");
+			// nothing has been polled yet, so the window can still move down to the new key
+			grow((long) currentKey - key + heads.length);
+			currentKey = key;
+		}
+		if(key - currentKey >= heads.length)
+			grow((long) key - currentKey + 1);
+
+		link(vertexIndex, key);
+	}
+
+	@Override
+	public int peekKey() {
+		while(heads[currentKey & (heads.length - 1)] == -1)
+			currentKey++;
+
+		return currentKey;
+	}
+
+	@Override
+	public int poll() {
+		int vertexIndex = heads[peekKey() & (heads.length - 1)];
+
+		polled = true;
+		unlink(vertexIndex);
+		return vertexIndex;
+	}
+
+	/**
+	 * Removes every vertex still waiting. This takes time proportional to the number of vertices
+	 * waiting plus the width of their keys, rather than to the capacity of this queue.
+	 */
+	@Override
+	public void clear() {
+		while(size > 0)
+			poll();
+		polled = false;
+	}
+
+	private void link(int vertexIndex, int key) {
+		int bucket = key & (heads.length - 1);
+
+		keys[vertexIndex] = key;
+		previous[vertexIndex] = -1;
+		next[vertexIndex] = heads[bucket];
+		if(heads[bucket] != -1)
+			previous[heads[bucket]] = vertexIndex;
+		heads[bucket] = vertexIndex;
+		size++;
+	}
+
+	private void unlink(int vertexIndex) {
+		if(previous[vertexIndex] != -1)
+			next[previous[vertexIndex]] = next[vertexIndex];
+		else
+			heads[keys[vertexIndex] & (heads.length - 1)] = next[vertexIndex];
+		if(next[vertexIndex] != -1)
+			previous[next[vertexIndex]] = previous[vertexIndex];
+		keys[vertexIndex] = -1;
+		size--;
+	}
+
+	/**
+	 * Widens the array of buckets to the next power of two of at least the given width, moving every
+	 * waiting vertex into its bucket in the wider array.
+	 * @throws IllegalArgumentException If the width is more than 2<sup>30</sup>.
+	 */
+	private void grow(long width) throws IllegalArgumentException {
+		int[] oldHeads = heads;
+		int capacity = heads.length;
+
+		if(width > MAX_WIDTH)
+			throw new IllegalArgumentException("Keys of a bucket queue must lie within " + MAX_WIDTH + " of each other.");
+		while(capacity < width)
+			capacity <<= 1;
+		heads = new int[capacity];
+		Arrays.fill(heads, -1);
+		size = 0;
+
+		for(int bucket = 0; bucket < oldHeads.length; bucket++) {
+			int vertexIndex = oldHeads[bucket];
+			while(vertexIndex != -1) {
+				int nextVertex = next[vertexIndex];
+				link(vertexIndex, keys[vertexIndex]);
+				vertexIndex = nextVertex;
+			}
+		}
+	}
+}
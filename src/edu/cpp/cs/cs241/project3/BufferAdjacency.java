@@ -0,0 +1,99 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.nio.IntBuffer;
+
+/**
+ * This class stores the edges of a graph in compressed sparse row form in integer buffers, see
+ * {@link Adjacency}. The buffers are read in place with absolute gets, so when they are views
+ * of a mapped file the edges are never copied onto the heap; the operating system pages them in
+ * as the searches touch them.
+ * <p>
+ * A buffer holds at most 2 GB, so the targets and the weights are each split into chunks of
+ * {@link #CHUNK_SIZE} edges, the last one holding the rest, which lets a graph have as many edges as
+ * an edge id can number. The row offsets are kept in a single buffer.
+ * <p>
+ * Objects of this class are immutable once constructed.
+ * @author Joel Tengco
+ *
+ */
+final class BufferAdjacency extends Adjacency {
+	static final int CHUNK_SHIFT = 28;
+	/**
+	 * The number of edges in each chunk of the targets and of the weights but the last, 1 GB worth.
+	 */
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final IntBuffer offsets;
+	private final IntBuffer[] targets;
+	private final IntBuffer[] weights;
+
+	/**
+	 * Constructs a new <code>BufferAdjacency</code> object from already built CSR buffers, laid out
+	 * the same way as the arrays of an {@link ArrayAdjacency}, with the targets and weights split into
+	 * chunks. The buffers are used as is, from index 0, and thus must not be modified afterwards.
+	 * @param offsets A buffer of <i>vertexCount + 1</i> row offsets.
+	 * @param targets The target vertex index of every edge, in chunks of {@link #CHUNK_SIZE} edges.
+	 * @param weights The weight of every edge, in chunks of {@link #CHUNK_SIZE} edges.
+	 */
+	BufferAdjacency(IntBuffer offsets, IntBuffer[] targets, IntBuffer[] weights) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	@Override
+	void copyEdges(int firstEdge, int edgeCount, int[] destTargets, int[] destWeights, int destPosition) {
+		// copy chunk by chunk, as the run may cross from one chunk into the next
+		while(edgeCount > 0) {
+			int chunk = firstEdge >>> CHUNK_SHIFT;
+			int start = firstEdge & CHUNK_MASK;
+			int count = Math.min(edgeCount, CHUNK_SIZE - start);
+			// duplicates keep the positions of the shared buffers untouched
+			IntBuffer targetRun = targets[chunk].duplicate();
+			IntBuffer weightRun = weights[chunk].duplicate();
+
+			targetRun.position(start);
+			targetRun.get(destTargets, destPosition, count);
+			weightRun.position(start);
+			weightRun.get(destWeights, destPosition, count);
+			firstEdge += count;
+			destPosition += count;
+			edgeCount -= count;
+		}
+	}
+
+	@Override
+	int vertexCount() {
+		return offsets.limit() - 1;
+	}
+
+	@Override
+	int edgeCount() {
+		return offsets.get(offsets.limit() - 1);
+	}
+
+	@Override
+	int rowStart(int vertexIndex) {
+		return offsets.get(vertexIndex);
+	}
+
+	@Override
+	int rowEnd(int vertexIndex) {
+		return offsets.get(vertexIndex + 1);
+	}
+
+	@Override
+	int target(int edge) {
+		return targets[edge >>> CHUNK_SHIFT].get(edge & CHUNK_MASK);
+	}
+
+	@Override
+	int weight(int edge) {
+		return weights[edge >>> CHUNK_SHIFT].get(edge & CHUNK_MASK);
+	}
+}
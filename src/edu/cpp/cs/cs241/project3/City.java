@@ -4,6 +4,8 @@
 
 package edu.cpp.cs.cs241.project3;
 
+import java.util.function.Function;
+
 /**
  * This class will represent the properties of a city, including its city number, code, name,
  * population and elevation.
@@ -11,6 +13,13 @@ package edu.cpp.cs.cs241.project3;
  *
  */
 public class City implements Comparable<City> {
+	/**
+	 * A key function for {@link Digraph#setVertexKey(Function)}, mapping a city to its city code
+	 * with case folded the same way {@link #compareTo(City)} ignores case. Two cities get equal
+	 * keys if and only if <code>compareTo</code> returns zero for them.
+	 */
+	public static final Function<City, String> CODE_KEY = city -> foldCase(city.cityCode);
+	
 	private int cityNumber;
 	private String cityCode;
 	private String cityName;
@@ -96,6 +105,21 @@ public class City implements Comparable<City> {
 		return cityCode.compareToIgnoreCase(o.cityCode);
 	}
 	
+	/**
+	 * Folds the case of every character in the given code, the same way
+	 * <code>String.compareToIgnoreCase</code> compares characters.
+	 * @param code The city code to fold.
+	 * @return The city code with every character folded.
+	 */
+	private static String foldCase(String code) {
+		char[] folded = new char[code.length()];
+		
+		for(int i = 0; i < folded.length; i++)
+			folded[i] = Character.toLowerCase(Character.toUpperCase(code.charAt(i)));
+		
+		return new String(folded);
+	}
+	
 	/**
 	 * Returns a string formatted as: "<i>number code name population elevation</i>". 
 	 */
@@ -0,0 +1,720 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents an immutable, compact view of a {@link Digraph}. Instead of a linked list of
+ * edge nodes per vertex, the edges are stored in compressed sparse row form: one array of offsets
+ * indexed by vertex, and two parallel arrays holding the target and weight of each edge. This keeps
+ * the memory footprint small and lets the shortest path search walk the edges of a vertex in order.
+ * <p>
+ * Objects of this class are obtained through {@link Digraph#toCompact()} or {@link Digraph#freeze()},
+ * and use the same vertex indices as the graph they were built from. A frozen graph may lay out its
+ * edges and search state in a different {@linkplain VertexOrdering order} of vertices, so that the
+ * neighbors of a vertex sit close to it in memory; the vertex indices it takes and returns stay the same.
+ * @author Joel Tengco
+ * @param <T> The type of objects this graph contains as its vertices.
+ *
+ */
+public class CompactDigraph<T extends Comparable<T>> implements ShortestPathFinder {
+	// the largest edge weight for which QueueStrategy.AUTO picks Dial's buckets
+	private static final int MAX_DIAL_EDGE_WEIGHT = 4096;
+	
+	private final T[] vertices;
+	private final Adjacency outgoing;
+	private final Adjacency incoming;
+	private final LandmarkIndex landmarks;
+	private volatile ContractionHierarchy hierarchy;	// built the first time it is needed
+	private volatile int maxEdgeWeight;					// no smaller than any edge weight, found when first needed if -1
+	private final VertexPermutation permutation;		// internal index of each vertex index, or null if the same
+
+	/**
+	 * Constructs a new <code>CompactDigraph</code> object with the given vertices and edges.
+	 * @param vertices The vertices of this graph, which must not be modified afterwards.
+	 * @param outgoing The outgoing edges of every vertex.
+	 * @param incoming The incoming edges of every vertex, holding the same edges as the outgoing ones
+	 * with each edge's target being its source instead.
+	 * @param landmarks The landmarks used by {@link SearchMode#ALT} searches, or null if there are none.
+	 */
+	CompactDigraph(T[] vertices, Adjacency outgoing, Adjacency incoming, LandmarkIndex landmarks) {
+		this(vertices, outgoing, incoming, landmarks, null, -1);
+	}
+	
+	/**
+	 * Constructs a new <code>CompactDigraph</code> object with the given vertices and edges, and a known
+	 * bound on the weight of its edges, which spares the scan of every edge the first search that needs
+	 * the largest weight would make otherwise.
+	 * @param vertices The vertices of this graph, which must not be modified afterwards.
+	 * @param outgoing The outgoing edges of every vertex.
+	 * @param incoming The incoming edges of every vertex.
+	 * @param landmarks The landmarks used by {@link SearchMode#ALT} searches, or null if there are none.
+	 * @param maxEdgeWeight A weight no smaller than that of any edge, such as the largest weight of a graph
+	 * this one only adds edges of known weights to or removes edges from, or -1 if it is not known.
+	 */
+	CompactDigraph(T[] vertices, Adjacency outgoing, Adjacency incoming, LandmarkIndex landmarks, int maxEdgeWeight) {
+		this(vertices, outgoing, incoming, landmarks, null, maxEdgeWeight);
+	}
+	
+	/**
+	 * Constructs a new <code>CompactDigraph</code> object with the given vertices, and edges laid out
+	 * by the given permutation.
+	 * @param vertices The vertices of this graph, by vertex index, which must not be modified afterwards.
+	 * @param outgoing The outgoing edges of every vertex, by internal index.
+	 * @param incoming The incoming edges of every vertex, by internal index.
+	 * @param landmarks The landmarks used by {@link SearchMode#ALT} searches, or null if there are none.
+	 * @param permutation The internal index of each vertex index, or null if they are the same.
+	 * @param maxEdgeWeight A weight no smaller than that of any edge, or -1 if it is not known.
+	 */
+	private CompactDigraph(T[] vertices, Adjacency outgoing, Adjacency incoming, LandmarkIndex landmarks,
+							VertexPermutation permutation, int maxEdgeWeight) {
+		this.vertices = vertices;
+		this.outgoing = outgoing;
+		this.incoming = incoming;
+		this.landmarks = landmarks;
+		this.permutation = permutation;
+		this.maxEdgeWeight = maxEdgeWeight;
+	}
+	
+	/**
+	 * Gets a copy of this graph, sharing its vertices and edges, that uses the given landmarks for
+	 * {@link SearchMode#ALT} searches.
+	 * @param landmarks The landmarks to use, which must have been built for this graph or for one
+	 * that has every edge of this graph with no larger weight, or null for none.
+	 * @return A new <code>CompactDigraph</code> using the given landmarks.
+	 */
+	CompactDigraph<T> withLandmarks(LandmarkIndex landmarks) {
+		CompactDigraph<T> copy = new CompactDigraph<T>(vertices, outgoing, incoming, landmarks, permutation, maxEdgeWeight);
+		
+		// the hierarchy only depends on the edges, so the copy can share it
+		copy.hierarchy = hierarchy;
+		return copy;
+	}
+	
+	/**
+	 * Gets the vertices of this graph.
+	 * @return The array of vertices itself, which must not be modified.
+	 */
+	T[] vertices() {
+		return vertices;
+	}
+	
+	/**
+	 * Gets a copy of this graph, sharing its vertices, with its edges laid out in the given order of
+	 * vertices. The copy takes and returns the same vertex indices as this graph.
+	 * @param ordering The order to lay out the vertices in.
+	 * @return A new <code>CompactDigraph</code> with its edges in that order, or this graph in the order
+	 * of its vertex indices if the ordering is {@link VertexOrdering#NONE}.
+	 */
+	CompactDigraph<T> reordered(VertexOrdering ordering) {
+		CompactDigraph<T> graph = inVertexOrder();
+		VertexPermutation newPermutation;
+		
+		if(ordering == VertexOrdering.NONE)
+			return graph;
+		
+		newPermutation = VertexPermutation.of(ordering, graph.outgoing, graph.incoming);
+		return new CompactDigraph<T>(vertices, newPermutation.apply(graph.outgoing), newPermutation.apply(graph.incoming),
+										landmarks, newPermutation, maxEdgeWeight);
+	}
+	
+	/**
+	 * Gets this graph with its edges laid out in the order of its vertex indices, for code that reads
+	 * the edges of a vertex by its index.
+	 * @return This graph, or a copy of it sharing its vertices if its edges are in another order.
+	 */
+	CompactDigraph<T> inVertexOrder() {
+		if(permutation == null)
+			return this;
+		
+		return new CompactDigraph<T>(vertices, permutation.undo(outgoing), permutation.undo(incoming), landmarks, maxEdgeWeight);
+	}
+	
+	/**
+	 * Gets the index in the edges and search state of this graph of the given vertex, which is its
+	 * vertex index unless the vertices are laid out in another order. Indices out of range are returned
+	 * as they are, for the search to reject.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The internal index of the vertex.
+	 */
+	int internalIndex(int vertexIndex) {
+		if(permutation == null || vertexIndex < 0 || vertexIndex >= getVertexCount())
+			return vertexIndex;
+		
+		return permutation.internal(vertexIndex);
+	}
+	
+	/**
+	 * Gets the vertex index of the vertex at the given index in the edges and search state of this graph.
+	 * @param internalIndex The internal index of the vertex.
+	 * @return The index of the vertex.
+	 */
+	int externalIndex(int internalIndex) {
+		return permutation == null ? internalIndex : permutation.external(internalIndex);
+	}
+	
+	/**
+	 * Gets the outgoing edges of every vertex of this graph, by internal index.
+	 * @return The outgoing edges.
+	 */
+	Adjacency outgoing() {
+		return outgoing;
+	}
+	
+	/**
+	 * Gets the incoming edges of every vertex of this graph, by internal index.
+	 * @return The incoming edges.
+	 */
+	Adjacency incoming() {
+		return incoming;
+	}
+	
+	/**
+	 * Picks the given number of landmarks in this graph and computes their path length tables, see
+	 * {@link LandmarkIndex}. The landmarks are not used by this graph; use
+	 * {@link Digraph#buildLandmarks(int)} to have a graph search with them.
+	 * @param landmarkCount The number of landmarks wanted.
+	 * @return The landmarks of this graph.
+	 * @throws IllegalArgumentException If the number of landmarks wanted is not positive.
+	 */
+	public LandmarkIndex buildLandmarks(int landmarkCount) throws IllegalArgumentException {
+		return LandmarkIndex.build(this, landmarkCount);
+	}
+	
+	/**
+	 * Gets the landmarks used by {@link SearchMode#ALT} searches on this graph.
+	 * @return The landmarks of this graph, or null if it has none, in which case ALT searches
+	 * fall back to plain Dijkstra's algorithm.
+	 */
+	public LandmarkIndex getLandmarks() {
+		return landmarks;
+	}
+	
+	/**
+	 * Gets the contraction hierarchy of this graph, used by {@link SearchMode#CONTRACTION_HIERARCHY}
+	 * searches. It is built the first time this method is called, which takes a while on large graphs,
+	 * and kept for as long as this graph is.
+	 * @return The contraction hierarchy of this graph.
+	 */
+	public ContractionHierarchy getContractionHierarchy() {
+		ContractionHierarchy result = hierarchy;
+		
+		if(result == null) {
+			synchronized(this) {
+				result = hierarchy;
+				if(result == null)
+					hierarchy = result = ContractionHierarchy.build(getVertexCount(), outgoing, permutation);
+			}
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Gets the number of vertices in this graph.
+	 * @return The number of vertices.
+	 */
+	public int getVertexCount() {
+		return outgoing.vertexCount();
+	}
+
+	/**
+	 * Gets the number of edges in this graph.
+	 * @return The number of edges.
+	 */
+	public int getEdgeCount() {
+		return outgoing.edgeCount();
+	}
+
+	/**
+	 * Gets a reference to a vertex in this graph, specified by the given index.
+	 * @param index The index of the vertex to get a reference to.
+	 * @return A reference to the indexed vertex in this graph.
+	 */
+	public T getVertex(int index) {
+		return vertices[index];
+	}
+
+	/**
+	 * Gets the weight of an edge in this graph. If the edge exists, then the weight is returned,
+	 * otherwise 0 is returned.
+	 * @param sourceIndex The index of the vertex whose the source of the edge.
+	 * @param targetIndex The index of the vertex whose the target of the edge.
+	 * @return The weight of the edge in this graph if it exists, otherwise 0.
+	 */
+	public int getEdgeWeight(int sourceIndex, int targetIndex) {
+		return outgoing.edgeWeight(internalIndex(sourceIndex), internalIndex(targetIndex));
+	}
+
+	/**
+	 * Gets the shortest path from one vertex to another, in the same format as
+	 * {@link Digraph#getShortestPath(int, int)}: the first element of the returned array is the
+	 * shortest path's length, and the rest of the array is the index of each vertex in the path,
+	 * from source to target. The search uses an {@linkplain QueueStrategy#INDEXED_HEAP indexed heap}.
+	 * <p>
+	 * Searches reuse per-thread working state rather than allocating it, and only touch the vertices
+	 * they reach, so the only allocation made is the returned array.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return An integer array containing the path length as its first element and the rest being
+	 * the path represented as the index of each vertex contained in the path.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	@Override
+	public int[] getShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return getShortestPath(sourceIndex, targetIndex, QueueStrategy.INDEXED_HEAP, SearchMode.DIJKSTRA);
+	}
+	
+	/**
+	 * Finds the shortest path from one vertex to another, the same way as {@link #getShortestPath(int, int)},
+	 * but returns it as a {@link ShortestPath}.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	@Override
+	public ShortestPath findShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return findShortestPath(sourceIndex, targetIndex, QueueStrategy.INDEXED_HEAP, SearchMode.DIJKSTRA);
+	}
+	
+	/**
+	 * Gets only the length of the shortest path from one vertex to another, the same way as
+	 * {@link #getShortestPath(int, int)}, without building the path itself.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The length of the shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	@Override
+	public int getShortestPathLength(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return getShortestPathLength(sourceIndex, targetIndex, QueueStrategy.INDEXED_HEAP, SearchMode.DIJKSTRA);
+	}
+	
+	/**
+	 * Gets the shortest path from one vertex to another, the same way as {@link #getShortestPath(int, int)},
+	 * but using the given kind of priority queue and algorithm for the search.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use for the search.
+	 * @param mode The algorithm to use for the search.
+	 * @return An integer array containing the path length as its first element and the rest being
+	 * the path represented as the index of each vertex contained in the path.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	public int[] getShortestPath(int sourceIndex, int targetIndex, QueueStrategy strategy, SearchMode mode) throws IllegalArgumentException {
+		return findShortestPath(sourceIndex, targetIndex, strategy, mode).toArray();
+	}
+	
+	/**
+	 * Finds the shortest path from one vertex to another, the same way as
+	 * {@link #getShortestPath(int, int, QueueStrategy, SearchMode)}, but returns it as a {@link ShortestPath}.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use for the search.
+	 * @param mode The algorithm to use for the search.
+	 * @return The shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	public ShortestPath findShortestPath(int sourceIndex, int targetIndex, QueueStrategy strategy, SearchMode mode) throws IllegalArgumentException {
+		SearchStatistics statistics = SearchStatistics.recorder(mode);
+		ShortestPath path;
+		
+		if(statistics == null)
+			return searchPath(sourceIndex, targetIndex, strategy, mode);
+		
+		statistics.begin();
+		try {
+			path = searchPath(sourceIndex, targetIndex, strategy, mode);
+		} catch(IllegalArgumentException iae) {
+			statistics.end(false);
+			throw iae;
+		}
+		statistics.end(true);
+		return path;
+	}
+	
+	/**
+	 * Gets only the length of the shortest path from one vertex to another, without building the
+	 * path itself. Apart from the search, nothing is allocated.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use for the search.
+	 * @param mode The algorithm to use for the search.
+	 * @return The length of the shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	public int getShortestPathLength(int sourceIndex, int targetIndex, QueueStrategy strategy, SearchMode mode) throws IllegalArgumentException {
+		SearchStatistics statistics = SearchStatistics.recorder(mode);
+		int pathLength;
+		
+		if(statistics == null)
+			return searchPathLength(sourceIndex, targetIndex, strategy, mode);
+		
+		statistics.begin();
+		try {
+			pathLength = searchPathLength(sourceIndex, targetIndex, strategy, mode);
+		} catch(IllegalArgumentException iae) {
+			statistics.end(false);
+			throw iae;
+		}
+		statistics.end(true);
+		return pathLength;
+	}
+	
+	/**
+	 * Runs the search of {@link #findShortestPath(int, int, QueueStrategy, SearchMode)}, without
+	 * recording it in the {@link SearchStatistics}.
+	 */
+	private ShortestPath searchPath(int sourceIndex, int targetIndex, QueueStrategy strategy, SearchMode mode) throws IllegalArgumentException {
+		ShortestPath path = searchInternalPath(internalIndex(sourceIndex), internalIndex(targetIndex), resolve(strategy, mode), mode);
+		
+		return permutation == null ? path : permutation.external(path);
+	}
+	
+	/**
+	 * Runs the search of {@link #searchPath(int, int, QueueStrategy, SearchMode)} between internal
+	 * indices, with the strategy resolved.
+	 */
+	private ShortestPath searchInternalPath(int sourceIndex, int targetIndex, QueueStrategy strategy, SearchMode mode) throws IllegalArgumentException {
+		SearchContext context;
+		
+		if(mode == SearchMode.CONTRACTION_HIERARCHY)
+			return getContractionHierarchy().findShortestPath(sourceIndex, targetIndex, strategy);
+		
+		if(mode == SearchMode.BIDIRECTIONAL) {
+			SearchContext reverseContext;
+			int meetingIndex;
+			
+			context = SearchContext.get(getVertexCount());
+			reverseContext = SearchContext.getReverse(getVertexCount());
+			meetingIndex = searchBidirectional(sourceIndex, targetIndex, strategy, context, reverseContext);
+			
+			// join the forward path up to the meeting vertex with the backward path from it
+			int[] forwardPath = context.pathTo(meetingIndex);
+			int[] backwardPath = reverseContext.pathTo(meetingIndex);
+			int[] path = Arrays.copyOf(forwardPath, forwardPath.length + backwardPath.length - 1);
+			for(int i = 1; i < backwardPath.length; i++)
+				path[forwardPath.length - 1 + i] = backwardPath[backwardPath.length - 1 - i];
+			
+			return new ShortestPath(context.pathLength(meetingIndex) + reverseContext.pathLength(meetingIndex), path);
+		}
+		
+		context = search(sourceIndex, targetIndex, strategy, outgoing, mode == SearchMode.ALT ? landmarks : null);
+		return new ShortestPath(context.pathLength(targetIndex), context.pathTo(targetIndex));
+	}
+	
+	/**
+	 * Runs the search of {@link #getShortestPathLength(int, int, QueueStrategy, SearchMode)}, without
+	 * recording it in the {@link SearchStatistics}.
+	 */
+	private int searchPathLength(int sourceIndex, int targetIndex, QueueStrategy strategy, SearchMode mode) throws IllegalArgumentException {
+		strategy = resolve(strategy, mode);
+		sourceIndex = internalIndex(sourceIndex);
+		targetIndex = internalIndex(targetIndex);
+		if(mode == SearchMode.CONTRACTION_HIERARCHY)
+			return getContractionHierarchy().getShortestPathLength(sourceIndex, targetIndex, strategy);
+		
+		if(mode == SearchMode.BIDIRECTIONAL) {
+			SearchContext context = SearchContext.get(getVertexCount());
+			SearchContext reverseContext = SearchContext.getReverse(getVertexCount());
+			int meetingIndex = searchBidirectional(sourceIndex, targetIndex, strategy, context, reverseContext);
+			
+			return context.pathLength(meetingIndex) + reverseContext.pathLength(meetingIndex);
+		}
+		
+		return search(sourceIndex, targetIndex, strategy, outgoing, mode == SearchMode.ALT ? landmarks : null).pathLength(targetIndex);
+	}
+	
+	/**
+	 * Picks the priority queue a search of the given mode uses when asked for {@link QueueStrategy#AUTO}.
+	 * Dial's buckets step over one bucket per path length between the vertices they settle, which
+	 * costs little while edges are short next to the log of the vertex count a heap pays per vertex;
+	 * past that, or over the shortcuts of a contraction hierarchy, a radix heap does better.
+	 * @param strategy The priority queue asked for.
+	 * @param mode The algorithm of the search.
+	 * @return The priority queue to use, which is the one asked for unless that is <code>AUTO</code>.
+	 */
+	private QueueStrategy resolve(QueueStrategy strategy, SearchMode mode) {
+		if(strategy != QueueStrategy.AUTO)
+			return strategy;
+		if(mode == SearchMode.CONTRACTION_HIERARCHY)
+			return QueueStrategy.RADIX_HEAP;
+		
+		return getMaxEdgeWeight() <= MAX_DIAL_EDGE_WEIGHT ? QueueStrategy.DIAL_BUCKETS : QueueStrategy.RADIX_HEAP;
+	}
+	
+	/**
+	 * Gets the largest weight of any edge of this graph, scanning the edges the first time unless a bound
+	 * was given when this graph was built, in which case that bound is returned; it may be larger than
+	 * every edge once edges were removed, which is all the searches need.
+	 * @return The largest edge weight or a bound on it, or 0 if there are no edges.
+	 */
+	int getMaxEdgeWeight() {
+		int max = maxEdgeWeight;
+		
+		if(max == -1) {
+			max = 0;
+			for(int v = 0; v < outgoing.vertexCount(); v++)
+				for(int e = outgoing.rowStart(v); e < outgoing.rowEnd(v); e++)
+					max = Math.max(max, outgoing.weight(e));
+			maxEdgeWeight = max;
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph with a single search,
+	 * see {@link ShortestPathTree}.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @return The shortest path tree rooted at the source vertex.
+	 */
+	public ShortestPathTree shortestPathTree(int sourceIndex) {
+		ShortestPathTree tree = ShortestPathTree.of(internalIndex(sourceIndex), getVertexCount(), searchAll(internalIndex(sourceIndex), false));
+		
+		return permutation == null ? tree : permutation.external(tree);
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph, like
+	 * {@link #shortestPathTree(int)}, but with a single search whose edge relaxations run in parallel on
+	 * the common fork-join pool, see {@link #parallelShortestPathTree(int, int, ForkJoinPool)}, with
+	 * buckets {@linkplain #defaultDelta() as wide as} suits the edges of this graph.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @return The shortest path tree rooted at the source vertex.
+	 * @throws IllegalArgumentException If the source index is not a vertex of this graph.
+	 */
+	public ShortestPathTree parallelShortestPathTree(int sourceIndex) throws IllegalArgumentException {
+		return parallelShortestPathTree(sourceIndex, defaultDelta(), ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Gets the bucket width used by {@link #parallelShortestPathTree(int)}: the largest edge weight over
+	 * the mean number of edges per vertex, the width for which a vertex has about one light edge.
+	 * @return The bucket width, at least 1.
+	 */
+	int defaultDelta() {
+		long delta = (long) getMaxEdgeWeight() * getVertexCount() / Math.max(1, getEdgeCount());
+		
+		return (int) Math.max(1, Math.min(delta, Integer.MAX_VALUE));
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph with the delta-stepping
+	 * algorithm, which settles whole buckets of vertices at once and relaxes their edges in parallel on
+	 * the given fork-join pool, see {@link DeltaStepping}. The path lengths are the same as those of
+	 * {@link #shortestPathTree(int)}; where two paths are equally short, the parent given to a vertex
+	 * may differ.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @param delta The width of the buckets, in path length. Smaller widths do less work in all, larger
+	 * ones more of it in parallel.
+	 * @param pool The pool to relax the edges on.
+	 * @return The shortest path tree rooted at the source vertex.
+	 * @throws IllegalArgumentException If the source index is not a vertex of this graph, or delta is not positive.
+	 */
+	public ShortestPathTree parallelShortestPathTree(int sourceIndex, int delta, ForkJoinPool pool) throws IllegalArgumentException {
+		ShortestPathTree tree = DeltaStepping.search(outgoing, getMaxEdgeWeight(), internalIndex(sourceIndex), delta, pool);
+		
+		return permutation == null ? tree : permutation.external(tree);
+	}
+	
+	/**
+	 * Computes the shortest path lengths from every given source to every given target, running the
+	 * searches in parallel on the common fork-join pool, see {@link DistanceMatrix}.
+	 * @param sourceIndices The indices of the source vertices, one per row.
+	 * @param targetIndices The indices of the target vertices, one per column.
+	 * @return The distance matrix.
+	 * @throws IllegalArgumentException If a source or target index is not a vertex of this graph.
+	 */
+	public DistanceMatrix distanceMatrix(int[] sourceIndices, int[] targetIndices) throws IllegalArgumentException {
+		return distanceMatrix(sourceIndices, targetIndices, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Computes the shortest path lengths from every given source to every given target, running the
+	 * searches in parallel on the given fork-join pool, see {@link DistanceMatrix}.
+	 * @param sourceIndices The indices of the source vertices, one per row.
+	 * @param targetIndices The indices of the target vertices, one per column.
+	 * @param pool The pool to run the searches on.
+	 * @return The distance matrix.
+	 * @throws IllegalArgumentException If a source or target index is not a vertex of this graph.
+	 */
+	public DistanceMatrix distanceMatrix(int[] sourceIndices, int[] targetIndices, ForkJoinPool pool) throws IllegalArgumentException {
+		return DistanceMatrix.compute(this, sourceIndices, targetIndices, pool);
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from the given vertex until every vertex it can reach is settled.
+	 * The returned context holds the path length and parent of every vertex, and stays valid until
+	 * the calling thread starts another search. Vertices are given, and kept in the context, by
+	 * {@linkplain #internalIndex(int) internal index}.
+	 * @param sourceIndex The internal index of the vertex to search from.
+	 * @param backward True to search over incoming edges, finding the paths to the given vertex
+	 * rather than from it.
+	 * @return The calling thread's search context, with every reachable vertex settled.
+	 */
+	SearchContext searchAll(int sourceIndex, boolean backward) {
+		return search(sourceIndex, -1, QueueStrategy.INDEXED_HEAP, backward ? incoming : outgoing, null);
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from the source vertex until the target vertex is settled. If landmarks
+	 * are given, the search is goal-directed (A*): each vertex waits in the queue with its path length
+	 * plus a lower bound on its remaining path length to the target, so vertices leading away from the
+	 * target come out of the queue later, or never. The returned context holds the path length and
+	 * parent of every vertex reached, and stays valid until the calling thread starts another search.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path, or -1 to settle every
+	 * vertex that can be reached.
+	 * @param strategy The priority queue to use for the search.
+	 * @param edges The edges to search over.
+	 * @param landmarks The landmarks giving the lower bounds, or null for a plain search.
+	 * @return The calling thread's search context, with the target vertex settled.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	private SearchContext search(int sourceIndex, int targetIndex, QueueStrategy strategy,
+									Adjacency edges, LandmarkIndex landmarks) throws IllegalArgumentException {
+		SearchContext context;
+		int currentIndex;
+		Frontier queue;
+		
+		// borrow this thread's search state, which starts out with every vertex unreached
+		context = SearchContext.get(getVertexCount());
+		queue = context.frontier(strategy);
+		
+		// set source index path length to zero and offer it to the queue
+		context.reach(sourceIndex, 0, -1);
+		context.setPotential(sourceIndex, landmarks == null ? 0 : landmarks.lowerBound(externalIndex(sourceIndex), externalIndex(targetIndex)));
+		if(context.potential(sourceIndex) != Integer.MAX_VALUE)
+			queue.offer(sourceIndex, context.potential(sourceIndex));
+		
+		while(!queue.isEmpty()) {
+			currentIndex = queue.poll();
+			// a lazy queue may hand out a vertex that was settled through a shorter path already
+			if(context.isSettled(currentIndex)) {
+				context.discardStale();
+				continue;
+			}
+			
+			// settle the current vertex, and stop once it is the target
+			context.settle(currentIndex);
+			if(currentIndex == targetIndex) {
+				queue.clear();
+				return context;
+			}
+			
+			// for every edge in current vertex's row, relax its neighbors
+			int currentPathLength = context.pathLength(currentIndex);
+			context.relax(edges.rowEnd(currentIndex) - edges.rowStart(currentIndex));
+			for(int e = edges.rowStart(currentIndex); e < edges.rowEnd(currentIndex); e++) {
+				int neighborIndex = edges.target(e);
+				
+				if(!context.isSettled(neighborIndex)) {
+					int newPathLength = currentPathLength + edges.weight(e);
+					int oldPathLength = context.pathLength(neighborIndex);
+					
+					if(newPathLength < oldPathLength) {
+						context.reach(neighborIndex, newPathLength, currentIndex);
+						// work out the lower bound the first time the neighbor is reached
+						if(oldPathLength == Integer.MAX_VALUE)
+							context.setPotential(neighborIndex, landmarks == null ? 0 : landmarks.lowerBound(externalIndex(neighborIndex), externalIndex(targetIndex)));
+						// a neighbor known not to lead to the target never needs to be settled
+						if(context.potential(neighborIndex) != Integer.MAX_VALUE)
+							queue.offer(neighborIndex, newPathLength + context.potential(neighborIndex));
+					}
+				}
+			}
+		}
+		
+		if(targetIndex == -1)
+			return context;
+		
+		throw new IllegalArgumentException("Vertex with target index is unreachable.");
+	}
+	
+	/**
+	 * Runs Dijkstra's algorithm from both ends at once: forward from the source vertex over outgoing
+	 * edges, and backward from the target vertex over incoming edges. Each step settles a vertex on
+	 * the side whose smallest waiting path length is lower. Whenever an edge reaches a vertex already
+	 * reached by the other side, the path through that vertex is a candidate for the shortest path.
+	 * The search stops once the smallest waiting path lengths of both sides add up to no less than
+	 * the best candidate, since no path found afterwards could be shorter.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use for both sides of the search.
+	 * @param context The search context for the forward side, freshly started.
+	 * @param reverseContext The search context for the backward side, freshly started.
+	 * @return The index of the vertex where the shortest path found passes from the forward side to
+	 * the backward side. Its path length in both contexts adds up to the shortest path's length.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	private int searchBidirectional(int sourceIndex, int targetIndex, QueueStrategy strategy,
+									SearchContext context, SearchContext reverseContext) throws IllegalArgumentException {
+		Frontier queue = context.frontier(strategy);
+		Frontier reverseQueue = reverseContext.frontier(strategy);
+		long bestPathLength = Long.MAX_VALUE;
+		int meetingIndex = -1;
+		
+		context.reach(sourceIndex, 0, -1);
+		queue.offer(sourceIndex, 0);
+		reverseContext.reach(targetIndex, 0, -1);
+		reverseQueue.offer(targetIndex, 0);
+		if(sourceIndex == targetIndex) {
+			bestPathLength = 0;
+			meetingIndex = sourceIndex;
+		}
+		
+		while(!queue.isEmpty() && !reverseQueue.isEmpty()
+				&& (long) queue.peekKey() + reverseQueue.peekKey() < bestPathLength) {
+			// step on the side with the smaller waiting path length
+			boolean forward = queue.peekKey() <= reverseQueue.peekKey();
+			SearchContext side = forward ? context : reverseContext;
+			SearchContext otherSide = forward ? reverseContext : context;
+			Frontier sideQueue = forward ? queue : reverseQueue;
+			Adjacency sideEdges = forward ? outgoing : incoming;
+			
+			int currentIndex = sideQueue.poll();
+			if(side.isSettled(currentIndex)) {
+				side.discardStale();
+				continue;
+			}
+			side.settle(currentIndex);
+			
+			int currentPathLength = side.pathLength(currentIndex);
+			side.relax(sideEdges.rowEnd(currentIndex) - sideEdges.rowStart(currentIndex));
+			for(int e = sideEdges.rowStart(currentIndex); e < sideEdges.rowEnd(currentIndex); e++) {
+				int neighborIndex = sideEdges.target(e);
+				
+				if(!side.isSettled(neighborIndex)) {
+					int newPathLength = currentPathLength + sideEdges.weight(e);
+					
+					if(newPathLength < side.pathLength(neighborIndex)) {
+						side.reach(neighborIndex, newPathLength, currentIndex);
+						sideQueue.offer(neighborIndex, newPathLength);
+					}
+				}
+				
+				// check for a better path through a vertex the other side has reached
+				int otherPathLength = otherSide.pathLength(neighborIndex);
+				if(otherPathLength != Integer.MAX_VALUE
+						&& (long) side.pathLength(neighborIndex) + otherPathLength < bestPathLength) {
+					bestPathLength = (long) side.pathLength(neighborIndex) + otherPathLength;
+					meetingIndex = neighborIndex;
+				}
+			}
+		}
+		
+		queue.clear();
+		reverseQueue.clear();
+		
+		if(meetingIndex == -1)
+			throw new IllegalArgumentException("Vertex with target index is unreachable.");
+		
+		return meetingIndex;
+	}
+}
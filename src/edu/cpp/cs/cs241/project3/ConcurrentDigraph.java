@@ -0,0 +1,488 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * This class represents a directed, weighted graph that can be queried from many threads while it is
+ * being modified. Queries never lock: each one runs against the current snapshot, an immutable
+ * {@link CompactDigraph}, and keeps using that snapshot until it is done, no matter what is published
+ * in the meantime. Modifications are grouped into {@linkplain Batch batches}; committing a batch builds
+ * the next snapshot from the current one and publishes it atomically, so a query sees either all of a
+ * batch or none of it. Writers are serialized among themselves.
+ * <p>
+ * The edges of the snapshots are kept in {@link PagedAdjacency pages}, and a new snapshot shares every
+ * page but those holding the rows a batch touches with the old one, so committing a batch costs about
+ * the size of the rows it touches, plus a copy of the page tables, rather than a copy of the graph.
+ * The vertex key index of the graph given, if it has one, is carried along the same way: shared by
+ * the snapshots until a batch adds vertices, which copies it.
+ * @author Joel Tengco
+ * @param <T> The type of objects this graph contains as its vertices.
+ *
+ */
+public class ConcurrentDigraph<T extends Comparable<T>> implements ShortestPathFinder {
+	private final AtomicReference<Snapshot<T>> current;
+	private final Object writeLock = new Object();
+	private final Function<? super T, ?> keyFunction;
+	private volatile QueueStrategy queueStrategy = QueueStrategy.AUTO;
+	private volatile SearchMode searchMode = SearchMode.DIJKSTRA;
+
+	/**
+	 * Constructs a new <code>ConcurrentDigraph</code> object holding the vertices and edges the given
+	 * graph has now, along with its landmarks and vertex key. Later changes to the given graph are not
+	 * seen by this one.
+	 * @param graph The graph to start from.
+	 */
+	public ConcurrentDigraph(Digraph<T> graph) {
+		CompactDigraph<T> compact = graph.toCompact();
+		VertexIndex vertexIndex = null;
+
+		keyFunction = graph.getVertexKey();
+		if(keyFunction != null) {
+			vertexIndex = new VertexIndex(compact.getVertexCount());
+			for(int i = 0; i < compact.getVertexCount(); i++)
+				vertexIndex.putIfAbsent(keyFunction.apply(compact.getVertex(i)), i);
+		}
+
+		compact = new CompactDigraph<T>(compact.vertices(), PagedAdjacency.of(compact.outgoing()),
+										PagedAdjacency.of(compact.incoming()), compact.getLandmarks(),
+										compact.getMaxEdgeWeight());
+		current = new AtomicReference<Snapshot<T>>(new Snapshot<T>(compact, vertexIndex, 0));
+	}
+
+	/**
+	 * Gets the current snapshot of this graph. Queries made against the returned graph all see the
+	 * same vertices and edges, even if batches are committed in the meantime.
+	 * @return The current snapshot.
+	 */
+	public CompactDigraph<T> snapshot() {
+		return current.get().graph;
+	}
+
+	/**
+	 * Gets the version of the current snapshot of this graph, which starts at zero and goes up by one
+	 * with every batch committed.
+	 * @return The current version.
+	 */
+	public long getVersion() {
+		return current.get().version;
+	}
+
+	/**
+	 * Gets the number of vertices in the current snapshot of this graph.
+	 * @return The number of vertices.
+	 */
+	public int getVertexCount() {
+		return snapshot().getVertexCount();
+	}
+
+	/**
+	 * Gets a reference to a vertex in this graph, specified by the given index.
+	 * @param index The index of the vertex to get a reference to.
+	 * @return A reference to the indexed vertex in this graph.
+	 */
+	public T getVertex(int index) {
+		return snapshot().getVertex(index);
+	}
+
+	/**
+	 * Gets the index of a vertex equivalent to the given element, that is, one for which
+	 * <code>compareTo</code> returns zero, in the current snapshot of this graph. If the graph this
+	 * one was built from had a vertex key, the key is looked up in constant time, the same way
+	 * {@link Digraph#getVertexIndex(Comparable)} does.
+	 * @param searchElement An element to be checked if an equivalent exists in this graph.
+	 * @return The index of the vertex equivalent to the search element if one is found, otherwise -1
+	 * is returned.
+	 */
+	public int getVertexIndex(T searchElement) {
+		Snapshot<T> snapshot = current.get();
+		T[] vertices = snapshot.graph.vertices();
+
+		if(snapshot.vertexIndex != null)
+			return snapshot.vertexIndex.get(keyFunction.apply(searchElement));
+
+		for(int i = 0; i < vertices.length; i++)
+			if(vertices[i].compareTo(searchElement) == 0)
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * Gets the weight of an edge in the current snapshot of this graph. If the edge exists, then the
+	 * weight is returned, otherwise 0 is returned.
+	 * @param sourceIndex The index of the vertex whose the source of the edge.
+	 * @param targetIndex The index of the vertex whose the target of the edge.
+	 * @return The weight of the edge in this graph if it exists, otherwise 0.
+	 */
+	public int getEdgeWeight(int sourceIndex, int targetIndex) {
+		return snapshot().getEdgeWeight(sourceIndex, targetIndex);
+	}
+
+	@Override
+	public int[] getShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return snapshot().getShortestPath(sourceIndex, targetIndex, queueStrategy, searchMode);
+	}
+
+	@Override
+	public ShortestPath findShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return snapshot().findShortestPath(sourceIndex, targetIndex, queueStrategy, searchMode);
+	}
+
+	@Override
+	public int getShortestPathLength(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return snapshot().getShortestPathLength(sourceIndex, targetIndex, queueStrategy, searchMode);
+	}
+
+	/**
+	 * Sets the priority queue used by shortest path queries. The default is {@link QueueStrategy#AUTO}.
+	 * @param queueStrategy The priority queue to use for shortest path searches.
+	 */
+	public void setQueueStrategy(QueueStrategy queueStrategy) {
+		this.queueStrategy = queueStrategy;
+	}
+
+	/**
+	 * Gets the priority queue used by shortest path queries.
+	 * @return The priority queue used for shortest path searches.
+	 */
+	public QueueStrategy getQueueStrategy() {
+		return queueStrategy;
+	}
+
+	/**
+	 * Sets the algorithm used by shortest path queries. The default is {@link SearchMode#DIJKSTRA}.
+	 * {@link SearchMode#CONTRACTION_HIERARCHY} is not supported: every commit publishes a new snapshot,
+	 * whose hierarchy would have to be built again from scratch by its first query, while every other
+	 * query of that snapshot waits for it. {@link SearchMode#BIDIRECTIONAL} is the fastest mode here.
+	 * @param searchMode The algorithm to use for shortest path searches.
+	 * @throws IllegalArgumentException If the algorithm is {@link SearchMode#CONTRACTION_HIERARCHY}.
+	 */
+	public void setSearchMode(SearchMode searchMode) throws IllegalArgumentException {
+		if(searchMode == SearchMode.CONTRACTION_HIERARCHY)
+			throw new IllegalArgumentException("Contraction hierarchies are not kept up to date with a concurrent graph.");
+
+		this.searchMode = searchMode;
+	}
+
+	/**
+	 * Gets the algorithm used by shortest path queries.
+	 * @return The algorithm used for shortest path searches.
+	 */
+	public SearchMode getSearchMode() {
+		return searchMode;
+	}
+
+	/**
+	 * Starts a new, empty batch of modifications to this graph.
+	 * @return The new batch.
+	 */
+	public Batch newBatch() {
+		return new Batch();
+	}
+
+	/**
+	 * Adds a weighted edge to this graph and publishes it right away, as a batch of its own.
+	 * @param sourceIndex The index of the source vertex for the new edge.
+	 * @param targetIndex The index of the target vertex for the new edge.
+	 * @param weight The weight for the new edge. Must be non-negative.
+	 * @throws IllegalArgumentException If a negative integer is given for the weight of the edge, or
+	 * either index is not a vertex of this graph.
+	 */
+	public void addEdge(int sourceIndex, int targetIndex, int weight) throws IllegalArgumentException {
+		newBatch().addEdge(sourceIndex, targetIndex, weight).commit();
+	}
+
+	/**
+	 * Removes an edge from this graph, if it exists, and publishes the change right away, as a batch of its own.
+	 * @param sourceIndex The index of the vertex whose the source of the desired edge to remove.
+	 * @param targetIndex The index of the vertex whose the target of the desired edge to remove.
+	 * @throws IllegalArgumentException If either index is not a vertex of this graph.
+	 */
+	public void removeEdge(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		newBatch().removeEdge(sourceIndex, targetIndex).commit();
+	}
+
+	/**
+	 * Inserts a new vertex into this graph and publishes it right away, as a batch of its own.
+	 * @param newVertex The new vertex to be represented in this graph.
+	 */
+	public void addVertex(T newVertex) {
+		newBatch().addVertex(newVertex).commit();
+	}
+
+	/**
+	 * This class represents a group of modifications to a {@link ConcurrentDigraph}, recorded in order
+	 * and published together by {@link #commit()}. Each modification behaves as the method of the same
+	 * name in {@link Digraph}. A batch is meant to be filled and committed by a single thread.
+	 * @author Joel Tengco
+	 *
+	 */
+	public final class Batch {
+		private final ArrayList<Edit<T>> edits = new ArrayList<Edit<T>>();
+
+		private Batch() {
+		}
+
+		/**
+		 * Records the addition of a weighted edge.
+		 * @param sourceIndex The index of the source vertex for the new edge.
+		 * @param targetIndex The index of the target vertex for the new edge.
+		 * @param weight The weight for the new edge. Must be non-negative.
+		 * @return This batch.
+		 * @throws IllegalArgumentException If a negative integer is given for the weight of the edge.
+		 */
+		public Batch addEdge(int sourceIndex, int targetIndex, int weight) throws IllegalArgumentException {
+			if(weight < 0)
+				throw new IllegalArgumentException("This graph does not support negative weights.");
+
+			edits.add(new Edit<T>(Edit.ADD_EDGE, sourceIndex, targetIndex, weight, null));
+			return this;
+		}
+
+		/**
+		 * Records the removal of the edge from a source vertex to a target vertex, which leaves the
+		 * graph unmodified if there is no such edge when the batch is committed.
+		 * @param sourceIndex The index of the vertex whose the source of the desired edge to remove.
+		 * @param targetIndex The index of the vertex whose the target of the desired edge to remove.
+		 * @return This batch.
+		 */
+		public Batch removeEdge(int sourceIndex, int targetIndex) {
+			edits.add(new Edit<T>(Edit.REMOVE_EDGE, sourceIndex, targetIndex, 0, null));
+			return this;
+		}
+
+		/**
+		 * Records the insertion of a new vertex, which gets the next free index. Later modifications in
+		 * the same batch may use that index.
+		 * @param newVertex The new vertex to be represented in the graph.
+		 * @return This batch.
+		 */
+		public Batch addVertex(T newVertex) {
+			edits.add(new Edit<T>(Edit.ADD_VERTEX, 0, 0, 0, newVertex));
+			return this;
+		}
+
+		/**
+		 * Gets the number of modifications recorded in this batch.
+		 * @return The number of modifications.
+		 */
+		public int size() {
+			return edits.size();
+		}
+
+		/**
+		 * Applies every modification of this batch to the current snapshot of the graph, and publishes
+		 * the result as the new snapshot. If any modification is invalid, nothing is published.
+		 * @return The version of the snapshot holding the modifications of this batch.
+		 * @throws IllegalArgumentException If a modification uses an index that is not a vertex of the
+		 * graph at that point of the batch.
+		 */
+		public long commit() throws IllegalArgumentException {
+			synchronized(writeLock) {
+				Snapshot<T> base = current.get();
+				if(edits.isEmpty())
+					return base.version;
+
+				CompactDigraph<T> graph = base.graph;
+				RowEditor outgoing = new RowEditor(graph.outgoing());
+				RowEditor incoming = new RowEditor(graph.incoming());
+				ArrayList<T> newVertices = new ArrayList<T>();
+				VertexIndex vertexIndex = base.vertexIndex;
+				LandmarkIndex landmarks = graph.getLandmarks();
+				// removed edges leave the bound as it is, still no smaller than any edge
+				int maxEdgeWeight = graph.getMaxEdgeWeight();
+				int vertexCount = graph.getVertexCount();
+
+				for(Edit<T> edit : edits) {
+					switch(edit.kind) {
+					case Edit.ADD_VERTEX:
+						newVertices.add(edit.vertex);
+						vertexCount++;
+						if(landmarks != null)
+							landmarks = landmarks.withVertexAdded();
+						break;
+					case Edit.ADD_EDGE:
+						checkIndices(edit, vertexCount);
+						outgoing.row(edit.source).add(edit.target, edit.weight);
+						incoming.row(edit.target).add(edit.source, edit.weight);
+						maxEdgeWeight = Math.max(maxEdgeWeight, edit.weight);
+						// drop the landmarks if the new edge is a shortcut that makes them overestimate
+						if(landmarks != null && !landmarks.acceptsEdge(edit.source, edit.target, edit.weight))
+							landmarks = null;
+						break;
+					default:
+						checkIndices(edit, vertexCount);
+						int weight = outgoing.row(edit.source).remove(edit.target, -1);
+						if(weight != -1)
+							incoming.row(edit.target).remove(edit.source, weight);
+					}
+				}
+
+				T[] vertices = graph.vertices();
+				if(!newVertices.isEmpty()) {
+					vertices = Arrays.copyOf(vertices, vertexCount);
+					for(int i = 0; i < newVertices.size(); i++)
+						vertices[graph.getVertexCount() + i] = newVertices.get(i);
+					// the old snapshots keep reading the index, so the new vertices go into a copy
+					if(vertexIndex != null) {
+						vertexIndex = vertexIndex.copy();
+						for(int i = 0; i < newVertices.size(); i++)
+							vertexIndex.putIfAbsent(keyFunction.apply(newVertices.get(i)), graph.getVertexCount() + i);
+					}
+				}
+
+				Snapshot<T> next = new Snapshot<T>(new CompactDigraph<T>(vertices, outgoing.build(vertexCount),
+																		incoming.build(vertexCount), landmarks, maxEdgeWeight),
+													vertexIndex, base.version + 1);
+				current.set(next);
+				return next.version;
+			}
+		}
+
+		private void checkIndices(Edit<T> edit, int vertexCount) throws IllegalArgumentException {
+			if(edit.source < 0 || edit.source >= vertexCount || edit.target < 0 || edit.target >= vertexCount)
+				throw new IllegalArgumentException("Vertex index out of range: " + edit.source + " -> " + edit.target);
+		}
+	}
+
+	/**
+	 * Used to hold one recorded modification of a batch.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class Edit<T> {
+		private static final int ADD_EDGE = 0;
+		private static final int REMOVE_EDGE = 1;
+		private static final int ADD_VERTEX = 2;
+
+		private final int kind;
+		private final int source;
+		private final int target;
+		private final int weight;
+		private final T vertex;
+
+		public Edit(int kind, int source, int target, int weight, T vertex) {
+			this.kind = kind;
+			this.source = source;
+			this.target = target;
+			this.weight = weight;
+			this.vertex = vertex;
+		}
+	}
+
+	/**
+	 * Used to pair a snapshot with its vertex key index and its version, so all three are published
+	 * in one step.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class Snapshot<T extends Comparable<T>> {
+		private final CompactDigraph<T> graph;
+		private final VertexIndex vertexIndex;	// never added to once published, or null if there is no key
+		private final long version;
+
+		public Snapshot(CompactDigraph<T> graph, VertexIndex vertexIndex, long version) {
+			this.graph = graph;
+			this.vertexIndex = vertexIndex;
+			this.version = version;
+		}
+	}
+
+	/**
+	 * Used to collect the rows a batch touches, copied out of the current snapshot the first time
+	 * they are touched, and to build the next adjacency from them.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class RowEditor {
+		private final Adjacency base;
+		private final HashMap<Integer, EdgeRow> rows = new HashMap<Integer, EdgeRow>();
+
+		public RowEditor(Adjacency base) {
+			this.base = base;
+		}
+
+		public EdgeRow row(int vertexIndex) {
+			EdgeRow row = rows.get(vertexIndex);
+
+			if(row == null) {
+				row = new EdgeRow();
+				if(vertexIndex < base.vertexCount())
+					for(int e = base.rowStart(vertexIndex); e < base.rowEnd(vertexIndex); e++)
+						row.add(base.target(e), base.weight(e));
+				rows.put(vertexIndex, row);
+			}
+
+			return row;
+		}
+
+		public Adjacency build(int vertexCount) {
+			if(rows.isEmpty() && vertexCount == base.vertexCount())
+				return base;
+
+			int[] touched = new int[rows.size()];
+			int k = 0;
+			for(int vertexIndex : rows.keySet())
+				touched[k++] = vertexIndex;
+			Arrays.sort(touched);
+
+			int[][] rowTargets = new int[touched.length][];
+			int[][] rowWeights = new int[touched.length][];
+			int[] rowSizes = new int[touched.length];
+			for(k = 0; k < touched.length; k++) {
+				EdgeRow row = rows.get(touched[k]);
+				rowTargets[k] = row.targets;
+				rowWeights[k] = row.weights;
+				rowSizes[k] = row.size;
+			}
+
+			return base.withRows(vertexCount, touched, rowTargets, rowWeights, rowSizes);
+		}
+	}
+
+	/**
+	 * Used to hold the edges of one touched row, in the same order as the edge lists of {@link Digraph}.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class EdgeRow {
+		private int[] targets = new int[4];
+		private int[] weights = new int[4];
+		private int size;
+
+		public void add(int target, int weight) {
+			if(size == targets.length) {
+				targets = Arrays.copyOf(targets, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			targets[size] = target;
+			weights[size] = weight;
+			size++;
+		}
+
+		/**
+		 * Removes the first edge to the given vertex, and with the given weight unless it is -1.
+		 * @return The weight of the removed edge, or -1 if there was none.
+		 */
+		public int remove(int target, int weight) {
+			for(int i = 0; i < size; i++)
+				if(targets[i] == target && (weight == -1 || weights[i] == weight)) {
+					int removedWeight = weights[i];
+					System.arraycopy(targets, i + 1, targets, i, size - i - 1);
+					System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+					size--;
+					return removedWeight;
+				}
+
+			return -1;
+		}
+	}
+}
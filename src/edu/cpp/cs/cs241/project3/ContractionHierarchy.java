@@ -0,0 +1,646 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class is a shortest path engine using contraction hierarchies. In a preprocessing step, the
+ * vertices of a graph are contracted one at a time, from least to most important. Contracting a vertex
+ * removes it from the remaining graph, adding a shortcut edge between two of its neighbors whenever the
+ * path through it was the only shortest one between them. Every edge then goes either up or down in the
+ * contraction order, and a shortest path between any two vertices exists that only goes up from the
+ * source and only goes down to the target. A query is a Dijkstra search from both ends that only follows
+ * edges going up, which settles a tiny fraction of the graph.
+ * <p>
+ * Vertices are ordered by their edge difference: the number of shortcuts their contraction would add,
+ * minus the number of edges it would remove, plus terms for their contracted neighbors and their depth
+ * in the hierarchy so far, which spread the contraction evenly. The priorities of the neighbors of a
+ * contracted vertex are worked out again right away, and any other vertex is checked once more when it
+ * comes out of the queue.
+ * A shortcut is skipped when a witness search finds another path between the two neighbors that is
+ * no longer than the path through the vertex.
+ * <p>
+ * Each shortcut remembers the vertex it skips, so paths found are unpacked back into the original
+ * vertices and returned in the same formats as {@link Digraph#getShortestPath(int, int)}. Objects of this
+ * class are immutable, and are obtained through {@link CompactDigraph#getContractionHierarchy()}.
+ * @author Joel Tengco
+ *
+ */
+public final class ContractionHierarchy implements ShortestPathFinder {
+	// a witness search gives up after settling this many vertices, and the shortcut is added anyway;
+	// searches that only work out a priority give up sooner, since being exact matters less there
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	private static final int PRIORITY_SETTLE_LIMIT = 50;
+
+	private final int vertexCount;
+	private final int[] ranks;			// position of each vertex in the contraction order
+	private final Adjacency upward;		// edges from each vertex to higher ranked vertices
+	private final int[] upwardMiddles;	// vertex skipped by each upward edge, or -1 for original edges
+	private final Adjacency downward;	// edges into each vertex from higher ranked vertices, by their source
+	private final int[] downwardMiddles;	// vertex skipped by each downward edge, or -1 for original edges
+	private final int shortcutCount;
+	private final long buildTimeNanos;
+	private final VertexPermutation permutation;	// internal index of each vertex index, or null if the same
+
+	/**
+	 * Constructs a new <code>ContractionHierarchy</code> object from its already built parts.
+	 * @param ranks The position of each vertex in the contraction order.
+	 * @param upward The edges going up from each vertex.
+	 * @param upwardMiddles The vertex skipped by each upward edge.
+	 * @param downward The edges going down into each vertex, stored by their source.
+	 * @param downwardMiddles The vertex skipped by each downward edge.
+	 * @param shortcutCount The number of shortcuts added.
+	 * @param buildTimeNanos The time the preprocessing took, in nanoseconds.
+	 * @param permutation The internal index of each vertex index, or null if they are the same.
+	 */
+	private ContractionHierarchy(int[] ranks, Adjacency upward, int[] upwardMiddles, Adjacency downward,
+									int[] downwardMiddles, int shortcutCount, long buildTimeNanos,
+									VertexPermutation permutation) {
+		this.vertexCount = ranks.length;
+		this.ranks = ranks;
+		this.upward = upward;
+		this.upwardMiddles = upwardMiddles;
+		this.downward = downward;
+		this.downwardMiddles = downwardMiddles;
+		this.shortcutCount = shortcutCount;
+		this.buildTimeNanos = buildTimeNanos;
+		this.permutation = permutation;
+	}
+
+	/**
+	 * Contracts every vertex of the given graph and builds the resulting hierarchy. The hierarchy works
+	 * in the internal indices of the graph, and its public methods translate vertex indices into them.
+	 * @param vertexCount The number of vertices of the graph.
+	 * @param outgoing The outgoing edges of every vertex of the graph, by internal index.
+	 * @param permutation The internal index of each vertex index of the graph, or null if they are the same.
+	 * @return A new <code>ContractionHierarchy</code> object for the graph.
+	 */
+	static ContractionHierarchy build(int vertexCount, Adjacency outgoing, VertexPermutation permutation) {
+		ContractionHierarchy hierarchy = new Builder(vertexCount, outgoing).build();
+
+		if(permutation == null)
+			return hierarchy;
+
+		return new ContractionHierarchy(hierarchy.ranks, hierarchy.upward, hierarchy.upwardMiddles, hierarchy.downward,
+										hierarchy.downwardMiddles, hierarchy.shortcutCount, hierarchy.buildTimeNanos, permutation);
+	}
+
+	/**
+	 * Gets the number of shortcut edges the preprocessing added.
+	 * @return The number of shortcuts.
+	 */
+	public int getShortcutCount() {
+		return shortcutCount;
+	}
+
+	/**
+	 * Gets the time the preprocessing took.
+	 * @return The build time in nanoseconds.
+	 */
+	public long getBuildTimeNanos() {
+		return buildTimeNanos;
+	}
+
+	/**
+	 * Gets the position of a vertex in the contraction order, zero being the first contracted.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The rank of the vertex.
+	 */
+	public int getRank(int vertexIndex) {
+		return ranks[internal(vertexIndex)];
+	}
+
+	/**
+	 * Returns a string formatted as: "<i>n</i> vertices, <i>s</i> shortcuts, built in <i>t</i> ms".
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d vertices, %d shortcuts, built in %.1f ms", vertexCount, shortcutCount, buildTimeNanos / 1e6);
+	}
+
+	@Override
+	public int[] getShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return findShortestPath(sourceIndex, targetIndex).toArray();
+	}
+
+	@Override
+	public ShortestPath findShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		ShortestPath path = findShortestPath(internal(sourceIndex), internal(targetIndex), QueueStrategy.INDEXED_HEAP);
+
+		return permutation == null ? path : permutation.external(path);
+	}
+
+	@Override
+	public int getShortestPathLength(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		return getShortestPathLength(internal(sourceIndex), internal(targetIndex), QueueStrategy.INDEXED_HEAP);
+	}
+
+	/**
+	 * Gets the internal index of a vertex, leaving indices out of range for the search to reject.
+	 */
+	private int internal(int vertexIndex) {
+		if(permutation == null || vertexIndex < 0 || vertexIndex >= vertexCount)
+			return vertexIndex;
+
+		return permutation.internal(vertexIndex);
+	}
+
+	/**
+	 * Finds the shortest path from one vertex to another, using the given kind of priority queue for
+	 * both halves of the search. Vertices are given and returned by internal index.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use.
+	 * @return The shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	ShortestPath findShortestPath(int sourceIndex, int targetIndex, QueueStrategy strategy) throws IllegalArgumentException {
+		SearchContext context = SearchContext.get(vertexCount);
+		SearchContext reverseContext = SearchContext.getReverse(vertexCount);
+		int meetingIndex = search(sourceIndex, targetIndex, strategy, context, reverseContext);
+		PathBuffer path = new PathBuffer();
+
+		path.add(sourceIndex);
+		// unpack the upward edges from the source to the meeting vertex
+		int[] forwardPath = context.pathTo(meetingIndex);
+		for(int i = 1; i < forwardPath.length; i++)
+			unpack(forwardPath[i - 1], forwardPath[i], path);
+		// then the downward edges from the meeting vertex to the target
+		for(int v = meetingIndex; v != targetIndex; v = reverseContext.parent(v))
+			unpack(v, reverseContext.parent(v), path);
+
+		return new ShortestPath(context.pathLength(meetingIndex) + reverseContext.pathLength(meetingIndex), path.toArray());
+	}
+
+	/**
+	 * Gets only the length of the shortest path from one vertex to another, using the given kind of
+	 * priority queue for both halves of the search. Vertices are given by internal index.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use.
+	 * @return The length of the shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	int getShortestPathLength(int sourceIndex, int targetIndex, QueueStrategy strategy) throws IllegalArgumentException {
+		SearchContext context = SearchContext.get(vertexCount);
+		SearchContext reverseContext = SearchContext.getReverse(vertexCount);
+		int meetingIndex = search(sourceIndex, targetIndex, strategy, context, reverseContext);
+
+		return context.pathLength(meetingIndex) + reverseContext.pathLength(meetingIndex);
+	}
+
+	/**
+	 * Runs the query: Dijkstra's algorithm forward from the source over upward edges and backward from
+	 * the target over downward edges. Unlike a plain bidirectional search, both halves have to keep going
+	 * until their smallest waiting path length alone reaches the best path found, since the highest
+	 * vertex on the shortest path may be far from where the two halves first meet.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param strategy The priority queue to use.
+	 * @param context The search context for the forward half, freshly started.
+	 * @param reverseContext The search context for the backward half, freshly started.
+	 * @return The index of the vertex where the shortest path found turns from going up to going down.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	private int search(int sourceIndex, int targetIndex, QueueStrategy strategy,
+						SearchContext context, SearchContext reverseContext) throws IllegalArgumentException {
+		Frontier queue = context.frontier(strategy);
+		Frontier reverseQueue = reverseContext.frontier(strategy);
+		long bestPathLength = Long.MAX_VALUE;
+		int meetingIndex = -1;
+
+		context.reach(sourceIndex, 0, -1);
+		queue.offer(sourceIndex, 0);
+		reverseContext.reach(targetIndex, 0, -1);
+		reverseQueue.offer(targetIndex, 0);
+
+		while(true) {
+			boolean forwardActive = !queue.isEmpty() && queue.peekKey() < bestPathLength;
+			boolean backwardActive = !reverseQueue.isEmpty() && reverseQueue.peekKey() < bestPathLength;
+			if(!forwardActive && !backwardActive)
+				break;
+
+			// step on the active side with the smaller waiting path length
+			boolean forward = forwardActive && (!backwardActive || queue.peekKey() <= reverseQueue.peekKey());
+			SearchContext side = forward ? context : reverseContext;
+			SearchContext otherSide = forward ? reverseContext : context;
+			Frontier sideQueue = forward ? queue : reverseQueue;
+			Adjacency sideEdges = forward ? upward : downward;
+
+			int currentIndex = sideQueue.poll();
+			if(side.isSettled(currentIndex)) {
+				side.discardStale();
+				continue;
+			}
+			side.settle(currentIndex);
+
+			// the current vertex is a meeting point if the other side has reached it too
+			int otherPathLength = otherSide.pathLength(currentIndex);
+			if(otherPathLength != Integer.MAX_VALUE && (long) side.pathLength(currentIndex) + otherPathLength < bestPathLength) {
+				bestPathLength = (long) side.pathLength(currentIndex) + otherPathLength;
+				meetingIndex = currentIndex;
+			}
+
+			int currentPathLength = side.pathLength(currentIndex);
+			side.relax(sideEdges.rowEnd(currentIndex) - sideEdges.rowStart(currentIndex));
+			for(int e = sideEdges.rowStart(currentIndex); e < sideEdges.rowEnd(currentIndex); e++) {
+				int neighborIndex = sideEdges.target(e);
+				int newPathLength = currentPathLength + sideEdges.weight(e);
+
+				if(!side.isSettled(neighborIndex) && newPathLength < side.pathLength(neighborIndex)) {
+					side.reach(neighborIndex, newPathLength, currentIndex);
+					sideQueue.offer(neighborIndex, newPathLength);
+				}
+			}
+		}
+
+		queue.clear();
+		reverseQueue.clear();
+
+		if(meetingIndex == -1)
+			throw new IllegalArgumentException("Vertex with target index is unreachable.");
+
+		return meetingIndex;
+	}
+
+	/**
+	 * Appends the original vertices of the hierarchy edge from one vertex to another to the given path,
+	 * not including the first vertex, which is expected to be on the path already. Shortcuts are
+	 * replaced by the two edges they skip, until only original edges remain.
+	 * @param sourceIndex The index of the source vertex of the edge.
+	 * @param targetIndex The index of the target vertex of the edge.
+	 * @param path The path to append to.
+	 */
+	private void unpack(int sourceIndex, int targetIndex, PathBuffer path) {
+		// pending edges, as pairs of source and target, with the next one to unpack on top
+		int[] stack = new int[16];
+		int top = 0;
+
+		stack[top++] = sourceIndex;
+		stack[top++] = targetIndex;
+		while(top > 0) {
+			int target = stack[--top];
+			int source = stack[--top];
+			int middle = middleOf(source, target);
+
+			if(middle == -1)
+				path.add(target);
+			else {
+				if(top + 4 > stack.length)
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				// push the second half first, so the first half is unpacked first
+				stack[top++] = middle;
+				stack[top++] = target;
+				stack[top++] = source;
+				stack[top++] = middle;
+			}
+		}
+	}
+
+	/**
+	 * Gets the vertex skipped by the hierarchy edge from one vertex to another. The edge is stored with
+	 * its lower ranked end, either as an upward edge of its source or as a downward edge of its target.
+	 * @param sourceIndex The index of the source vertex of the edge.
+	 * @param targetIndex The index of the target vertex of the edge.
+	 * @return The index of the skipped vertex, or -1 if the edge is an original edge.
+	 */
+	private int middleOf(int sourceIndex, int targetIndex) {
+		if(ranks[sourceIndex] < ranks[targetIndex]) {
+			for(int e = upward.rowStart(sourceIndex); e < upward.rowEnd(sourceIndex); e++)
+				if(upward.target(e) == targetIndex)
+					return upwardMiddles[e];
+		} else {
+			for(int e = downward.rowStart(targetIndex); e < downward.rowEnd(targetIndex); e++)
+				if(downward.target(e) == sourceIndex)
+					return downwardMiddles[e];
+		}
+
+		throw new IllegalStateException("Edge missing from the contraction hierarchy.");
+	}
+
+	/**
+	 * Used to collect the vertices of an unpacked path, growing as needed.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class PathBuffer {
+		private int[] vertices = new int[16];
+		private int size;
+
+		public void add(int vertexIndex) {
+			if(size == vertices.length)
+				vertices = Arrays.copyOf(vertices, size * 2);
+			vertices[size++] = vertexIndex;
+		}
+
+		public int[] toArray() {
+			return Arrays.copyOf(vertices, size);
+		}
+	}
+
+	/**
+	 * Used to run the contraction. It keeps the remaining graph as growable edge lists per vertex, in
+	 * both directions, and moves the edges of each vertex into its final rows as the vertex is contracted.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class Builder {
+		private final int vertexCount;
+		// remaining graph: outgoing and incoming edges of each uncontracted vertex
+		private final EdgeList[] outEdges;
+		private final EdgeList[] inEdges;
+		// final hierarchy edges, filled in as vertices are contracted
+		private final EdgeList[] upwardEdges;
+		private final EdgeList[] downwardEdges;
+		private final int[] contractedNeighbors;
+		private final int[] depths;			// length of the longest chain of contracted vertices below each vertex
+		private final int[] ranks;
+		private int shortcutCount;
+		// state of the witness searches
+		private final int[] witnessPathLengths;
+		private final int[] witnessStamps;
+		private final int[] witnessTargetStamps;
+		private int witnessStamp;
+		private final IndexedMinHeap witnessQueue;
+
+		public Builder(int vertexCount, Adjacency outgoing) {
+			this.vertexCount = vertexCount;
+			outEdges = new EdgeList[vertexCount];
+			inEdges = new EdgeList[vertexCount];
+			upwardEdges = new EdgeList[vertexCount];
+			downwardEdges = new EdgeList[vertexCount];
+			for(int v = 0; v < vertexCount; v++) {
+				outEdges[v] = new EdgeList();
+				inEdges[v] = new EdgeList();
+			}
+			contractedNeighbors = new int[vertexCount];
+			depths = new int[vertexCount];
+			ranks = new int[vertexCount];
+			witnessPathLengths = new int[vertexCount];
+			witnessStamps = new int[vertexCount];
+			witnessTargetStamps = new int[vertexCount];
+			witnessQueue = new IndexedMinHeap(vertexCount);
+
+			// copy the original edges, dropping loops and keeping the lightest of parallel edges
+			for(int u = 0; u < vertexCount; u++)
+				for(int e = outgoing.rowStart(u); e < outgoing.rowEnd(u); e++)
+					if(outgoing.target(e) != u)
+						addOrLower(u, outgoing.target(e), outgoing.weight(e), -1);
+		}
+
+		public ContractionHierarchy build() {
+			long startTime = System.nanoTime();
+			IndexedMinHeap order = new IndexedMinHeap(vertexCount);
+
+			for(int v = 0; v < vertexCount; v++)
+				order.offer(v, priority(v));
+
+			for(int rank = 0; rank < vertexCount; rank++) {
+				int v = order.poll();
+
+				// lazy update: if the vertex got less attractive since it was queued, queue it again
+				int priority = priority(v);
+				if(!order.isEmpty() && priority > order.peekKey()) {
+					order.offer(v, priority);
+					rank--;
+					continue;
+				}
+
+				ranks[v] = rank;
+				contract(v);
+
+				// the neighbors lost an edge and may have gained shortcuts, so work out their priorities again
+				EdgeList out = upwardEdges[v];
+				for(int i = 0; i < out.size; i++)
+					order.update(out.vertices[i], priority(out.vertices[i]));
+				EdgeList in = downwardEdges[v];
+				for(int i = 0; i < in.size; i++)
+					order.update(in.vertices[i], priority(in.vertices[i]));
+			}
+
+			return new ContractionHierarchy(ranks, toAdjacency(upwardEdges), middlesOf(upwardEdges),
+											toAdjacency(downwardEdges), middlesOf(downwardEdges),
+											shortcutCount, System.nanoTime() - startTime, null);
+		}
+
+		/**
+		 * Gets the contraction priority of a vertex: twice its edge difference, plus its number of
+		 * contracted neighbors and its depth. Lower priorities are contracted first.
+		 */
+		private int priority(int v) {
+			int shortcuts = contractOrCount(v, false);
+			return 2 * (shortcuts - outEdges[v].size - inEdges[v].size) + contractedNeighbors[v] + depths[v];
+		}
+
+		/**
+		 * Contracts a vertex: adds the needed shortcuts, moves its edges into its final rows and
+		 * removes it from the remaining graph.
+		 */
+		private void contract(int v) {
+			contractOrCount(v, true);
+
+			upwardEdges[v] = outEdges[v];
+			downwardEdges[v] = inEdges[v];
+
+			// remove the vertex from the edge lists of its neighbors
+			EdgeList out = outEdges[v];
+			for(int i = 0; i < out.size; i++) {
+				inEdges[out.vertices[i]].remove(v);
+				contractedNeighbors[out.vertices[i]]++;
+				depths[out.vertices[i]] = Math.max(depths[out.vertices[i]], depths[v] + 1);
+			}
+			EdgeList in = inEdges[v];
+			for(int i = 0; i < in.size; i++) {
+				outEdges[in.vertices[i]].remove(v);
+				contractedNeighbors[in.vertices[i]]++;
+				depths[in.vertices[i]] = Math.max(depths[in.vertices[i]], depths[v] + 1);
+			}
+		}
+
+		/**
+		 * Finds the shortcuts needed to contract a vertex: for every incoming edge from <i>u</i> and
+		 * outgoing edge to <i>x</i>, a shortcut from <i>u</i> to <i>x</i> is needed unless a witness
+		 * path from <i>u</i> to <i>x</i> avoiding the vertex is no longer than the path through it.
+		 * @param v The vertex to contract.
+		 * @param add True to add the shortcuts, false to only count them.
+		 * @return The number of shortcuts needed.
+		 */
+		private int contractOrCount(int v, boolean add) {
+			EdgeList in = inEdges[v];
+			EdgeList out = outEdges[v];
+			int shortcuts = 0;
+			int maxOutWeight = 0;
+
+			for(int j = 0; j < out.size; j++)
+				maxOutWeight = Math.max(maxOutWeight, out.weights[j]);
+
+			for(int i = 0; i < in.size; i++) {
+				int u = in.vertices[i];
+				int inWeight = in.weights[i];
+
+				witnessSearch(u, v, inWeight + maxOutWeight, out, add ? WITNESS_SETTLE_LIMIT : PRIORITY_SETTLE_LIMIT);
+				for(int j = 0; j < out.size; j++) {
+					int x = out.vertices[j];
+					int viaWeight = inWeight + out.weights[j];
+
+					if(x == u || witnessPathLength(x) <= viaWeight)
+						continue;
+
+					shortcuts++;
+					if(add)
+						addOrLower(u, x, viaWeight, v);
+				}
+			}
+
+			return shortcuts;
+		}
+
+		/**
+		 * Runs Dijkstra's algorithm in the remaining graph from a vertex, avoiding the vertex being
+		 * contracted, until every target is settled, the path lengths exceed the given limit or too
+		 * many vertices are settled.
+		 */
+		private void witnessSearch(int source, int avoided, int maxPathLength, EdgeList targets, int settleLimit) {
+			int settled = 0;
+			int targetsLeft = 0;
+
+			witnessStamp++;
+			witnessQueue.clear();
+			for(int j = 0; j < targets.size; j++)
+				if(witnessTargetStamps[targets.vertices[j]] != witnessStamp) {
+					witnessTargetStamps[targets.vertices[j]] = witnessStamp;
+					targetsLeft++;
+				}
+			witnessStamps[source] = witnessStamp;
+			witnessPathLengths[source] = 0;
+			witnessQueue.offer(source, 0);
+
+			while(!witnessQueue.isEmpty() && witnessQueue.peekKey() <= maxPathLength
+					&& settled < settleLimit && targetsLeft > 0) {
+				int u = witnessQueue.poll();
+				EdgeList out = outEdges[u];
+				settled++;
+				if(witnessTargetStamps[u] == witnessStamp)
+					targetsLeft--;
+
+				for(int j = 0; j < out.size; j++) {
+					int x = out.vertices[j];
+					int newPathLength = witnessPathLengths[u] + out.weights[j];
+
+					if(x != avoided && newPathLength < witnessPathLength(x)) {
+						witnessStamps[x] = witnessStamp;
+						witnessPathLengths[x] = newPathLength;
+						witnessQueue.offer(x, newPathLength);
+					}
+				}
+			}
+
+			witnessQueue.clear();
+		}
+
+		private int witnessPathLength(int v) {
+			return witnessStamps[v] == witnessStamp ? witnessPathLengths[v] : Integer.MAX_VALUE;
+		}
+
+		/**
+		 * Adds an edge to the remaining graph, or lowers the weight of the existing edge between the
+		 * same two vertices if the new one is lighter.
+		 */
+		private void addOrLower(int u, int x, int weight, int middle) {
+			int i = outEdges[u].indexOf(x);
+
+			if(i == -1) {
+				outEdges[u].add(x, weight, middle);
+				inEdges[x].add(u, weight, middle);
+				if(middle != -1)
+					shortcutCount++;
+			} else if(weight < outEdges[u].weights[i]) {
+				outEdges[u].set(i, weight, middle);
+				int j = inEdges[x].indexOf(u);
+				inEdges[x].set(j, weight, middle);
+			}
+		}
+
+		private static Adjacency toAdjacency(EdgeList[] lists) {
+			int[] offsets = new int[lists.length + 1];
+
+			for(int v = 0; v < lists.length; v++)
+				offsets[v + 1] = offsets[v] + lists[v].size;
+
+			int[] targets = new int[offsets[lists.length]];
+			int[] weights = new int[offsets[lists.length]];
+			for(int v = 0; v < lists.length; v++) {
+				System.arraycopy(lists[v].vertices, 0, targets, offsets[v], lists[v].size);
+				System.arraycopy(lists[v].weights, 0, weights, offsets[v], lists[v].size);
+			}
+
+			return new ArrayAdjacency(offsets, targets, weights);
+		}
+
+		private static int[] middlesOf(EdgeList[] lists) {
+			int edgeCount = 0;
+			for(EdgeList list : lists)
+				edgeCount += list.size;
+
+			int[] middles = new int[edgeCount];
+			int edge = 0;
+			for(EdgeList list : lists) {
+				System.arraycopy(list.middles, 0, middles, edge, list.size);
+				edge += list.size;
+			}
+
+			return middles;
+		}
+	}
+
+	/**
+	 * Used to hold a growable list of edges of one vertex: the vertex at the other end, the weight,
+	 * and the vertex skipped if the edge is a shortcut.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class EdgeList {
+		private int[] vertices = new int[4];
+		private int[] weights = new int[4];
+		private int[] middles = new int[4];
+		private int size;
+
+		public int indexOf(int vertexIndex) {
+			for(int i = 0; i < size; i++)
+				if(vertices[i] == vertexIndex)
+					return i;
+			return -1;
+		}
+
+		public void add(int vertexIndex, int weight, int middle) {
+			if(size == vertices.length) {
+				vertices = Arrays.copyOf(vertices, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+				middles = Arrays.copyOf(middles, size * 2);
+			}
+			vertices[size] = vertexIndex;
+			weights[size] = weight;
+			middles[size] = middle;
+			size++;
+		}
+
+		public void set(int i, int weight, int middle) {
+			weights[i] = weight;
+			middles[i] = middle;
+		}
+
+		public void remove(int vertexIndex) {
+			int i = indexOf(vertexIndex);
+			if(i == -1)
+				return;
+			// move the last edge into the hole
+			size--;
+			vertices[i] = vertices[size];
+			weights[i] = weights[size];
+			middles[i] = middles[size];
+		}
+	}
+}
@@ -0,0 +1,424 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class reads a graph of cities and roads from files in the formats of "city.dat" and "road.dat",
+ * see {@link Project3}. Each file is split into chunks of whole lines, which are read as raw bytes and
+ * parsed in parallel on a fork-join pool, and then put together in file order. Numbers are parsed
+ * straight from the bytes, and only the codes and names of the cities become strings.
+ * <p>
+ * The roads are handed to a {@link Digraph.Builder} chunk by chunk, so a road repeated in the file
+ * only keeps its shortest distance.
+ * <p>
+ * A malformed line does not stop the loading. It is skipped, and reported in {@link #getErrors()}
+ * with its file and line number. Blank lines are skipped silently. A city line is made of its number,
+ * its code, its name, which may be several words, its population and its elevation, so the last two
+ * words of a line are always taken as the population and elevation. Note that skipping a city line
+ * shifts the position of every later city, which the road file uses to refer to them, so errors in
+ * the city file are best fixed rather than ignored.
+ * @author Joel Tengco
+ *
+ */
+public final class DataFileLoader {
+	// the size of the chunks each file is split into, give or take a line
+	private static final int CHUNK_SIZE = 1 << 22;
+
+	private final ForkJoinPool pool;
+	private final ArrayList<String> errors = new ArrayList<String>();
+
+	/**
+	 * Constructs a new <code>DataFileLoader</code> object that parses on the common fork-join pool.
+	 */
+	public DataFileLoader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a new <code>DataFileLoader</code> object that parses on the given fork-join pool.
+	 * @param pool The pool to parse the chunks of each file on.
+	 */
+	public DataFileLoader(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Reads a graph from a city file and a road file. The errors found are kept in {@link #getErrors()},
+	 * replacing those of an earlier load.
+	 * @param cityFile The file holding the cities.
+	 * @param roadFile The file holding the roads, which refer to cities by their position in the city
+	 * file, starting at 1.
+	 * @return A new graph with the cities as its vertices, looked up by {@link City#CODE_KEY}, and the
+	 * roads as its edges.
+	 * @throws FileNotFoundException If either two files cannot be found.
+	 * @throws IOException If an input/output exception has occurred.
+	 */
+	public Digraph<City> load(File cityFile, File roadFile) throws FileNotFoundException, IOException {
+		Chunk[] cityChunks;
+		Chunk[] roadChunks;
+		ArrayList<City> cities = new ArrayList<City>();
+		Digraph.Builder<City> builder;
+		Digraph<City> graph;
+
+		errors.clear();
+		cityChunks = parse(cityFile, false, 0);
+		for(Chunk chunk : cityChunks)
+			cities.addAll(chunk.cities);
+
+		roadChunks = parse(roadFile, true, cities.size());
+
+		builder = new Digraph.Builder<City>(cities.toArray(new City[cities.size()]));
+		for(Chunk chunk : roadChunks)
+			builder.addEdges(chunk.sources, chunk.targets, chunk.weights, chunk.edgeCount);
+		graph = builder.build();
+		// look up cities by their code through a hash index rather than scanning every city
+		graph.setVertexKey(City.CODE_KEY);
+
+		return graph;
+	}
+
+	/**
+	 * Gets the malformed lines found by the last load, each formatted as:
+	 * "<i>file</i> line <i>number</i>: <i>problem</i>", in file order.
+	 * @return The errors of the last load, empty if every line was well formed.
+	 */
+	public List<String> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	/**
+	 * Splits a file into chunks of whole lines and parses them in parallel, then adds the errors
+	 * found to the errors of this loader with their line numbers worked out.
+	 * @param file The file to parse.
+	 * @param roads True if the file holds roads, false if it holds cities.
+	 * @param cityCount The number of cities the roads may refer to.
+	 * @return The parsed chunks, in file order.
+	 */
+	private Chunk[] parse(File file, boolean roads, int cityCount) throws FileNotFoundException, IOException {
+		if(!file.exists())
+			throw new FileNotFoundException("Error: " + file + " file not found");
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+			Chunk[] result;
+
+			// cut the file at the first line start at or after each multiple of the chunk size
+			long start = 0;
+			while(start < size) {
+				long end = nextLineStart(channel, Math.min(size, start + CHUNK_SIZE), size);
+				chunks.add(new Chunk(start, (int) (end - start)));
+				start = end;
+			}
+
+			result = chunks.toArray(new Chunk[chunks.size()]);
+			try {
+				pool.invoke(new ParseTask(channel, result, roads, cityCount, 0, result.length));
+			} catch(UncheckedIOException uioe) {
+				throw uioe.getCause();
+			}
+
+			// each chunk numbers its lines from 1, so shift them by the lines of the chunks before it
+			int firstLine = 1;
+			for(Chunk chunk : result) {
+				for(int i = 0; i < chunk.errorLines.size(); i++)
+					errors.add(String.format("%s line %d: %s", file.getName(), firstLine + chunk.errorLines.get(i),
+												chunk.errorMessages.get(i)));
+				firstLine += chunk.lineCount;
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * Finds the start of the first line at or after the given position, the position itself if a line
+	 * starts there.
+	 * @param channel The channel of the file.
+	 * @param position A position in the file.
+	 * @param size The size of the file.
+	 * @return The position of the start of a line, or the size of the file if there is none.
+	 */
+	private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+		// a line starts right after a line feed, so look from the byte before the position
+		position--;
+		while(position < size) {
+			buffer.clear();
+			int count = channel.read(buffer, position);
+			for(int i = 0; i < count; i++)
+				if(buffer.get(i) == '\n')
+					return position + i + 1;
+			position += count;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Used to parse a range of chunks of a file, splitting the range in halves until each task has a
+	 * single chunk left.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class ParseTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final FileChannel channel;
+		private final Chunk[] chunks;
+		private final boolean roads;
+		private final int cityCount;
+		private final int start;
+		private final int end;
+
+		public ParseTask(FileChannel channel, Chunk[] chunks, boolean roads, int cityCount, int start, int end) {
+			this.channel = channel;
+			this.chunks = chunks;
+			this.roads = roads;
+			this.cityCount = cityCount;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if(end - start > 1) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ParseTask(channel, chunks, roads, cityCount, start, middle),
+							new ParseTask(channel, chunks, roads, cityCount, middle, end));
+				return;
+			}
+
+			if(start == end)
+				return;
+
+			try {
+				chunks[start].parse(channel, roads, cityCount);
+			} catch(IOException ioe) {
+				throw new UncheckedIOException(ioe);
+			}
+		}
+	}
+
+	/**
+	 * Used to hold a chunk of whole lines of a file, and what was parsed out of it: either its cities,
+	 * or its roads as three parallel integer arrays. Line numbers are counted from the start of the
+	 * chunk.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class Chunk {
+		// returned by parseInt for a word that is not an integer
+		private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+		private final long position;
+		private final int length;
+		private byte[] bytes;
+		private int lineCount;
+		private final ArrayList<City> cities = new ArrayList<City>();
+		private int[] sources = new int[0];
+		private int[] targets = new int[0];
+		private int[] weights = new int[0];
+		private int edgeCount;
+		private final ArrayList<Integer> errorLines = new ArrayList<Integer>();
+		private final ArrayList<String> errorMessages = new ArrayList<String>();
+		// the start and end of each word of the line being parsed
+		private int[] wordStarts = new int[8];
+		private int[] wordEnds = new int[8];
+		private int wordCount;
+
+		public Chunk(long position, int length) {
+			this.position = position;
+			this.length = length;
+		}
+
+		/**
+		 * Reads this chunk from the file and parses each of its lines.
+		 */
+		public void parse(FileChannel channel, boolean roads, int cityCount) throws IOException {
+			ByteBuffer buffer;
+
+			bytes = new byte[length];
+			buffer = ByteBuffer.wrap(bytes);
+			while(buffer.hasRemaining())
+				if(channel.read(buffer, position + buffer.position()) < 0)
+					throw new IOException("Error: file changed while it was read");
+
+			if(roads) {
+				// most lines are roads, so a line per 8 bytes is plenty
+				sources = new int[length / 8 + 1];
+				targets = new int[sources.length];
+				weights = new int[sources.length];
+			}
+
+			int lineStart = 0;
+			while(lineStart < length) {
+				int lineEnd = lineStart;
+				while(lineEnd < length && bytes[lineEnd] != '\n')
+					lineEnd++;
+
+				lineCount++;
+				splitWords(lineStart, lineEnd);
+				if(wordCount > 0) {
+					if(roads)
+						parseRoad(cityCount);
+					else
+						parseCity();
+				}
+				lineStart = lineEnd + 1;
+			}
+
+			bytes = null;
+		}
+
+		/**
+		 * Parses the words of a road line: the position of its source city, of its target city, and its distance.
+		 */
+		private void parseRoad(int cityCount) {
+			long source;
+			long target;
+			long weight;
+
+			if(wordCount != 3) {
+				error("expected a source city, a target city and a distance");
+				return;
+			}
+
+			source = parseInt(0);
+			target = parseInt(1);
+			weight = parseInt(2);
+			if(source == NOT_AN_INT || target == NOT_AN_INT || weight == NOT_AN_INT)
+				error("expected three integers");
+			else if(source < 1 || source > cityCount)
+				error("no city at position " + source);
+			else if(target < 1 || target > cityCount)
+				error("no city at position " + target);
+			else if(weight < 0)
+				error("negative distance " + weight);
+			else {
+				if(edgeCount == sources.length)
+					growEdges();
+				sources[edgeCount] = (int) source - 1;
+				targets[edgeCount] = (int) target - 1;
+				weights[edgeCount] = (int) weight;
+				edgeCount++;
+			}
+		}
+
+		/**
+		 * Parses the words of a city line: its number, code, name, population and elevation.
+		 */
+		private void parseCity() {
+			long number;
+			long population;
+			long elevation;
+			StringBuilder name;
+
+			if(wordCount < 5) {
+				error("expected a number, a code, a name, a population and an elevation");
+				return;
+			}
+
+			number = parseInt(0);
+			population = parseInt(wordCount - 2);
+			elevation = parseInt(wordCount - 1);
+			if(number == NOT_AN_INT || population == NOT_AN_INT || elevation == NOT_AN_INT) {
+				error("expected the number, population and elevation to be integers");
+				return;
+			}
+
+			// the name is every word between the code and the population, one space apart
+			name = new StringBuilder(word(2));
+			for(int w = 3; w < wordCount - 2; w++)
+				name.append(' ').append(word(w));
+
+			cities.add(new City((int) number, word(1), name.toString(), (int) population, (int) elevation));
+		}
+
+		/**
+		 * Finds the words of a line, separated by spaces, tabs or a carriage return.
+		 */
+		private void splitWords(int lineStart, int lineEnd) {
+			wordCount = 0;
+			for(int i = lineStart; i < lineEnd; ) {
+				while(i < lineEnd && isSpace(bytes[i]))
+					i++;
+				if(i == lineEnd)
+					break;
+
+				if(wordCount == wordStarts.length) {
+					wordStarts = Arrays.copyOf(wordStarts, wordCount * 2);
+					wordEnds = Arrays.copyOf(wordEnds, wordCount * 2);
+				}
+				wordStarts[wordCount] = i;
+				while(i < lineEnd && !isSpace(bytes[i]))
+					i++;
+				wordEnds[wordCount++] = i;
+			}
+		}
+
+		/**
+		 * Parses a word of the current line as an integer, without throwing on bad input.
+		 * @param w The index of the word in the line.
+		 * @return The integer, or {@link #NOT_AN_INT} if the word is not an integer that fits in an int.
+		 */
+		private long parseInt(int w) {
+			int i = wordStarts[w];
+			int end = wordEnds[w];
+			boolean negative = bytes[i] == '-';
+			long value = 0;
+
+			if(negative)
+				i++;
+			// more than ten digits cannot fit in an int, and would overflow the check below
+			if(i == end || end - i > 10)
+				return NOT_AN_INT;
+			for(; i < end; i++) {
+				if(bytes[i] < '0' || bytes[i] > '9')
+					return NOT_AN_INT;
+				value = value * 10 + (bytes[i] - '0');
+			}
+			if(negative)
+				value = -value;
+
+			return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? NOT_AN_INT : value;
+		}
+
+		private String word(int w) {
+			return new String(bytes, wordStarts[w], wordEnds[w] - wordStarts[w], StandardCharsets.UTF_8);
+		}
+
+		private void error(String message) {
+			errorLines.add(lineCount - 1);
+			errorMessages.add(message);
+		}
+
+		private void growEdges() {
+			sources = Arrays.copyOf(sources, edgeCount * 2);
+			targets = Arrays.copyOf(targets, edgeCount * 2);
+			weights = Arrays.copyOf(weights, edgeCount * 2);
+		}
+
+		private static boolean isSpace(byte b) {
+			return b == ' ' || b == '\t' || b == '\r';
+		}
+	}
+}
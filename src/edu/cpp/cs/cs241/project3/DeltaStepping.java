@@ -0,0 +1,276 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class finds the shortest paths from one vertex to every vertex of a graph with the
+ * delta-stepping algorithm of Meyer and Sanders, which spreads the work of a single search over the
+ * threads of a fork-join pool. Vertices wait in buckets of path lengths <i>delta</i> wide, and rather
+ * than settling one vertex at a time as Dijkstra's algorithm does, the search empties the lowest bucket
+ * all at once, relaxing the edges of its vertices in parallel:
+ * <ul>
+ * <li>the light edges, of weight up to <i>delta</i>, first, over and over, since they can put vertices
+ * back into the same bucket, until the bucket stays empty,</li>
+ * <li>then the heavy edges of every vertex that was in the bucket, once, since they can only reach later
+ * buckets.</li>
+ * </ul>
+ * A small <i>delta</i> does little more work than Dijkstra's algorithm but leaves little to do in
+ * parallel at once; a large one relaxes some edges more than once, from path lengths that are not yet
+ * final, but keeps every thread busy.
+ * <p>
+ * The path length and parent of each vertex are packed into one long, the path length in the high half,
+ * and lowered with a compare-and-set, so that threads relaxing edges into the same vertex never lose an
+ * update and the parent always belongs to the path length. A vertex's parent only changes when its path
+ * length strictly improves, which keeps the parents a tree even across edges of weight 0. The buckets
+ * are filled between steps by the calling thread, from the vertices each task found improved.
+ * @author Joel Tengco
+ *
+ */
+final class DeltaStepping {
+	// the fewest vertices worth handing to a task of their own
+	private static final int CHUNK_SIZE = 256;
+	private static final long UNREACHED = pack(Integer.MAX_VALUE, -1);
+
+	private final Adjacency edges;
+	private final int delta;
+	private final ForkJoinPool pool;
+	private final AtomicLongArray labels;	// path length and parent of each vertex, see pack
+	private final int[][] buckets;			// vertices waiting in each bucket, by bucket modulo their number, or null
+	private final int[] bucketSizes;
+	private final int[] queuedBuckets;		// bucket each vertex waits in, or -1, so that older entries are skipped
+	private final int[] emptiedBuckets;		// bucket each vertex was last taken out of, or -1
+	private final Relaxer[] relaxers;
+	private int queuedCount;				// number of entries in every bucket, including skipped ones
+	private int[] frontier;					// vertices taken out of the current bucket in the current step
+	private int[] emptied;					// vertices taken out of the current bucket so far
+
+	/**
+	 * Constructs a new <code>DeltaStepping</code> object, ready to search the given edges.
+	 */
+	private DeltaStepping(Adjacency edges, int maxEdgeWeight, int delta, ForkJoinPool pool) {
+		int vertexCount = edges.vertexCount();
+
+		this.edges = edges;
+		this.delta = delta;
+		this.pool = pool;
+		labels = new AtomicLongArray(vertexCount);
+		// waiting path lengths never span more than the largest edge weight past the current bucket
+		buckets = new int[maxEdgeWeight / delta + 2][];
+		bucketSizes = new int[buckets.length];
+		queuedBuckets = new int[vertexCount];
+		emptiedBuckets = new int[vertexCount];
+		relaxers = new Relaxer[Math.max(1, pool.getParallelism() * 4)];
+		frontier = new int[16];
+		emptied = new int[16];
+
+		for(int v = 0; v < vertexCount; v++)
+			labels.set(v, UNREACHED);
+		Arrays.fill(queuedBuckets, -1);
+		Arrays.fill(emptiedBuckets, -1);
+		for(int k = 0; k < relaxers.length; k++)
+			relaxers[k] = new Relaxer();
+	}
+
+	/**
+	 * Finds the shortest paths from the given vertex to every vertex it can reach over the given edges.
+	 * @param edges The edges to search over.
+	 * @param maxEdgeWeight The largest weight of any of the edges.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @param delta The width of the buckets, in path length.
+	 * @param pool The pool to relax the edges on.
+	 * @return The shortest path tree rooted at the source vertex.
+	 * @throws IllegalArgumentException If the source index is not a vertex, or delta is not positive.
+	 */
+	static ShortestPathTree search(Adjacency edges, int maxEdgeWeight, int sourceIndex, int delta, ForkJoinPool pool) throws IllegalArgumentException {
+		if(sourceIndex < 0 || sourceIndex >= edges.vertexCount())
+			throw new IllegalArgumentException("Source index out of range: " + sourceIndex);
+		if(delta <= 0)
+			throw new IllegalArgumentException("Delta must be positive.");
+
+		return new DeltaStepping(edges, maxEdgeWeight, delta, pool).run(sourceIndex);
+	}
+
+	private ShortestPathTree run(int sourceIndex) {
+		int[] pathLengths = new int[labels.length()];
+		int[] parents = new int[labels.length()];
+		int bucket = 0;
+
+		labels.set(sourceIndex, pack(0, -1));
+		queue(sourceIndex);
+
+		while(queuedCount > 0) {
+			int emptiedCount = 0;
+
+			while(bucketSizes[bucket % buckets.length] == 0)
+				bucket++;
+
+			// relax light edges until the bucket stays empty, remembering every vertex taken out of it
+			while(bucketSizes[bucket % buckets.length] > 0) {
+				int frontierCount = take(bucket);
+
+				for(int i = 0; i < frontierCount; i++) {
+					int v = frontier[i];
+					if(emptiedBuckets[v] != bucket) {
+						emptiedBuckets[v] = bucket;
+						if(emptiedCount == emptied.length)
+							emptied = Arrays.copyOf(emptied, emptiedCount * 2);
+						emptied[emptiedCount++] = v;
+					}
+				}
+				relax(frontier, frontierCount, true);
+			}
+
+			// the path lengths of the bucket are final now, so each heavy edge is relaxed once
+			relax(emptied, emptiedCount, false);
+			bucket++;
+		}
+
+		for(int v = 0; v < pathLengths.length; v++) {
+			long label = labels.get(v);
+			pathLengths[v] = (int) (label >>> 32);
+			parents[v] = (int) label;
+		}
+
+		return new ShortestPathTree(sourceIndex, pathLengths, parents);
+	}
+
+	/**
+	 * Puts a vertex in the bucket of its current path length, unless it is waiting there already.
+	 */
+	private void queue(int vertexIndex) {
+		int bucket = (int) ((labels.get(vertexIndex) >>> 32) / delta);
+		int slot = bucket % buckets.length;
+
+		if(queuedBuckets[vertexIndex] == bucket)
+			return;
+
+		queuedBuckets[vertexIndex] = bucket;
+		if(buckets[slot] == null)
+			buckets[slot] = new int[16];
+		else if(bucketSizes[slot] == buckets[slot].length)
+			buckets[slot] = Arrays.copyOf(buckets[slot], bucketSizes[slot] * 2);
+		buckets[slot][bucketSizes[slot]++] = vertexIndex;
+		queuedCount++;
+	}
+
+	/**
+	 * Empties the given bucket into the frontier, skipping the entries of vertices that have moved to a
+	 * lower bucket since, or that were in the bucket twice.
+	 * @return The number of vertices in the frontier.
+	 */
+	private int take(int bucket) {
+		int slot = bucket % buckets.length;
+		int count = 0;
+
+		if(frontier.length < bucketSizes[slot])
+			frontier = new int[Math.max(bucketSizes[slot], frontier.length * 2)];
+
+		for(int i = 0; i < bucketSizes[slot]; i++) {
+			int v = buckets[slot][i];
+			if(queuedBuckets[v] == bucket) {
+				queuedBuckets[v] = -1;
+				frontier[count++] = v;
+			}
+		}
+
+		queuedCount -= bucketSizes[slot];
+		bucketSizes[slot] = 0;
+		return count;
+	}
+
+	/**
+	 * Relaxes the light or the heavy edges of the given vertices, splitting them among tasks on the pool
+	 * when there are enough of them, and queues every vertex whose path length improved.
+	 */
+	private void relax(int[] vertices, int count, boolean light) {
+		int taskCount = Math.min(relaxers.length, (count + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+		if(taskCount <= 1) {
+			relaxers[0].set(vertices, 0, count, light);
+			relaxers[0].compute();
+			taskCount = 1;
+		} else {
+			for(int k = 0; k < taskCount; k++) {
+				relaxers[k].reinitialize();
+				relaxers[k].set(vertices, (int) ((long) count * k / taskCount), (int) ((long) count * (k + 1) / taskCount), light);
+			}
+			for(int k = 1; k < taskCount; k++)
+				pool.execute(relaxers[k]);
+			relaxers[0].compute();
+			for(int k = 1; k < taskCount; k++)
+				relaxers[k].join();
+		}
+
+		for(int k = 0; k < taskCount; k++)
+			for(int i = 0; i < relaxers[k].improvedCount; i++)
+				queue(relaxers[k].improved[i]);
+	}
+
+	/**
+	 * Packs a path length and a parent into one long, the path length in the high half so that a label
+	 * with a shorter path length is always the smaller number.
+	 */
+	private static long pack(int pathLength, int parentIndex) {
+		return (long) pathLength << 32 | (parentIndex & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Used to relax the light or the heavy edges of a range of vertices, on any thread, collecting the
+	 * targets whose path length it improved.
+	 * @author Joel Tengco
+	 *
+	 */
+	private class Relaxer extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int[] vertices;
+		private int start;
+		private int end;
+		private boolean light;
+		private int[] improved = new int[16];
+		private int improvedCount;
+
+		private void set(int[] vertices, int start, int end, boolean light) {
+			this.vertices = vertices;
+			this.start = start;
+			this.end = end;
+			this.light = light;
+			improvedCount = 0;
+		}
+
+		@Override
+		protected void compute() {
+			for(int i = start; i < end; i++) {
+				int currentIndex = vertices[i];
+				long currentPathLength = labels.get(currentIndex) >>> 32;
+
+				for(int e = edges.rowStart(currentIndex); e < edges.rowEnd(currentIndex); e++) {
+					int weight = edges.weight(e);
+					if((weight <= delta) != light)
+						continue;
+
+					int neighborIndex = edges.target(e);
+					long newPathLength = currentPathLength + weight;
+					long label = labels.get(neighborIndex);
+					// retry until the path length is lowered, or another thread has lowered it further
+					while((label >>> 32) > newPathLength) {
+						if(labels.compareAndSet(neighborIndex, label, pack((int) newPathLength, currentIndex))) {
+							if(improvedCount == improved.length)
+								improved = Arrays.copyOf(improved, improvedCount * 2);
+							improved[improvedCount++] = neighborIndex;
+							break;
+						}
+						label = labels.get(neighborIndex);
+					}
+				}
+			}
+		}
+	}
+}
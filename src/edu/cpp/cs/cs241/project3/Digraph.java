@@ -6,9 +6,8 @@ package edu.cpp.cs.cs241.project3;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
-import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * This class will represent a directed, weighted graph. Adding vertices and edges are supported within
@@ -19,9 +18,21 @@ import java.util.Stack;
  * @param <T> The type of objects this graph will contain as its vertices.
  *
  */
-public class Digraph<T extends Comparable<T>> {
-	private ArrayList<LinkedList<EdgeListNode>> edges;
-	private T[] vertices;
+public class Digraph<T extends Comparable<T>> implements ShortestPathFinder {
+	private ArrayList<IndexedEdgeList> edges;
+	private ArrayList<IndexedEdgeList> reverseEdges;
+	private T[] vertices;		// may have room for more vertices than there are
+	private int vertexCount;
+	private CompactDigraph<T> frozenView;
+	private Function<? super T, ?> keyFunction;
+	private VertexIndex vertexIndex;
+	private QueueStrategy queueStrategy = QueueStrategy.AUTO;
+	private SearchMode searchMode = SearchMode.DIJKSTRA;
+	private VertexOrdering vertexOrdering = VertexOrdering.NONE;
+	private LandmarkIndex landmarks;
+	private long version;
+	private RouteCache routeCache;
+	private ArrayList<DynamicShortestPathTree> trackedTrees = new ArrayList<DynamicShortestPathTree>();
 	
 	/**
 	 * Constructs a new <code>Digraph</code> object containing all the <code>T</code> objects
@@ -31,10 +42,30 @@ public class Digraph<T extends Comparable<T>> {
 	 */
 	public Digraph(T[] initialNodes) {
 		vertices = initialNodes;
-		edges = new ArrayList<LinkedList<EdgeListNode>>(vertices.length);
-		// set a new LinkedList for each vertex
-		for(int i = 0; i < vertices.length; i++)
-			edges.add(new LinkedList<EdgeListNode>());
+		vertexCount = vertices.length;
+		edges = new ArrayList<IndexedEdgeList>(vertexCount);
+		reverseEdges = new ArrayList<IndexedEdgeList>(vertexCount);
+		// set a new edge list for each vertex, for both its outgoing and its incoming edges
+		for(int i = 0; i < vertexCount; i++) {
+			edges.add(new IndexedEdgeList());
+			reverseEdges.add(new IndexedEdgeList());
+		}
+		frozenView = null;
+	}
+	
+	/**
+	 * Constructs a new <code>Digraph</code> object from edges already in compressed sparse row form,
+	 * which also become its frozen view.
+	 * @param initialNodes The vertices of this graph, which must not be modified afterwards.
+	 * @param outgoing The outgoing edges of every vertex.
+	 * @param incoming The incoming edges of every vertex.
+	 */
+	private Digraph(T[] initialNodes, Adjacency outgoing, Adjacency incoming) {
+		vertices = initialNodes;
+		vertexCount = vertices.length;
+		edges = toEdgeLists(outgoing);
+		reverseEdges = toEdgeLists(incoming);
+		frozenView = new CompactDigraph<T>(Arrays.copyOf(vertices, vertexCount), outgoing, incoming, null);
 	}
 	
 	/**
@@ -49,8 +80,17 @@ public class Digraph<T extends Comparable<T>> {
 	public void addEdge(int sourceIndex, int targetIndex, int weight) throws IllegalArgumentException {
 		if(weight < 0)
 			throw new IllegalArgumentException("This graph does not support negative weights.");
-		else
-			edges.get(sourceIndex).add(new EdgeListNode(targetIndex, weight));
+		else {
+			edges.get(sourceIndex).add(targetIndex, weight);
+			reverseEdges.get(targetIndex).add(sourceIndex, weight);
+			frozenView = null;
+			version++;
+			// drop the landmarks if the new edge is a shortcut that makes them overestimate
+			if(landmarks != null && !landmarks.acceptsEdge(sourceIndex, targetIndex, weight))
+				landmarks = null;
+			for(DynamicShortestPathTree tree : trackedTrees)
+				tree.edgeAdded(sourceIndex, targetIndex, weight);
+		}
 	}
 	
 	/**
@@ -58,12 +98,58 @@ public class Digraph<T extends Comparable<T>> {
 	 * @param newVertex The new vertex to be represented in this graph.
 	 */
 	public void addVertex(T newVertex) {
-		// extend the array length by one
-		vertices = Arrays.copyOf(vertices, vertices.length + 1);
-		vertices[vertices.length - 1] = newVertex;
+		// double the array length when it is full, so that adding many vertices takes linear time
+		if(vertexCount == vertices.length)
+			vertices = Arrays.copyOf(vertices, Math.max(4, vertexCount * 2));
+		vertices[vertexCount++] = newVertex;
+		
+		// set new edge lists for the new vertex
+		edges.add(new IndexedEdgeList());
+		reverseEdges.add(new IndexedEdgeList());
+		frozenView = null;
+		version++;
+		if(landmarks != null)
+			landmarks = landmarks.withVertexAdded();
+		for(DynamicShortestPathTree tree : trackedTrees)
+			tree.vertexAdded();
+		
+		// keep the key index in step with the vertices
+		if(vertexIndex != null)
+			vertexIndex.putIfAbsent(keyFunction.apply(newVertex), vertexCount - 1);
+	}
+	
+	/**
+	 * Sets the key used to look up vertices in {@linkplain #contains(Comparable)} and
+	 * {@linkplain #getVertexIndex(Comparable)}. When a key function is set, this graph keeps a hash
+	 * index from each vertex's key to its index, so that a lookup takes constant time instead of
+	 * comparing the search element against every vertex. The index is kept up to date by
+	 * {@linkplain #addVertex(Comparable)}.
+	 * <p>
+	 * Two vertices must have equal keys if and only if <code>compareTo</code> considers them equal,
+	 * otherwise lookups would disagree with the comparisons done without an index. For example,
+	 * {@link City#CODE_KEY} is suitable for a graph of <code>City</code> objects.
+	 * @param keyFunction A function mapping a vertex to its key, or null to go back to comparing
+	 * the search element against every vertex.
+	 */
+	public void setVertexKey(Function<? super T, ?> keyFunction) {
+		this.keyFunction = keyFunction;
+		
+		if(keyFunction == null) {
+			vertexIndex = null;
+			return;
+		}
 		
-		// set a new LinkedList for the new vertex
-		edges.add(new LinkedList<EdgeListNode>());
+		vertexIndex = new VertexIndex(vertexCount);
+		for(int i = 0; i < vertexCount; i++)
+			vertexIndex.putIfAbsent(keyFunction.apply(vertices[i]), i);
+	}
+	
+	/**
+	 * Gets the key used to look up vertices, see {@link #setVertexKey(Function)}.
+	 * @return The function mapping a vertex to its key, or null if vertices are compared one by one.
+	 */
+	Function<? super T, ?> getVertexKey() {
+		return keyFunction;
 	}
 	
 	/**
@@ -75,9 +161,12 @@ public class Digraph<T extends Comparable<T>> {
      * false otherwise.
      */
 	public boolean contains(T searchElement) {
+		if(vertexIndex != null)
+			return vertexIndex.get(keyFunction.apply(searchElement)) != -1;
+		
 		// check every vertex if they match the search element, return true if there is a match
-		for(T element : vertices)
-			if(element.compareTo(searchElement) == 0)
+		for(int i = 0; i < vertexCount; i++)
+			if(vertices[i].compareTo(searchElement) == 0)
 				return true;
 			
 		return false;
@@ -93,7 +182,10 @@ public class Digraph<T extends Comparable<T>> {
 	 * is returned.
 	 */
 	public int getVertexIndex(T searchElement) {
-		for(int i = 0; i < vertices.length; i++)
+		if(vertexIndex != null)
+			return vertexIndex.get(keyFunction.apply(searchElement));
+		
+		for(int i = 0; i < vertexCount; i++)
 			if(vertices[i].compareTo(searchElement) == 0)
 				return i;
 			
@@ -103,20 +195,73 @@ public class Digraph<T extends Comparable<T>> {
 	/**
 	 * Removes an edge from a source vertex to a target vertex, if it exists. The source and target
 	 * vertices are identified with the given respective parameters. If there does not exist such
-	 * an edge, then the graph is left unmodified.
+	 * an edge, then the graph is left unmodified. The edge is found through the edge index of the
+	 * source vertex, so this takes constant expected time however many edges the vertex has.
 	 * @param sourceIndex The index of the vertex whose the source of the desired edge to remove.
 	 * @param targetIndex The index of the vertex whose the target of the desired edge to remove.
 	 */
 	public void removeEdge(int sourceIndex, int targetIndex) {
-		/*
-		 * for every node in the source vertex's edge list,
-		 * 	if the target index is found in that node, remove it
-		 */
-		for(EdgeListNode node : edges.get(sourceIndex))
-			if(node.vertexIndex == targetIndex) {
-				edges.get(sourceIndex).remove(node);
-				return;
-			}
+		IndexedEdgeList outgoing = edges.get(sourceIndex);
+		IndexedEdgeList incoming = reverseEdges.get(targetIndex);
+		int slot = outgoing.indexOf(targetIndex);
+		int weight;
+		
+		if(slot == -1)
+			return;
+		
+		// remove the edge, along with its counterpart in the target vertex's incoming edge list
+		weight = outgoing.weight(slot);
+		outgoing.removeAt(slot);
+		incoming.removeAt(incoming.indexOf(sourceIndex, weight));
+		frozenView = null;
+		version++;
+		for(DynamicShortestPathTree tree : trackedTrees)
+			tree.edgeRemoved(sourceIndex, targetIndex, weight);
+	}
+	
+	/**
+	 * Changes the weight of the edge from a source vertex to a target vertex in place, if it exists,
+	 * in constant expected time. Otherwise, the graph is left unmodified. Tracked shortest path trees
+	 * are repaired and cached routes dropped the same way as when an edge is added or removed.
+	 * @param sourceIndex The index of the vertex whose the source of the edge.
+	 * @param targetIndex The index of the vertex whose the target of the edge.
+	 * @param weight The new weight for the edge. Must be non-negative.
+	 * @return The weight the edge had, or 0 if there is no such edge.
+	 * @throws IllegalArgumentException If a negative integer is given for the weight of the edge.
+	 */
+	public int updateEdgeWeight(int sourceIndex, int targetIndex, int weight) throws IllegalArgumentException {
+		IndexedEdgeList outgoing = edges.get(sourceIndex);
+		IndexedEdgeList incoming = reverseEdges.get(targetIndex);
+		int slot;
+		int oldWeight;
+		
+		if(weight < 0)
+			throw new IllegalArgumentException("This graph does not support negative weights.");
+		
+		slot = outgoing.indexOf(targetIndex);
+		if(slot == -1)
+			return 0;
+		oldWeight = outgoing.weight(slot);
+		if(weight == oldWeight)
+			return oldWeight;
+		
+		outgoing.setWeight(slot, weight);
+		incoming.setWeight(incoming.indexOf(sourceIndex, oldWeight), weight);
+		frozenView = null;
+		version++;
+		if(weight < oldWeight) {
+			// a lighter edge may be a shortcut the landmarks do not allow for, like an added edge
+			if(landmarks != null && !landmarks.acceptsEdge(sourceIndex, targetIndex, weight))
+				landmarks = null;
+			for(DynamicShortestPathTree tree : trackedTrees)
+				tree.edgeAdded(sourceIndex, targetIndex, weight);
+		} else {
+			// a heavier edge only loosens the landmark bounds, like a removed edge
+			for(DynamicShortestPathTree tree : trackedTrees)
+				tree.edgeRemoved(sourceIndex, targetIndex, oldWeight);
+		}
+		
+		return oldWeight;
 	}
 	
 	/**
@@ -128,20 +273,28 @@ public class Digraph<T extends Comparable<T>> {
 		return vertices[index];
 	}
 	
+	/**
+	 * Gets the number of vertices in this graph.
+	 * @return The number of vertices.
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+	
 	/**
 	 * Gets the weight of an edge in this graph. If the edge exists, then the weight is returned,
-	 * otherwise 0 is returned.
+	 * otherwise 0 is returned. The edge is found through the edge index of the source vertex, in
+	 * constant expected time.
 	 * @param sourceIndex The index of the vertex whose the source of the edge.
 	 * @param targetIndex The index of the vertex whose the target of the edge.
 	 * @return The weight of the edge in this graph if it exists, otherwise 0.
 	 */
 	public int getEdgeWeight(int sourceIndex, int targetIndex) {
-		// return the weight of the edge, if found
-		for(EdgeListNode node : edges.get(sourceIndex))
-			if(node.vertexIndex == targetIndex)
-				return node.weight;
+		IndexedEdgeList outgoing = edges.get(sourceIndex);
+		int slot = outgoing.indexOf(targetIndex);
 		
-		return 0;
+		// return the weight of the edge, if found
+		return slot == -1 ? 0 : outgoing.weight(slot);
 	}
 	
 	/**
@@ -149,6 +302,9 @@ public class Digraph<T extends Comparable<T>> {
 	 * indices. This method returns an integer array formatted to have its first element equal to
 	 * the shortest path's length (accumulated weights), and the rest of the array containing the
 	 * path from source to target, as in the index of each vertex contained in the shortest path.
+	 * <p>
+	 * The search itself runs against the frozen view of this graph, see {@link #freeze()}. If this
+	 * graph was modified since it was last frozen, the view is rebuilt first.
 	 * @param sourceIndex The index of the vertex whose the source of the path.
 	 * @param targetIndex The index of the vertex whose the target of this path.
 	 * @return An integer array containing the path length as its first element and the rest being
@@ -156,135 +312,607 @@ public class Digraph<T extends Comparable<T>> {
 	 * @throws IllegalArgumentException If the target vertex is unreachable, in other words, the
 	 * target vertex is not adjacent to any other vertex in this graph.
 	 */
+	@Override
 	public int[] getShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
-		// variables to find shortest path
-		boolean[] visited;
-		int[] pathLengths;
-		int currentIndex;
-		PriorityQueue<PQElement> queue;
-		// variables to store shortest paths
-		Stack<PQElement> shortestPaths;
-		Stack<PQElement> pathToTarget;
-		// variables to build resulting array
-		boolean pathFound;
-		int targetPathLength;
-		int[] resultArray;
-		
-		// initialize necessary variables
-		visited = new boolean[vertices.length];
-		pathLengths = new int[vertices.length];
-		queue = new PriorityQueue<PQElement>();
-		shortestPaths = new Stack<PQElement>();
-		pathToTarget = new Stack<PQElement>();
-		pathFound = false;
-		
-		// set each vertex's distance estimate to max integer value
-		for(int i = 0; i < pathLengths.length; i++)
-			pathLengths[i] = Integer.MAX_VALUE;
-		
-		// set source index path length to zero, set source index as current index
-		pathLengths[sourceIndex] = 0;
-		currentIndex = sourceIndex;
-		// add new PQElement to priority queue
-		queue.add(new PQElement(currentIndex, 0, -1));
-		
-		while(!pathFound && !queue.isEmpty()) {
-			if(!visited[queue.peek().vertexIndex]) {
-				// store queue head element in shortestPaths stack
-				shortestPaths.push(queue.remove());
-				// set current index as aforementioned element
-				currentIndex = shortestPaths.peek().vertexIndex;
-				// if moved element contained the target index, set pathFound to true
-				if(currentIndex == targetIndex) {
-					pathFound = true;
-					continue;
-				}
-			} else { // next vertex index is already visited, thus remove it
-				queue.remove();
-				continue;
-			}
-			
-			// for every edge in current vertex's edge list, relax its neighbors
-			for(EdgeListNode node : edges.get(currentIndex))
-				if(!visited[node.vertexIndex]) {
-					int newPathLength = pathLengths[currentIndex] + node.weight;
-					
-					if(newPathLength < pathLengths[node.vertexIndex]) {
-						pathLengths[node.vertexIndex] = newPathLength;
-						queue.add(new PQElement(node.vertexIndex, newPathLength, currentIndex));
-					}
-				}
-			
-			// set the current index as visited
-			visited[currentIndex] = true;
+		return findShortestPath(sourceIndex, targetIndex).toArray();
+	}
+	
+	/**
+	 * Finds the shortest path from one vertex to another, the same way as {@linkplain #getShortestPath(int, int)},
+	 * but returns it as a {@link ShortestPath}, whose vertices can be walked without unpacking an array.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable.
+	 */
+	@Override
+	public ShortestPath findShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		ShortestPath path;
+		
+		if(routeCache == null)
+			return freeze().findShortestPath(sourceIndex, targetIndex, queueStrategy, searchMode);
+		
+		// only search if the route was not found since this graph last changed
+		path = routeCache.get(sourceIndex, targetIndex, version);
+		if(path == null) {
+			path = searchRoute(sourceIndex, targetIndex);
+			routeCache.put(sourceIndex, targetIndex, version, path);
 		}
 		
-		if(!pathFound)
+		if(path == RouteCache.UNREACHABLE)
 			throw new IllegalArgumentException("Vertex with target index is unreachable.");
 		
-		// obtain the path length from source to target vertex
-		targetPathLength = shortestPaths.peek().pathLength;
-		// push the top element of shortestPaths to pathToTarget
-		pathToTarget.push(shortestPaths.peek());
-		// obtain the adjacent vertex in the path
-		int targetAdjVertexIndex = shortestPaths.pop().adjacentIndex;
-		while(!shortestPaths.isEmpty()) {
-			// continue to push top element to pathToTarget if and only if it contains the target adjacent index
-			if(shortestPaths.peek().vertexIndex == targetAdjVertexIndex) {
-				pathToTarget.push(shortestPaths.peek());
-				targetAdjVertexIndex = shortestPaths.pop().adjacentIndex;
-			} else	// the top element pertains to a different shortest path
-				shortestPaths.pop();
+		return path;
+	}
+	
+	/**
+	 * Gets only the length of the shortest path from one vertex to another, without building the path.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The length of the shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable.
+	 */
+	@Override
+	public int getShortestPathLength(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+		if(routeCache != null) {
+			// a cached route gives its length, but a route not cached is not built just to cache it
+			ShortestPath path = routeCache.get(sourceIndex, targetIndex, version);
+			
+			if(path == RouteCache.UNREACHABLE)
+				throw new IllegalArgumentException("Vertex with target index is unreachable.");
+			if(path != null)
+				return path.getLength();
+			
+			try {
+				return freeze().getShortestPathLength(sourceIndex, targetIndex, queueStrategy, searchMode);
+			} catch(IllegalArgumentException iae) {
+				routeCache.put(sourceIndex, targetIndex, version, RouteCache.UNREACHABLE);
+				throw iae;
+			}
 		}
 		
-		// build the resulting array
-		resultArray = new int[pathToTarget.size() + 1];
-		resultArray[0] = targetPathLength;
-		for(int i = 1; i < resultArray.length; i++)
-			resultArray[i] = pathToTarget.pop().vertexIndex;
+		return freeze().getShortestPathLength(sourceIndex, targetIndex, queueStrategy, searchMode);
+	}
+	
+	/**
+	 * Searches for the route from one vertex to another, the way it is put in the route cache.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The shortest path, or {@link RouteCache#UNREACHABLE} if the target vertex is unreachable,
+	 * so that the next search for it is a hit too.
+	 */
+	private ShortestPath searchRoute(int sourceIndex, int targetIndex) {
+		try {
+			return freeze().findShortestPath(sourceIndex, targetIndex, queueStrategy, searchMode);
+		} catch(IllegalArgumentException iae) {
+			return RouteCache.UNREACHABLE;
+		}
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph with a single search.
+	 * Routes from the source to any number of targets can then be taken out of the returned tree
+	 * without searching again, see {@link ShortestPathTree}. The tree is a snapshot, and does not
+	 * follow later changes to this graph.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @return The shortest path tree rooted at the source vertex.
+	 */
+	public ShortestPathTree shortestPathTree(int sourceIndex) {
+		return freeze().shortestPathTree(sourceIndex);
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph, like
+	 * {@linkplain #shortestPathTree(int)}, but keeps them up to date as edges and vertices are added
+	 * and edges are removed or reweighted, see {@link DynamicShortestPathTree}. Each change to this graph then also
+	 * repairs every tracked tree, so only track the trees that are needed.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @return The tracked shortest path tree rooted at the source vertex.
+	 */
+	public DynamicShortestPathTree trackShortestPathTree(int sourceIndex) {
+		DynamicShortestPathTree tree = new DynamicShortestPathTree(this, shortestPathTree(sourceIndex));
 		
-		return resultArray;
+		trackedTrees.add(tree);
+		return tree;
 	}
 	
 	/**
-	 * Used to represent the nodes in each vertex's edge list. This class was needed because
-	 * I needed a way to represent both the weight and the target vertex index for each of the
-	 * edges in the edge list.
-	 * @author Joel Tengco
-	 *
+	 * Stops keeping the given tree up to date with this graph.
+	 * @param tree A tree obtained from {@linkplain #trackShortestPathTree(int)}.
+	 */
+	public void untrackShortestPathTree(DynamicShortestPathTree tree) {
+		trackedTrees.remove(tree);
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph, like
+	 * {@linkplain #shortestPathTree(int)}, but spreads the search over the threads of the common
+	 * fork-join pool, which pays off on graphs of millions of vertices. The path lengths are the same;
+	 * where two paths are equally short, the parent given to a vertex may differ.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @return The shortest path tree rooted at the source vertex.
+	 * @throws IllegalArgumentException If the source index is not a vertex of this graph.
+	 */
+	public ShortestPathTree parallelShortestPathTree(int sourceIndex) throws IllegalArgumentException {
+		return freeze().parallelShortestPathTree(sourceIndex);
+	}
+	
+	/**
+	 * Finds the shortest paths from one vertex to every vertex of this graph, the same way as
+	 * {@link #parallelShortestPathTree(int)}, but with the given bucket width and on the given
+	 * fork-join pool, see {@link CompactDigraph#parallelShortestPathTree(int, int, ForkJoinPool)}.
+	 * @param sourceIndex The index of the vertex whose the source of every path.
+	 * @param delta The width of the buckets, in path length.
+	 * @param pool The pool to relax the edges on.
+	 * @return The shortest path tree rooted at the source vertex.
+	 * @throws IllegalArgumentException If the source index is not a vertex of this graph, or delta is not positive.
+	 */
+	public ShortestPathTree parallelShortestPathTree(int sourceIndex, int delta, ForkJoinPool pool) throws IllegalArgumentException {
+		return freeze().parallelShortestPathTree(sourceIndex, delta, pool);
+	}
+	
+	/**
+	 * Computes the shortest path lengths from every given source to every given target, for example
+	 * every city against a few hubs. The searches run in parallel on the common fork-join pool against
+	 * the frozen view of this graph, see {@link DistanceMatrix}.
+	 * @param sourceIndices The indices of the source vertices, one per row.
+	 * @param targetIndices The indices of the target vertices, one per column.
+	 * @return The distance matrix, which can also be written to disk.
+	 * @throws IllegalArgumentException If a source or target index is not a vertex of this graph.
+	 */
+	public DistanceMatrix distanceMatrix(int[] sourceIndices, int[] targetIndices) throws IllegalArgumentException {
+		return freeze().distanceMatrix(sourceIndices, targetIndices);
+	}
+	
+	/**
+	 * Computes the shortest path lengths from every given source to every given target, the same way
+	 * as {@link #distanceMatrix(int[], int[])}, but on the given fork-join pool.
+	 * @param sourceIndices The indices of the source vertices, one per row.
+	 * @param targetIndices The indices of the target vertices, one per column.
+	 * @param pool The pool to run the searches on.
+	 * @return The distance matrix, which can also be written to disk.
+	 * @throws IllegalArgumentException If a source or target index is not a vertex of this graph.
+	 */
+	public DistanceMatrix distanceMatrix(int[] sourceIndices, int[] targetIndices, ForkJoinPool pool) throws IllegalArgumentException {
+		return freeze().distanceMatrix(sourceIndices, targetIndices, pool);
+	}
+	
+	/**
+	 * Gets the version of this graph, which goes up by one with every change made by
+	 * {@linkplain #addEdge(int, int, int)}, {@linkplain #removeEdge(int, int)},
+	 * {@linkplain #updateEdgeWeight(int, int, int)} and {@linkplain #addVertex(Comparable)}.
+	 * @return The current version of this graph.
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Sets the cache of routes consulted by {@linkplain #getShortestPath(int, int)} and the other shortest
+	 * path queries before searching, see {@link RouteCache}. Cached routes are thrown away as soon as
+	 * this graph changes.
+	 * @param routeCache The cache to use, or null to always search.
+	 */
+	public void setRouteCache(RouteCache routeCache) {
+		this.routeCache = routeCache;
+	}
+	
+	/**
+	 * Gets the cache of routes consulted by the shortest path queries, which also reports how well it does.
+	 * @return The route cache of this graph, or null if there is none.
+	 */
+	public RouteCache getRouteCache() {
+		return routeCache;
+	}
+	
+	/**
+	 * Sets the priority queue used by {@linkplain #getShortestPath(int, int)}. The default is
+	 * {@link QueueStrategy#AUTO}, which picks one from the largest edge weight.
+	 * @param queueStrategy The priority queue to use for shortest path searches.
+	 */
+	public void setQueueStrategy(QueueStrategy queueStrategy) {
+		this.queueStrategy = queueStrategy;
+	}
+	
+	/**
+	 * Gets the priority queue used by {@linkplain #getShortestPath(int, int)}.
+	 * @return The priority queue used for shortest path searches.
+	 */
+	public QueueStrategy getQueueStrategy() {
+		return queueStrategy;
+	}
+	
+	/**
+	 * Sets the algorithm used by {@linkplain #getShortestPath(int, int)}. The default is
+	 * {@link SearchMode#DIJKSTRA}.
+	 * @param searchMode The algorithm to use for shortest path searches.
+	 */
+	public void setSearchMode(SearchMode searchMode) {
+		this.searchMode = searchMode;
+	}
+	
+	/**
+	 * Gets the algorithm used by {@linkplain #getShortestPath(int, int)}.
+	 * @return The algorithm used for shortest path searches.
+	 */
+	public SearchMode getSearchMode() {
+		return searchMode;
+	}
+	
+	/**
+	 * Sets the order the frozen view of this graph lays out its vertices in, see {@link VertexOrdering}.
+	 * Vertex indices stay the same whatever the order; only the speed of searches changes. The current
+	 * frozen view, if any, is dropped, and the next one is built in the new order.
+	 * @param vertexOrdering The order to lay out the vertices of the frozen view in.
+	 */
+	public void setVertexOrdering(VertexOrdering vertexOrdering) {
+		if(vertexOrdering != this.vertexOrdering)
+			frozenView = null;
+		this.vertexOrdering = vertexOrdering;
+	}
+	
+	/**
+	 * Gets the order the frozen view of this graph lays out its vertices in.
+	 * @return The order of the vertices of the frozen view.
+	 */
+	public VertexOrdering getVertexOrdering() {
+		return vertexOrdering;
+	}
+	
+	/**
+	 * Picks the given number of landmarks in this graph and computes their path length tables, so that
+	 * {@link SearchMode#ALT} searches can use them, see {@link LandmarkIndex}. The landmarks are kept
+	 * through later changes to this graph for as long as they stay valid: removing an edge only makes
+	 * their bounds less tight, but an inserted edge that is a shortcut to or from a landmark drops them,
+	 * after which ALT searches fall back to plain Dijkstra's algorithm until this method is called again.
+	 * @param landmarkCount The number of landmarks wanted.
+	 * @return The landmarks of this graph, which also report their build time and memory use.
+	 * @throws IllegalArgumentException If the number of landmarks wanted is not positive.
+	 */
+	public LandmarkIndex buildLandmarks(int landmarkCount) throws IllegalArgumentException {
+		landmarks = freeze().buildLandmarks(landmarkCount);
+		frozenView = frozenView.withLandmarks(landmarks);
+		
+		return landmarks;
+	}
+	
+	/**
+	 * Gets the landmarks used by {@link SearchMode#ALT} searches, see {@link #buildLandmarks(int)}.
+	 * @return The landmarks of this graph, or null if there are none.
+	 */
+	public LandmarkIndex getLandmarks() {
+		return landmarks;
+	}
+	
+	/**
+	 * Freezes this graph, so that queries run against a compact, immutable view of it instead of
+	 * the edge lists. The view is kept until this graph is modified again, after which the next
+	 * call to this method (or the next query) builds a new one. The view lays out its vertices in the
+	 * order set by {@link #setVertexOrdering(VertexOrdering)}.
+	 * @return The compact view of this graph as it is now.
 	 */
-	private class EdgeListNode {
-		private int vertexIndex;
-		private int weight;
+	public CompactDigraph<T> freeze() {
+		if(frozenView == null)
+			frozenView = toCompact().reordered(vertexOrdering);
 		
-		public EdgeListNode(int vertexIndex, int weight) {
-			this.vertexIndex = vertexIndex;
-			this.weight = weight;
+		return frozenView;
+	}
+	
+	/**
+	 * Checks if this graph currently has an up to date frozen view, see {@link #freeze()}.
+	 * @return True if this graph has not been modified since it was last frozen, false otherwise.
+	 */
+	public boolean isFrozen() {
+		return frozenView != null;
+	}
+	
+	/**
+	 * Builds a new compact, immutable copy of this graph, with its edges stored in compressed sparse
+	 * row form. The copy uses the same vertex indices as this graph and is not affected by later
+	 * modifications to this graph.
+	 * @return A new <code>CompactDigraph</code> containing the vertices and edges of this graph.
+	 */
+	public CompactDigraph<T> toCompact() {
+		return new CompactDigraph<T>(Arrays.copyOf(vertices, vertexCount), toAdjacency(edges), toAdjacency(reverseEdges), landmarks);
+	}
+	
+	/**
+	 * Gets the outgoing edge list of a vertex, for the classes that work on this graph directly.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The edge list itself, which must not be modified.
+	 */
+	IndexedEdgeList outgoingEdges(int vertexIndex) {
+		return edges.get(vertexIndex);
+	}
+	
+	/**
+	 * Gets the incoming edge list of a vertex, for the classes that work on this graph directly.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The edge list itself, which must not be modified.
+	 */
+	IndexedEdgeList incomingEdges(int vertexIndex) {
+		return reverseEdges.get(vertexIndex);
+	}
+	
+	/**
+	 * Copies the given edge lists into compressed sparse row form, keeping the order of each list.
+	 * @param edgeLists The edge list of every vertex.
+	 * @return The edges of every vertex as an <code>Adjacency</code> object.
+	 */
+	private static Adjacency toAdjacency(ArrayList<IndexedEdgeList> edgeLists) {
+		int[] offsets = new int[edgeLists.size() + 1];
+		int[] targets;
+		int[] weights;
+		
+		// count the edges of each vertex, then turn the counts into row offsets
+		for(int i = 0; i < edgeLists.size(); i++)
+			offsets[i + 1] = offsets[i] + edgeLists.get(i).size();
+		
+		// copy every edge list into its row
+		targets = new int[offsets[edgeLists.size()]];
+		weights = new int[offsets[edgeLists.size()]];
+		for(int i = 0; i < edgeLists.size(); i++) {
+			IndexedEdgeList list = edgeLists.get(i);
+			for(int slot = 0; slot < list.size(); slot++) {
+				targets[offsets[i] + slot] = list.vertex(slot);
+				weights[offsets[i] + slot] = list.weight(slot);
+			}
 		}
+		
+		return new ArrayAdjacency(offsets, targets, weights);
+	}
+	
+	/**
+	 * Copies edges in compressed sparse row form into edge lists, keeping the order of each row.
+	 * @param edges The edges of every vertex.
+	 * @return The edge list of every vertex.
+	 */
+	private static ArrayList<IndexedEdgeList> toEdgeLists(Adjacency edges) {
+		ArrayList<IndexedEdgeList> edgeLists = new ArrayList<IndexedEdgeList>(edges.vertexCount());
+		
+		for(int v = 0; v < edges.vertexCount(); v++)
+			edgeLists.add(new IndexedEdgeList(edges, v));
+		
+		return edgeLists;
 	}
 	
 	/**
-	 * Used to represent the elements in the priority queue in getting the shortest path. Objects
-	 * of this class essentially represent an edge from one vertex to another, in which these
-	 * edges are part of a shortest path in this graph.
+	 * Used to build a graph from many vertices and edges at once, much faster than adding them to a
+	 * graph one at a time. Vertices and edges are collected in arrays that double in size as they fill
+	 * up, with no object per edge. {@linkplain #build()} then sorts the edges by source and target with
+	 * two counting sorts, keeps only the lightest of any edges with the same source and target, and lays
+	 * them out in compressed sparse row form, all in time linear in the number of vertices and edges.
+	 * The new graph starts out frozen, with those arrays as its frozen view.
+	 * <p>
+	 * For example, to build a graph of cities:
+	 * <pre>
+	 * Digraph&lt;City&gt; graph = new Digraph.Builder&lt;City&gt;(cities)
+	 *         .addEdge(0, 1, 120)
+	 *         .addEdge(1, 0, 120)
+	 *         .build();
+	 * </pre>
 	 * @author Joel Tengco
+	 * @param <T> The type of objects the graph built will contain as its vertices.
 	 *
 	 */
-	private class PQElement implements Comparable<PQElement>{
-		private int vertexIndex;
-		private int pathLength;
-		private int adjacentIndex;
+	public static class Builder<T extends Comparable<T>> {
+		private T[] vertices;
+		private int vertexCount;
+		private int[] sources = new int[16];
+		private int[] targets = new int[16];
+		private int[] weights = new int[16];
+		private int edgeCount;
 		
-		public PQElement(int vertexIndex, int distanceData, int adjacentIndex) {
-			this.vertexIndex = vertexIndex;
-			this.pathLength = distanceData;
-			this.adjacentIndex = adjacentIndex;
+		/**
+		 * Constructs a new <code>Builder</code> object starting out with the given vertices and no edges.
+		 * @param initialNodes The first vertices of the graph, possibly none. The array is copied.
+		 */
+		public Builder(T[] initialNodes) {
+			vertexCount = initialNodes.length;
+			vertices = Arrays.copyOf(initialNodes, Math.max(16, vertexCount));
 		}
 		
-		@Override
-		public int compareTo(PQElement o) {
-			return pathLength - o.pathLength;
+		/**
+		 * Adds a vertex, whose index is the number of vertices added before it.
+		 * @param newVertex The new vertex.
+		 * @return This builder.
+		 */
+		public Builder<T> addVertex(T newVertex) {
+			if(vertexCount == vertices.length)
+				vertices = Arrays.copyOf(vertices, vertexCount * 2);
+			vertices[vertexCount++] = newVertex;
+			
+			return this;
 		}
 		
+		/**
+		 * Adds every vertex of the given array, in order.
+		 * @param newVertices The new vertices.
+		 * @return This builder.
+		 */
+		public Builder<T> addVertices(T[] newVertices) {
+			if(vertexCount + newVertices.length > vertices.length)
+				vertices = Arrays.copyOf(vertices, Math.max(vertexCount + newVertices.length, vertexCount * 2));
+			System.arraycopy(newVertices, 0, vertices, vertexCount, newVertices.length);
+			vertexCount += newVertices.length;
+			
+			return this;
+		}
+		
+		/**
+		 * Adds a weighted edge. The vertices may be added after the edge, as long as they are there by
+		 * the time the graph is built.
+		 * @param sourceIndex The index of the source vertex of the edge.
+		 * @param targetIndex The index of the target vertex of the edge.
+		 * @param weight The weight of the edge. Must be non-negative.
+		 * @return This builder.
+		 * @throws IllegalArgumentException If a negative integer is given for the weight of the edge.
+		 */
+		public Builder<T> addEdge(int sourceIndex, int targetIndex, int weight) throws IllegalArgumentException {
+			if(weight < 0)
+				throw new IllegalArgumentException("This graph does not support negative weights.");
+			
+			if(edgeCount == sources.length)
+				growEdges(edgeCount + 1);
+			sources[edgeCount] = sourceIndex;
+			targets[edgeCount] = targetIndex;
+			weights[edgeCount] = weight;
+			edgeCount++;
+			
+			return this;
+		}
+		
+		/**
+		 * Adds the first <i>count</i> edges held by three parallel arrays, the same way as
+		 * {@linkplain #addEdge(int, int, int)} but copying them in bulk.
+		 * @param sourceIndices The index of the source vertex of each edge.
+		 * @param targetIndices The index of the target vertex of each edge.
+		 * @param edgeWeights The weight of each edge. Must be non-negative.
+		 * @param count The number of edges to add.
+		 * @return This builder.
+		 * @throws IllegalArgumentException If a negative integer is given for the weight of an edge.
+		 */
+		public Builder<T> addEdges(int[] sourceIndices, int[] targetIndices, int[] edgeWeights, int count) throws IllegalArgumentException {
+			for(int i = 0; i < count; i++)
+				if(edgeWeights[i] < 0)
+					throw new IllegalArgumentException("This graph does not support negative weights.");
+			
+			if(edgeCount + count > sources.length)
+				growEdges(edgeCount + count);
+			System.arraycopy(sourceIndices, 0, sources, edgeCount, count);
+			System.arraycopy(targetIndices, 0, targets, edgeCount, count);
+			System.arraycopy(edgeWeights, 0, weights, edgeCount, count);
+			edgeCount += count;
+			
+			return this;
+		}
+		
+		/**
+		 * Gets the number of vertices added so far.
+		 * @return The number of vertices.
+		 */
+		public int getVertexCount() {
+			return vertexCount;
+		}
+		
+		/**
+		 * Gets the number of edges added so far, before duplicates are dropped.
+		 * @return The number of edges.
+		 */
+		public int getEdgeCount() {
+			return edgeCount;
+		}
+		
+		/**
+		 * Builds a graph holding the vertices and edges added so far. Of the edges with the same source
+		 * and target, only one with the smallest weight is kept. The edges of each vertex are ordered by
+		 * their target, and its incoming edges by their source. This builder can be used again afterwards.
+		 * @return A new, frozen <code>Digraph</code> object.
+		 * @throws IllegalArgumentException If an edge has a vertex index that is not the index of a vertex.
+		 */
+		public Digraph<T> build() throws IllegalArgumentException {
+			int[] byTarget = new int[edgeCount];
+			int[] bySource = new int[edgeCount];
+			int[] offsets;
+			int[] outTargets;
+			int[] outWeights;
+			int keptCount;
+			
+			for(int i = 0; i < edgeCount; i++)
+				if(sources[i] < 0 || sources[i] >= vertexCount || targets[i] < 0 || targets[i] >= vertexCount)
+					throw new IllegalArgumentException("Edge from " + sources[i] + " to " + targets[i] + " has no such vertex.");
+			
+			// order the edges by target, then stably by source, so they end up ordered by both
+			countingSort(targets, null, byTarget);
+			offsets = countingSort(sources, byTarget, bySource);
+			
+			// walk each row, keeping the lightest edge of every run with the same target
+			outTargets = new int[edgeCount];
+			outWeights = new int[edgeCount];
+			keptCount = 0;
+			for(int v = 0; v < vertexCount; v++) {
+				int rowStart = keptCount;
+				for(int k = offsets[v]; k < offsets[v + 1]; k++) {
+					int edge = bySource[k];
+					if(keptCount > rowStart && outTargets[keptCount - 1] == targets[edge])
+						outWeights[keptCount - 1] = Math.min(outWeights[keptCount - 1], weights[edge]);
+					else {
+						outTargets[keptCount] = targets[edge];
+						outWeights[keptCount] = weights[edge];
+						keptCount++;
+					}
+				}
+				offsets[v] = rowStart;
+			}
+			offsets[vertexCount] = keptCount;
+			outTargets = Arrays.copyOf(outTargets, keptCount);
+			outWeights = Arrays.copyOf(outWeights, keptCount);
+			
+			return new Digraph<T>(Arrays.copyOf(vertices, vertexCount), new ArrayAdjacency(offsets, outTargets, outWeights),
+									reverse(offsets, outTargets, outWeights));
+		}
+		
+		/**
+		 * Sorts edges by one of their vertices with a stable counting sort.
+		 * @param keys The vertex of every edge to sort by.
+		 * @param order The edges to sort, in their current order, or null for every edge in the order added.
+		 * @param sorted Filled with the edges, sorted.
+		 * @return The position in the sorted edges of the first edge of each vertex, with the number of
+		 * edges at the end.
+		 */
+		private int[] countingSort(int[] keys, int[] order, int[] sorted) {
+			int[] starts = new int[vertexCount + 1];
+			int[] next;
+			
+			for(int i = 0; i < edgeCount; i++)
+				starts[keys[i] + 1]++;
+			for(int v = 0; v < vertexCount; v++)
+				starts[v + 1] += starts[v];
+			
+			next = Arrays.copyOf(starts, vertexCount);
+			for(int i = 0; i < edgeCount; i++) {
+				int edge = order == null ? i : order[i];
+				sorted[next[keys[edge]]++] = edge;
+			}
+			
+			return starts;
+		}
+		
+		/**
+		 * Turns the rows of outgoing edges around into rows of incoming edges, each ordered by source.
+		 */
+		private static Adjacency reverse(int[] offsets, int[] targets, int[] weights) {
+			int vertexCount = offsets.length - 1;
+			int[] reverseOffsets = new int[vertexCount + 1];
+			int[] sources = new int[targets.length];
+			int[] reverseWeights = new int[targets.length];
+			int[] next;
+			
+			for(int e = 0; e < targets.length; e++)
+				reverseOffsets[targets[e] + 1]++;
+			for(int v = 0; v < vertexCount; v++)
+				reverseOffsets[v + 1] += reverseOffsets[v];
+			
+			next = Arrays.copyOf(reverseOffsets, vertexCount);
+			for(int v = 0; v < vertexCount; v++)
+				for(int e = offsets[v]; e < offsets[v + 1]; e++) {
+					int k = next[targets[e]]++;
+					sources[k] = v;
+					reverseWeights[k] = weights[e];
+				}
+			
+			return new ArrayAdjacency(reverseOffsets, sources, reverseWeights);
+		}
+		
+		/**
+		 * Makes room for at least the given number of edges, doubling the capacity.
+		 */
+		private void growEdges(int minCapacity) {
+			int capacity = Math.max(minCapacity, sources.length * 2);
+			
+			sources = Arrays.copyOf(sources, capacity);
+			targets = Arrays.copyOf(targets, capacity);
+			weights = Arrays.copyOf(weights, capacity);
+		}
 	}
 }
@@ -0,0 +1,239 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class represents the shortest path lengths from each of a list of source vertices to each of a
+ * list of target vertices, stored row by row in a single integer array. Row <i>i</i> holds the path
+ * lengths from the <i>i</i>-th source, and column <i>j</i> the path lengths to the <i>j</i>-th target.
+ * <p>
+ * The matrix is computed with one full search per row, or per column if there are fewer targets than
+ * sources, in which case the searches go backward from each target over incoming edges. The searches
+ * run in parallel on a fork-join pool, each worker thread using its own search state, and write to
+ * disjoint parts of the array, so nothing is shared between them but the graph itself.
+ * <p>
+ * Objects of this class are immutable, and are obtained through {@link Digraph#distanceMatrix(int[], int[])}.
+ * @author Joel Tengco
+ *
+ */
+public final class DistanceMatrix {
+	/**
+	 * The value of an entry whose target is unreachable from its source.
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	// marks the start of a distance matrix file
+	private static final int FILE_MAGIC = 0x44495354;
+
+	private final int[] sources;
+	private final int[] targets;
+	private final int[] pathLengths;	// pathLengths[i * targets.length + j] is from source i to target j
+
+	/**
+	 * Constructs a new <code>DistanceMatrix</code> object from its already filled parts.
+	 * @param sources The index of the vertex of each row.
+	 * @param targets The index of the vertex of each column.
+	 * @param pathLengths The path lengths, row by row.
+	 */
+	private DistanceMatrix(int[] sources, int[] targets, int[] pathLengths) {
+		this.sources = sources;
+		this.targets = targets;
+		this.pathLengths = pathLengths;
+	}
+
+	/**
+	 * Computes the shortest path lengths from every given source to every given target on the given pool.
+	 * @param graph The graph to search.
+	 * @param sources The indices of the source vertices.
+	 * @param targets The indices of the target vertices.
+	 * @param pool The pool to run the searches on.
+	 * @return A new <code>DistanceMatrix</code> object holding the path lengths.
+	 * @throws IllegalArgumentException If a source or target index is not a vertex of the graph.
+	 */
+	static DistanceMatrix compute(CompactDigraph<?> graph, int[] sources, int[] targets, ForkJoinPool pool) throws IllegalArgumentException {
+		DistanceMatrix matrix;
+
+		for(int source : sources)
+			if(source < 0 || source >= graph.getVertexCount())
+				throw new IllegalArgumentException("Source index out of range: " + source);
+		for(int target : targets)
+			if(target < 0 || target >= graph.getVertexCount())
+				throw new IllegalArgumentException("Target index out of range: " + target);
+		if((long) sources.length * targets.length > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Distance matrix too large.");
+
+		matrix = new DistanceMatrix(sources.clone(), targets.clone(), new int[sources.length * targets.length]);
+		// search from whichever side has fewer vertices
+		pool.invoke(new SearchTask(graph, matrix, targets.length < sources.length, 0,
+									Math.min(sources.length, targets.length)));
+
+		return matrix;
+	}
+
+	/**
+	 * Gets the number of rows of this matrix, one per source vertex.
+	 * @return The number of rows.
+	 */
+	public int getRowCount() {
+		return sources.length;
+	}
+
+	/**
+	 * Gets the number of columns of this matrix, one per target vertex.
+	 * @return The number of columns.
+	 */
+	public int getColumnCount() {
+		return targets.length;
+	}
+
+	/**
+	 * Gets the index of the source vertex of a row.
+	 * @param row The row.
+	 * @return The index of the source vertex.
+	 */
+	public int getSource(int row) {
+		return sources[row];
+	}
+
+	/**
+	 * Gets the index of the target vertex of a column.
+	 * @param column The column.
+	 * @return The index of the target vertex.
+	 */
+	public int getTarget(int column) {
+		return targets[column];
+	}
+
+	/**
+	 * Gets the length of the shortest path from the source of a row to the target of a column.
+	 * @param row The row.
+	 * @param column The column.
+	 * @return The shortest path length, or {@link #UNREACHABLE} if there is no path.
+	 */
+	public int get(int row, int column) {
+		return pathLengths[row * targets.length + column];
+	}
+
+	/**
+	 * Checks if the target of a column can be reached from the source of a row.
+	 * @param row The row.
+	 * @param column The column.
+	 * @return True if there is a path, false otherwise.
+	 */
+	public boolean isReachable(int row, int column) {
+		return get(row, column) != UNREACHABLE;
+	}
+
+	/**
+	 * Writes this matrix to the given file in a compact binary format: a marker, the number of rows and
+	 * columns, the source and target vertex indices, and then the path lengths row by row, all as
+	 * big-endian integers. The file can be read back with {@link #readFrom(File)}.
+	 * @param file The file to write to, which is replaced if it exists.
+	 * @throws IOException If an input/output exception has occurred.
+	 */
+	public void writeTo(File file) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(FILE_MAGIC);
+			out.writeInt(sources.length);
+			out.writeInt(targets.length);
+			for(int source : sources)
+				out.writeInt(source);
+			for(int target : targets)
+				out.writeInt(target);
+			for(int pathLength : pathLengths)
+				out.writeInt(pathLength);
+		}
+	}
+
+	/**
+	 * Reads a matrix written by {@link #writeTo(File)}.
+	 * @param file The file to read from.
+	 * @return A new <code>DistanceMatrix</code> object holding the matrix of the file.
+	 * @throws IOException If the file is not a distance matrix, or an input/output exception has occurred.
+	 */
+	public static DistanceMatrix readFrom(File file) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			int[] sources;
+			int[] targets;
+			int[] pathLengths;
+
+			if(in.readInt() != FILE_MAGIC)
+				throw new IOException("Error: " + file + " is not a distance matrix file");
+
+			sources = new int[in.readInt()];
+			targets = new int[in.readInt()];
+			pathLengths = new int[sources.length * targets.length];
+			for(int i = 0; i < sources.length; i++)
+				sources[i] = in.readInt();
+			for(int j = 0; j < targets.length; j++)
+				targets[j] = in.readInt();
+			for(int k = 0; k < pathLengths.length; k++)
+				pathLengths[k] = in.readInt();
+
+			return new DistanceMatrix(sources, targets, pathLengths);
+		}
+	}
+
+	/**
+	 * Used to run the searches of a range of rows, or of columns when searching backward, splitting the
+	 * range in halves until each task has a single search left.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class SearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final CompactDigraph<?> graph;
+		private final DistanceMatrix matrix;
+		private final boolean backward;
+		private final int start;
+		private final int end;
+
+		public SearchTask(CompactDigraph<?> graph, DistanceMatrix matrix, boolean backward, int start, int end) {
+			this.graph = graph;
+			this.matrix = matrix;
+			this.backward = backward;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if(end - start > 1) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new SearchTask(graph, matrix, backward, start, middle),
+							new SearchTask(graph, matrix, backward, middle, end));
+				return;
+			}
+
+			if(start == end)
+				return;
+
+			int columnCount = matrix.targets.length;
+			if(backward) {
+				// paths into one target fill its column
+				SearchContext context = graph.searchAll(graph.internalIndex(matrix.targets[start]), true);
+				for(int i = 0; i < matrix.sources.length; i++)
+					matrix.pathLengths[i * columnCount + start] = context.pathLength(graph.internalIndex(matrix.sources[i]));
+			} else {
+				// paths out of one source fill its row
+				SearchContext context = graph.searchAll(graph.internalIndex(matrix.sources[start]), false);
+				for(int j = 0; j < columnCount; j++)
+					matrix.pathLengths[start * columnCount + j] = context.pathLength(graph.internalIndex(matrix.targets[j]));
+			}
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the shortest paths from one source vertex to every vertex of a {@link Digraph},
+ * kept up to date as the graph changes, rather than found again from scratch after every change. Trees
+ * are obtained through {@link Digraph#trackShortestPathTree(int)}, and the graph repairs each of its
+ * trees right after each change:
+ * <ul>
+ * <li>An inserted edge that shortens the path to its target starts a wave of relaxations from there,
+ * which only reaches the vertices whose paths get shorter.</li>
+ * <li>A removed edge only matters if it is on the tree. In that case, following Ramalingam and Reps,
+ * the subtree hanging below it is cut off, each vertex of the subtree gets the best path it can get
+ * straight from the rest of the tree over its incoming edges, and a Dijkstra search restricted to the
+ * subtree settles the rest. Vertices outside the subtree are never touched.</li>
+ * </ul>
+ * The cost of a repair depends on how many paths change, not on the size of the graph.
+ * @author Joel Tengco
+ *
+ */
+public final class DynamicShortestPathTree {
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final Digraph<?> graph;
+	private final int sourceIndex;
+	private int vertexCount;	// vertices in the tree; the arrays have room for more, grown by doubling
+	private int[] pathLengths;	// path length of each vertex, or UNREACHABLE
+	private int[] parents;		// vertex before each vertex on its path, or -1
+	private int[] marks;		// repair number in which each vertex was last cut off
+	private int mark;
+	private IndexedMinHeap queue;	// made again only when a repair needs it after the arrays grew
+	private int lastRepairSize;
+
+	/**
+	 * Constructs a new <code>DynamicShortestPathTree</code> object for the given graph, starting from
+	 * a tree found by a full search.
+	 * @param graph The graph the tree is kept up to date with.
+	 * @param tree The shortest path tree of the graph as it is now.
+	 */
+	DynamicShortestPathTree(Digraph<?> graph, ShortestPathTree tree) {
+		this.graph = graph;
+		sourceIndex = tree.getSource();
+		vertexCount = tree.getVertexCount();
+		pathLengths = new int[vertexCount];
+		parents = new int[vertexCount];
+		for(int v = 0; v < vertexCount; v++) {
+			pathLengths[v] = tree.isReachable(v) ? tree.getPathLength(v) : UNREACHABLE;
+			parents[v] = tree.getParent(v);
+		}
+		marks = new int[vertexCount];
+	}
+
+	/**
+	 * Gets the index of the vertex all paths in this tree start from.
+	 * @return The index of the source vertex.
+	 */
+	public int getSource() {
+		return sourceIndex;
+	}
+
+	/**
+	 * Checks if there is a path from the source vertex to the given vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @return True if the vertex can be reached from the source, false otherwise.
+	 */
+	public boolean isReachable(int targetIndex) {
+		return pathLengths[targetIndex] != UNREACHABLE;
+	}
+
+	/**
+	 * Gets the length of the shortest path from the source vertex to the given vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @return The length of the shortest path to the vertex.
+	 * @throws IllegalArgumentException If the vertex is unreachable from the source vertex.
+	 */
+	public int getPathLength(int targetIndex) throws IllegalArgumentException {
+		if(!isReachable(targetIndex))
+			throw new IllegalArgumentException("Vertex with target index is unreachable.");
+
+		return pathLengths[targetIndex];
+	}
+
+	/**
+	 * Gets the vertex before the given vertex on its shortest path from the source vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @return The index of the vertex before it, or -1 if the vertex is the source or is unreachable.
+	 */
+	public int getParent(int targetIndex) {
+		return parents[targetIndex];
+	}
+
+	/**
+	 * Gets the shortest path from the source vertex to the given vertex, in the same format as
+	 * {@link Digraph#getShortestPath(int, int)}.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return An integer array containing the path length as its first element and the rest being
+	 * the path represented as the index of each vertex contained in the path.
+	 * @throws IllegalArgumentException If the vertex is unreachable from the source vertex.
+	 */
+	public int[] getShortestPath(int targetIndex) throws IllegalArgumentException {
+		return findShortestPath(targetIndex).toArray();
+	}
+
+	/**
+	 * Finds the shortest path from the source vertex to the given vertex.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The shortest path from the source vertex to the given vertex.
+	 * @throws IllegalArgumentException If the vertex is unreachable from the source vertex.
+	 */
+	public ShortestPath findShortestPath(int targetIndex) throws IllegalArgumentException {
+		// the parents change with the graph, so the path is copied out of them now
+		return new ShortestPath(getPathLength(targetIndex), ShortestPath.follow(targetIndex, parents));
+	}
+
+	/**
+	 * Gets a copy of this tree as it is now, which does not follow later changes.
+	 * @return A new <code>ShortestPathTree</code> object with the same paths as this tree.
+	 */
+	public ShortestPathTree snapshot() {
+		return new ShortestPathTree(sourceIndex, Arrays.copyOf(pathLengths, vertexCount), Arrays.copyOf(parents, vertexCount));
+	}
+
+	/**
+	 * Gets the number of vertices whose path was looked at by the last repair, a measure of how much
+	 * work it took compared to a full search.
+	 * @return The number of vertices touched by the last repair.
+	 */
+	public int getLastRepairSize() {
+		return lastRepairSize;
+	}
+
+	/**
+	 * Repairs this tree after an edge was added to the graph, or the weight of an edge was lowered.
+	 * @param sourceIndex The index of the source vertex of the edge.
+	 * @param targetIndex The index of the target vertex of the edge.
+	 * @param weight The weight of the edge.
+	 */
+	void edgeAdded(int sourceIndex, int targetIndex, int weight) {
+		lastRepairSize = 0;
+		if(pathLengths[sourceIndex] == UNREACHABLE || pathLengths[sourceIndex] + weight >= pathLengths[targetIndex])
+			return;
+
+		pathLengths[targetIndex] = pathLengths[sourceIndex] + weight;
+		parents[targetIndex] = sourceIndex;
+		queue().offer(targetIndex, pathLengths[targetIndex]);
+		relax();
+	}
+
+	/**
+	 * Repairs this tree after an edge was removed from the graph, or the weight of an edge was raised.
+	 * The graph must not hold the edge any more, or must hold it with its new weight.
+	 * @param sourceIndex The index of the source vertex of the edge.
+	 * @param targetIndex The index of the target vertex of the edge.
+	 * @param weight The weight the edge had.
+	 */
+	void edgeRemoved(int sourceIndex, int targetIndex, int weight) {
+		lastRepairSize = 0;
+		// only an edge of the tree matters, unless a parallel edge just as light takes its place
+		if(parents[targetIndex] != sourceIndex || pathLengths[sourceIndex] + weight != pathLengths[targetIndex])
+			return;
+		if(graph.outgoingEdges(sourceIndex).indexOf(targetIndex, weight) != -1)
+			return;
+
+		// cut off the subtree below the edge, by following the tree edges down from its target
+		nextMark();
+		int[] subtree = new int[16];
+		int subtreeSize = 0;
+		subtree[subtreeSize++] = targetIndex;
+		marks[targetIndex] = mark;
+		for(int i = 0; i < subtreeSize; i++) {
+			int u = subtree[i];
+			IndexedEdgeList outgoing = graph.outgoingEdges(u);
+			for(int slot = 0; slot < outgoing.size(); slot++) {
+				int v = outgoing.vertex(slot);
+				if(parents[v] == u && marks[v] != mark) {
+					marks[v] = mark;
+					if(subtreeSize == subtree.length)
+						subtree = Arrays.copyOf(subtree, subtreeSize * 2);
+					subtree[subtreeSize++] = v;
+				}
+			}
+		}
+		for(int i = 0; i < subtreeSize; i++) {
+			pathLengths[subtree[i]] = UNREACHABLE;
+			parents[subtree[i]] = -1;
+		}
+
+		// give each vertex of the subtree its best path straight from the rest of the tree
+		for(int i = 0; i < subtreeSize; i++) {
+			int v = subtree[i];
+			IndexedEdgeList incoming = graph.incomingEdges(v);
+			for(int slot = 0; slot < incoming.size(); slot++) {
+				int u = incoming.vertex(slot);
+				if(marks[u] != mark && pathLengths[u] != UNREACHABLE && pathLengths[u] + incoming.weight(slot) < pathLengths[v]) {
+					pathLengths[v] = pathLengths[u] + incoming.weight(slot);
+					parents[v] = u;
+				}
+			}
+			if(pathLengths[v] != UNREACHABLE)
+				queue().offer(v, pathLengths[v]);
+		}
+
+		lastRepairSize = subtreeSize;
+		relax();
+	}
+
+	/**
+	 * Extends this tree after a vertex was added to the graph, which has no edges yet and so is unreachable.
+	 * The arrays keep room for more vertices, and only grow, to twice their size, once it runs out, so
+	 * adding vertices one at a time costs constant time per vertex.
+	 */
+	void vertexAdded() {
+		if(vertexCount == pathLengths.length) {
+			int capacity = Math.max(16, vertexCount * 2);
+
+			pathLengths = Arrays.copyOf(pathLengths, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			marks = Arrays.copyOf(marks, capacity);
+			Arrays.fill(pathLengths, vertexCount, capacity, UNREACHABLE);
+			Arrays.fill(parents, vertexCount, capacity, -1);
+			queue = null;
+		}
+		vertexCount++;
+	}
+
+	/**
+	 * Gets the queue used by the repairs, making it first if there is none yet with room for every vertex.
+	 */
+	private IndexedMinHeap queue() {
+		if(queue == null)
+			queue = new IndexedMinHeap(pathLengths.length);
+		return queue;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from the vertices waiting in the queue, whose path lengths are already
+	 * set, until no path can be shortened any more.
+	 */
+	private void relax() {
+		IndexedMinHeap queue = queue();
+
+		while(!queue.isEmpty()) {
+			int u = queue.poll();
+			lastRepairSize++;
+
+			IndexedEdgeList outgoing = graph.outgoingEdges(u);
+			for(int slot = 0; slot < outgoing.size(); slot++) {
+				int v = outgoing.vertex(slot);
+				int newPathLength = pathLengths[u] + outgoing.weight(slot);
+
+				if(newPathLength < pathLengths[v]) {
+					pathLengths[v] = newPathLength;
+					parents[v] = u;
+					queue.offer(v, newPathLength);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves on to the next repair number, clearing the marks once the numbers run out.
+	 */
+	private void nextMark() {
+		if(mark == Integer.MAX_VALUE) {
+			Arrays.fill(marks, 0);
+			mark = 0;
+		}
+		mark++;
+	}
+}
@@ -0,0 +1,23 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This enum lists the ways a {@link RouteCache} can pick the route to evict once it is full.
+ * @author Joel Tengco
+ *
+ */
+public enum EvictionPolicy {
+	/**
+	 * Least recently used: the route that has gone unused the longest is evicted.
+	 */
+	LRU,
+	/**
+	 * Window TinyLFU: new routes enter a small LRU window, and a route leaving the window only replaces
+	 * the least recently used route of the main area if it has been asked for more often, as counted by
+	 * a compact frequency sketch. This keeps popular routes cached through bursts of one-off queries.
+	 */
+	W_TINY_LFU
+}
@@ -0,0 +1,47 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This interface represents the set of vertices waiting to be settled in a shortest path search,
+ * each with a key that orders them. Implementations are allowed to be lazy: offering a vertex that
+ * is already waiting may either lower its key or add a second entry for it, so the search must skip
+ * vertices it has already settled when they are polled again.
+ * @author Joel Tengco
+ *
+ */
+interface Frontier {
+	/**
+	 * Checks if there are no vertices left waiting.
+	 * @return True if nothing is waiting, false otherwise.
+	 */
+	boolean isEmpty();
+	
+	/**
+	 * Offers a vertex with the given key. If the vertex is already waiting with a larger key, its
+	 * key is lowered to the given one (or a new entry is added for it, for lazy implementations).
+	 * @param vertexIndex The index of the vertex.
+	 * @param key The key of the vertex, typically its tentative path length.
+	 */
+	void offer(int vertexIndex, int key);
+	
+	/**
+	 * Gets the smallest key of the vertices waiting, without removing anything. A lazy frontier may
+	 * return the key of an entry that is stale, which is never larger than the smallest key still valid.
+	 * @return The smallest key waiting.
+	 */
+	int peekKey();
+	
+	/**
+	 * Removes the waiting vertex with the smallest key.
+	 * @return The index of the removed vertex.
+	 */
+	int poll();
+	
+	/**
+	 * Removes every vertex still waiting, so that this frontier can be used for another search.
+	 */
+	void clear();
+}
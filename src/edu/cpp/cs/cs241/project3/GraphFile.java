@@ -0,0 +1,433 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class reads and writes graphs of cities in a binary file format made to be mapped into memory
+ * and searched in place, so that a program can start answering queries on a large road network
+ * without parsing anything. The file holds, as little-endian integers:
+ * <ol>
+ * <li>A header of eight integers: a marker, the format version, the number of cities <i>n</i>, the
+ * number of roads <i>m</i>, the size of the city code table, the number of string bytes, and two
+ * integers reserved for later versions.</li>
+ * <li>The outgoing roads in compressed sparse row form: <i>n + 1</i> row offsets, then <i>m</i>
+ * targets and <i>m</i> weights.</li>
+ * <li>The incoming roads in the same form.</li>
+ * <li>The number, population and elevation of every city, <i>n</i> integers each.</li>
+ * <li><i>2n + 1</i> offsets into the string bytes: where each city code starts, then where each city
+ * name starts, then the number of string bytes.</li>
+ * <li>The city code table, a hash table holding the index of each city at the slot of its case-folded
+ * code, or -1 for an empty slot.</li>
+ * <li>The string bytes, every code and then every name in UTF-8.</li>
+ * </ol>
+ * Each section is mapped on its own, and the targets and weights of the roads in pieces of 1 GB, so
+ * files larger than a single buffer can hold are fine as long as each section of cities fits. A file with a different version is rejected rather than misread; readers
+ * must be updated along with any change to the layout.
+ * <p>
+ * Files are written from a {@link CompactDigraph}, or converted straight from "city.dat" and
+ * "road.dat" by running this class. The same layout, held in direct buffers rather than a file, also
+ * keeps a graph off the heap through {@link #copyOffHeap(CompactDigraph)}.
+ * @author Joel Tengco
+ *
+ */
+public final class GraphFile {
+	/**
+	 * The version of the format written by this class, and the only one it reads.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	// marks the start of a graph file
+	private static final int FILE_MAGIC = 0x47524146;
+	private static final int HEADER_INTS = 8;
+
+	private GraphFile() {}
+
+	/**
+	 * Writes a graph of cities to the given file.
+	 * @param graph The graph to write.
+	 * @param file The file to write to, which is replaced if it exists.
+	 * @throws IOException If an input/output exception has occurred.
+	 * @throws IllegalArgumentException If the codes and names of the cities take more than 2 GB.
+	 */
+	public static void write(CompactDigraph<City> graph, File file) throws IOException, IllegalArgumentException {
+		try(RandomAccessFile out = new RandomAccessFile(file, "rw"); FileChannel channel = out.getChannel()) {
+			out.setLength(0);
+			layOut(graph, new MappedSections(channel));
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Copies a graph of cities out of the heap, into direct buffers laid out the same way as a graph
+	 * file. The copy answers the same queries as the graph, but its edges, city attributes and city
+	 * codes and names live in native memory, where they take up no heap and are never scanned by the
+	 * garbage collector, however large the graph is. Only the working state of the searches, reused by
+	 * each thread from one search to the next, stays on the heap. The native memory is freed once the
+	 * copy is no longer reachable.
+	 * @param graph The graph to copy.
+	 * @return A new <code>BinaryCityGraph</code> object reading the copy.
+	 * @throws IllegalArgumentException If the codes and names of the cities take more than 2 GB, or
+	 * the graph has more than about 250 million cities, beyond what a single buffer can hold.
+	 */
+	public static BinaryCityGraph copyOffHeap(CompactDigraph<City> graph) throws IllegalArgumentException {
+		try {
+			return layOut(graph, new DirectSections());
+		} catch(IOException ioe) {
+			// direct buffers do no input or output
+			throw new IllegalStateException(ioe);
+		}
+	}
+
+	/**
+	 * Lays a graph of cities out in the sections of the graph file format, header included, one after
+	 * another.
+	 * @param graph The graph to lay out.
+	 * @param sections Where each section is put.
+	 * @return A new <code>BinaryCityGraph</code> object reading the sections.
+	 * @throws IOException If an input/output exception has occurred.
+	 * @throws IllegalArgumentException If the codes and names of the cities take more than 2 GB, or a
+	 * section of integers other than the targets and weights takes more than 2 GB.
+	 */
+	private static BinaryCityGraph layOut(CompactDigraph<City> graph, Sections sections) throws IOException, IllegalArgumentException {
+		int vertexCount = graph.getVertexCount();
+		int edgeCount = graph.getEdgeCount();
+		byte[][] stringBytes = new byte[2 * vertexCount][];
+		int[] stringStarts = new int[2 * vertexCount + 1];
+		int[] codeTable;
+		City[] cities = new City[vertexCount];
+
+		// encode every code, then every name, and work out where each one starts
+		for(int v = 0; v < vertexCount; v++)
+			cities[v] = graph.getVertex(v);
+		for(int v = 0; v < vertexCount; v++) {
+			stringBytes[v] = cities[v].getCityCode().getBytes(StandardCharsets.UTF_8);
+			stringBytes[vertexCount + v] = cities[v].getCityName().getBytes(StandardCharsets.UTF_8);
+		}
+		for(int i = 0; i < stringBytes.length; i++) {
+			if(stringStarts[i] + (long) stringBytes[i].length > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("City codes and names too large for a graph file.");
+			stringStarts[i + 1] = stringStarts[i] + stringBytes[i].length;
+		}
+		codeTable = buildCodeTable(cities);
+
+		sections.ints(HEADER_INTS).put(FILE_MAGIC).put(FORMAT_VERSION).put(vertexCount).put(edgeCount)
+				.put(codeTable.length).put(stringStarts[stringStarts.length - 1]).put(0).put(0);
+
+		// the file keeps the edges in the order of the vertex indices, however the graph lays them out
+		CompactDigraph<City> unordered = graph.inVertexOrder();
+		Adjacency outgoing = layOutAdjacency(sections, unordered.outgoing());
+		Adjacency incoming = layOutAdjacency(sections, unordered.incoming());
+
+		IntBuffer numbers = sections.ints(vertexCount);
+		IntBuffer populations = sections.ints(vertexCount);
+		IntBuffer elevations = sections.ints(vertexCount);
+		for(int v = 0; v < vertexCount; v++) {
+			numbers.put(v, cities[v].getCityNumber());
+			populations.put(v, cities[v].getCityPopulation());
+			elevations.put(v, cities[v].getCityElevation());
+		}
+
+		IntBuffer starts = sections.ints(stringStarts.length);
+		starts.put(stringStarts);
+		IntBuffer codes = sections.ints(codeTable.length);
+		codes.put(codeTable);
+		ByteBuffer strings = sections.bytes(stringStarts[stringStarts.length - 1]);
+		for(byte[] bytes : stringBytes)
+			strings.put(bytes);
+
+		return new BinaryCityGraph(outgoing, incoming, numbers, populations, elevations, starts, codes, strings);
+	}
+
+	/**
+	 * Maps a graph file into memory. Nothing but the header is read; the sections are read in place
+	 * as the graph is used, and stay mapped for as long as the graph is reachable. The file must not
+	 * be changed while it is mapped.
+	 * @param file The graph file to map.
+	 * @return A new <code>BinaryCityGraph</code> object reading the graph of the file.
+	 * @throws IOException If the file is not a graph file of this version, or an input/output exception
+	 * has occurred.
+	 */
+	public static BinaryCityGraph map(File file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			IntBuffer header;
+			int vertexCount;
+			int edgeCount;
+			int codeTableSize;
+			int stringByteCount;
+			long position = 4L * HEADER_INTS;
+
+			if(channel.size() < position)
+				throw new IOException("Error: " + file + " is not a graph file");
+			header = mapInts(channel, MapMode.READ_ONLY, 0, HEADER_INTS);
+			if(header.get(0) != FILE_MAGIC)
+				throw new IOException("Error: " + file + " is not a graph file");
+			if(header.get(1) != FORMAT_VERSION)
+				throw new IOException("Error: " + file + " is a graph file of version " + header.get(1)
+										+ ", expected version " + FORMAT_VERSION);
+
+			vertexCount = header.get(2);
+			edgeCount = header.get(3);
+			codeTableSize = header.get(4);
+			stringByteCount = header.get(5);
+			if(vertexCount < 0 || edgeCount < 0 || Integer.bitCount(codeTableSize) != 1 || stringByteCount < 0
+					|| channel.size() != position + 4L * (2 * (vertexCount + 1 + 2L * edgeCount) + 5L * vertexCount + 1
+															+ codeTableSize) + stringByteCount)
+				throw new IOException("Error: " + file + " is a damaged graph file");
+
+			Adjacency outgoing = mapAdjacency(channel, position, vertexCount, edgeCount);
+			position += 4L * (vertexCount + 1 + 2L * edgeCount);
+			Adjacency incoming = mapAdjacency(channel, position, vertexCount, edgeCount);
+			position += 4L * (vertexCount + 1 + 2L * edgeCount);
+			IntBuffer numbers = mapInts(channel, MapMode.READ_ONLY, position, vertexCount);
+			position += 4L * vertexCount;
+			IntBuffer populations = mapInts(channel, MapMode.READ_ONLY, position, vertexCount);
+			position += 4L * vertexCount;
+			IntBuffer elevations = mapInts(channel, MapMode.READ_ONLY, position, vertexCount);
+			position += 4L * vertexCount;
+			IntBuffer stringStarts = mapInts(channel, MapMode.READ_ONLY, position, 2 * vertexCount + 1);
+			position += 4L * (2 * vertexCount + 1);
+			IntBuffer codeTable = mapInts(channel, MapMode.READ_ONLY, position, codeTableSize);
+			position += 4L * codeTableSize;
+			ByteBuffer strings = channel.map(MapMode.READ_ONLY, position, stringByteCount);
+
+			return new BinaryCityGraph(outgoing, incoming, numbers, populations, elevations, stringStarts, codeTable, strings);
+		}
+	}
+
+	/**
+	 * Reads a graph from two files in the formats of "city.dat" and "road.dat" with a {@link DataFileLoader},
+	 * and writes it to a graph file.
+	 * @param cityFile The file holding the cities.
+	 * @param roadFile The file holding the roads.
+	 * @param graphFile The graph file to write, which is replaced if it exists.
+	 * @return The malformed lines that were skipped, see {@link DataFileLoader#getErrors()}.
+	 * @throws IOException If either input file cannot be read, or an input/output exception has occurred.
+	 */
+	public static List<String> convert(File cityFile, File roadFile, File graphFile) throws IOException {
+		DataFileLoader loader = new DataFileLoader();
+
+		write(loader.load(cityFile, roadFile).toCompact(), graphFile);
+		return loader.getErrors();
+	}
+
+	/**
+	 * Converts "city.dat" and "road.dat" into "graph.bin", or the three files given as arguments.
+	 * @param args Either nothing, or the city file, the road file and the graph file to write.
+	 */
+	public static void main(String[] args) {
+		File cityFile = new File("city.dat");
+		File roadFile = new File("road.dat");
+		File graphFile = new File("graph.bin");
+		long startTime = System.nanoTime();
+
+		if(args.length == 3) {
+			cityFile = new File(args[0]);
+			roadFile = new File(args[1]);
+			graphFile = new File(args[2]);
+		} else if(args.length != 0) {
+			System.err.println("Usage: GraphFile [cityFile roadFile graphFile]");
+			System.exit(1);
+		}
+
+		try {
+			for(String error : convert(cityFile, roadFile, graphFile))
+				System.err.println("Warning: " + error);
+			BinaryCityGraph graph = map(graphFile);
+			System.out.printf("Wrote %d cities and %d roads to %s in %d ms.%n", graph.getVertexCount(),
+								graph.getEdgeCount(), graphFile, (System.nanoTime() - startTime) / 1000000);
+		} catch(Exception e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Builds the city code table: an open-addressing hash table at most half full, holding each city's
+	 * index at the first free slot from the home slot of its case-folded code. If two cities share a
+	 * code, only the first is stored, the same way as {@link VertexIndex} does.
+	 * @param cities The cities.
+	 * @return The table, -1 marking an empty slot.
+	 */
+	private static int[] buildCodeTable(City[] cities) {
+		int capacity = 2;
+
+		while(capacity < cities.length * 2)
+			capacity <<= 1;
+
+		int[] table = new int[capacity];
+		String[] keys = new String[capacity];
+		int mask = capacity - 1;
+
+		Arrays.fill(table, -1);
+		for(int v = 0; v < cities.length; v++) {
+			String key = City.CODE_KEY.apply(cities[v]);
+			int slot = VertexIndex.slotOf(key, mask);
+
+			while(table[slot] != -1 && !keys[slot].equals(key))
+				slot = (slot + 1) & mask;
+			if(table[slot] == -1) {
+				table[slot] = v;
+				keys[slot] = key;
+			}
+		}
+
+		return table;
+	}
+
+	/**
+	 * Lays out the row offsets, targets and weights of an adjacency, one after another.
+	 * @param sections Where each section is put.
+	 * @param edges The adjacency to lay out.
+	 * @return An adjacency reading the sections.
+	 */
+	private static Adjacency layOutAdjacency(Sections sections, Adjacency edges) throws IOException {
+		int vertexCount = edges.vertexCount();
+		int edgeCount = edges.edgeCount();
+		IntBuffer offsets = sections.ints(vertexCount + 1);
+		IntBuffer[] targets = new IntBuffer[chunkCount(edgeCount)];
+		IntBuffer[] weights = new IntBuffer[targets.length];
+
+		// each chunk is handed out right after the last, so the file holds them as one run of integers
+		for(int i = 0; i < targets.length; i++)
+			targets[i] = sections.ints(chunkLength(edgeCount, i));
+		for(int i = 0; i < weights.length; i++)
+			weights[i] = sections.ints(chunkLength(edgeCount, i));
+
+		// go row by row, since the rows of the adjacency need not be in order
+		int position = 0;
+		for(int v = 0; v < vertexCount; v++) {
+			offsets.put(v, position);
+			for(int e = edges.rowStart(v); e < edges.rowEnd(v); e++, position++) {
+				targets[position >>> BufferAdjacency.CHUNK_SHIFT].put(position & (BufferAdjacency.CHUNK_SIZE - 1), edges.target(e));
+				weights[position >>> BufferAdjacency.CHUNK_SHIFT].put(position & (BufferAdjacency.CHUNK_SIZE - 1), edges.weight(e));
+			}
+		}
+		offsets.put(vertexCount, edgeCount);
+
+		return new BufferAdjacency(offsets, targets, weights);
+	}
+
+	/**
+	 * Maps the row offsets, targets and weights of an adjacency laid out by
+	 * {@link #layOutAdjacency(Sections, Adjacency)}.
+	 */
+	private static Adjacency mapAdjacency(FileChannel channel, long position, int vertexCount, int edgeCount) throws IOException {
+		IntBuffer offsets = mapInts(channel, MapMode.READ_ONLY, position, vertexCount + 1);
+		IntBuffer[] targets = new IntBuffer[chunkCount(edgeCount)];
+		IntBuffer[] weights = new IntBuffer[targets.length];
+		long targetPosition = position + 4L * (vertexCount + 1);
+		long weightPosition = targetPosition + 4L * edgeCount;
+
+		for(int i = 0; i < targets.length; i++) {
+			long chunkPosition = 4L * i * BufferAdjacency.CHUNK_SIZE;
+			targets[i] = mapInts(channel, MapMode.READ_ONLY, targetPosition + chunkPosition, chunkLength(edgeCount, i));
+			weights[i] = mapInts(channel, MapMode.READ_ONLY, weightPosition + chunkPosition, chunkLength(edgeCount, i));
+		}
+
+		return new BufferAdjacency(offsets, targets, weights);
+	}
+
+	/**
+	 * Gets the number of chunks the targets or the weights of the given number of edges are split into.
+	 */
+	private static int chunkCount(int edgeCount) {
+		return (int) (((long) edgeCount + BufferAdjacency.CHUNK_SIZE - 1) >> BufferAdjacency.CHUNK_SHIFT);
+	}
+
+	/**
+	 * Gets the number of edges in the given chunk of the targets or the weights of the given number of edges.
+	 */
+	private static int chunkLength(int edgeCount, int chunk) {
+		return Math.min(BufferAdjacency.CHUNK_SIZE, edgeCount - chunk * BufferAdjacency.CHUNK_SIZE);
+	}
+
+	/**
+	 * Maps a section of little-endian integers of the given file.
+	 * @param channel The channel of the file.
+	 * @param mode Whether to map for reading only, or for writing too.
+	 * @param position The position of the section in the file.
+	 * @param length The number of integers in the section.
+	 * @return An integer view of the mapped section.
+	 */
+	private static IntBuffer mapInts(FileChannel channel, MapMode mode, long position, int length) throws IOException {
+		return channel.map(mode, position, 4L * length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+
+	/**
+	 * Used to hand out the sections of a graph laid out by {@link GraphFile#layOut(CompactDigraph, Sections)},
+	 * one after another, each starting out at position 0.
+	 * @author Joel Tengco
+	 *
+	 */
+	private interface Sections {
+		IntBuffer ints(int length) throws IOException, IllegalArgumentException;
+
+		ByteBuffer bytes(int length) throws IOException;
+	}
+
+	/**
+	 * Used to map the sections of a graph file being written, in little-endian order.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static final class MappedSections implements Sections {
+		private final FileChannel channel;
+		private long position;
+
+		public MappedSections(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public IntBuffer ints(int length) throws IOException {
+			IntBuffer section = mapInts(channel, MapMode.READ_WRITE, position, length);
+
+			position += 4L * length;
+			return section;
+		}
+
+		@Override
+		public ByteBuffer bytes(int length) throws IOException {
+			ByteBuffer section = channel.map(MapMode.READ_WRITE, position, length);
+
+			position += length;
+			return section;
+		}
+	}
+
+	/**
+	 * Used to allocate the sections of an off-heap copy of a graph as direct buffers, in the byte
+	 * order of the platform, which is read the fastest.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static final class DirectSections implements Sections {
+		@Override
+		public IntBuffer ints(int length) throws IllegalArgumentException {
+			if(length > Integer.MAX_VALUE / 4)
+				throw new IllegalArgumentException("Graph too large for a direct buffer.");
+
+			return ByteBuffer.allocateDirect(4 * length).order(ByteOrder.nativeOrder()).asIntBuffer();
+		}
+
+		@Override
+		public ByteBuffer bytes(int length) {
+			return ByteBuffer.allocateDirect(length);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Random;
+
+/**
+ * This class generates synthetic graphs of cities, of any size, to measure the graph on inputs much
+ * larger and differently shaped than "city.dat" and "road.dat". Every road goes both ways, with the
+ * same distance each way, and every city gets a unique code: "C" followed by its number in base 36.
+ * The graphs are built through a {@link Digraph.Builder}, are frozen, and look up cities by
+ * {@link City#CODE_KEY}. The same arguments, seed included, always generate the same graph.
+ * <ul>
+ * <li>{@link #grid(int, int, long)}: a road network like a city's streets, where every city is
+ * joined to the cities next to it in a grid, so routes are long and searches spread out evenly.</li>
+ * <li>{@link #randomGeometric(int, double, long)}: cities scattered at random over a square, each
+ * joined to the cities within some radius, by roads as long as the straight line between them, much
+ * like a real road network.</li>
+ * <li>{@link #scaleFree(int, int, long)}: a network grown by preferential attachment, where a few
+ * hub cities have a great many roads, like an airline network or a social graph.</li>
+ * </ul>
+ * @author Joel Tengco
+ *
+ */
+public final class GraphGenerator {
+	// the edges handed to the builder at once
+	private static final int EDGE_BATCH_SIZE = 1 << 16;
+
+	private GraphGenerator() {}
+
+	/**
+	 * Generates a graph of the given kind by name, with the shape used by the benchmarks: a square grid,
+	 * a random geometric graph of 6 roads per city on average, or a scale-free network of 3 roads per
+	 * new city.
+	 * @param generator The kind of graph: "grid", "geometric" or "scalefree".
+	 * @param size The number of cities, rounded down to a whole grid for "grid".
+	 * @param seed The seed of the graph.
+	 * @return A new graph of the given kind.
+	 * @throws IllegalArgumentException If the generator is not one of those above, or the size is not positive.
+	 */
+	public static Digraph<City> generate(String generator, int size, long seed) throws IllegalArgumentException {
+		if(generator.equals("grid")) {
+			int side = Math.max(1, (int) Math.sqrt(size));
+			return grid(side, Math.max(1, size / side), seed);
+		}
+		if(generator.equals("geometric"))
+			return randomGeometric(size, 6, seed);
+		if(generator.equals("scalefree"))
+			return scaleFree(size, 3, seed);
+
+		throw new IllegalArgumentException("Unknown generator " + generator + ".");
+	}
+
+	/**
+	 * Generates a grid of cities, each joined to the cities above, below, left and right of it by a road
+	 * with a random distance from 1 to 100.
+	 * @param rows The number of rows of the grid.
+	 * @param columns The number of columns of the grid.
+	 * @param seed The seed of the random distances.
+	 * @return A graph with <code>rows * columns</code> cities, numbered row by row.
+	 * @throws IllegalArgumentException If either dimension is not positive.
+	 */
+	public static Digraph<City> grid(int rows, int columns, long seed) throws IllegalArgumentException {
+		if(rows <= 0 || columns <= 0)
+			throw new IllegalArgumentException("Grid dimensions must be positive.");
+
+		Random random = new Random(seed);
+		EdgeBatch edges = new EdgeBatch(cities(rows * columns, random));
+
+		for(int row = 0; row < rows; row++)
+			for(int column = 0; column < columns; column++) {
+				int v = row * columns + column;
+				if(column + 1 < columns)
+					edges.addRoad(v, v + 1, 1 + random.nextInt(100));
+				if(row + 1 < rows)
+					edges.addRoad(v, v + columns, 1 + random.nextInt(100));
+			}
+
+		return edges.build();
+	}
+
+	/**
+	 * Generates a random geometric graph: cities placed uniformly at random in a square, each joined to
+	 * every city within a radius chosen so that a city has the given number of roads on average. The
+	 * distance of a road is the length of the straight line between its cities, with the square scaled
+	 * so that the nearest cities are about 100 apart, and rounded up to at least 1.
+	 * @param vertexCount The number of cities.
+	 * @param averageDegree The average number of roads of a city.
+	 * @param seed The seed of the positions of the cities.
+	 * @return A graph with the given number of cities, numbered in the order they were placed.
+	 * @throws IllegalArgumentException If the number of cities or the average degree is not positive.
+	 */
+	public static Digraph<City> randomGeometric(int vertexCount, double averageDegree, long seed) throws IllegalArgumentException {
+		if(vertexCount <= 0 || averageDegree <= 0)
+			throw new IllegalArgumentException("Number of cities and average degree must be positive.");
+
+		Random random = new Random(seed);
+		EdgeBatch edges = new EdgeBatch(cities(vertexCount, random));
+		double radius = Math.min(1, Math.sqrt(averageDegree / (Math.PI * vertexCount)));
+		double scale = 100 * Math.sqrt(vertexCount);
+		int cellsPerSide = Math.max(1, (int) (1 / radius));
+		double[] x = new double[vertexCount];
+		double[] y = new double[vertexCount];
+		int[] cellStarts = new int[cellsPerSide * cellsPerSide + 1];
+		int[] byCell = new int[vertexCount];
+		int[] next;
+
+		// bucket the cities into square cells as wide as the radius, so only neighboring cells are compared
+		for(int v = 0; v < vertexCount; v++) {
+			x[v] = random.nextDouble();
+			y[v] = random.nextDouble();
+			cellStarts[cellOf(x[v], y[v], cellsPerSide) + 1]++;
+		}
+		for(int cell = 0; cell < cellsPerSide * cellsPerSide; cell++)
+			cellStarts[cell + 1] += cellStarts[cell];
+		next = new int[cellsPerSide * cellsPerSide];
+		System.arraycopy(cellStarts, 0, next, 0, next.length);
+		for(int v = 0; v < vertexCount; v++)
+			byCell[next[cellOf(x[v], y[v], cellsPerSide)]++] = v;
+
+		for(int v = 0; v < vertexCount; v++) {
+			int cellX = Math.min(cellsPerSide - 1, (int) (x[v] * cellsPerSide));
+			int cellY = Math.min(cellsPerSide - 1, (int) (y[v] * cellsPerSide));
+			for(int neighborY = Math.max(0, cellY - 1); neighborY <= Math.min(cellsPerSide - 1, cellY + 1); neighborY++)
+				for(int neighborX = Math.max(0, cellX - 1); neighborX <= Math.min(cellsPerSide - 1, cellX + 1); neighborX++) {
+					int cell = neighborY * cellsPerSide + neighborX;
+					for(int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+						int u = byCell[k];
+						double distance = Math.hypot(x[v] - x[u], y[v] - y[u]);
+						// each pair is met from both of its cities, so only add it from the lower one
+						if(u > v && distance <= radius)
+							edges.addRoad(v, u, Math.max(1, (int) Math.ceil(distance * scale)));
+					}
+				}
+		}
+
+		return edges.build();
+	}
+
+	/**
+	 * Generates a scale-free graph by preferential attachment: starting from a few cities all joined to
+	 * each other, every new city is joined to the given number of earlier cities, each picked with a
+	 * chance proportional to the number of roads it already has, by roads with a random distance from
+	 * 1 to 100.
+	 * @param vertexCount The number of cities.
+	 * @param edgesPerVertex The number of roads each new city is joined by.
+	 * @param seed The seed of the picks and distances.
+	 * @return A graph with the given number of cities, numbered in the order they were added.
+	 * @throws IllegalArgumentException If the number of cities or roads per city is not positive, or
+	 * there are not more cities than roads per city.
+	 */
+	public static Digraph<City> scaleFree(int vertexCount, int edgesPerVertex, long seed) throws IllegalArgumentException {
+		if(vertexCount <= 0 || edgesPerVertex <= 0 || vertexCount <= edgesPerVertex)
+			throw new IllegalArgumentException("Number of cities must exceed a positive number of roads per city.");
+
+		Random random = new Random(seed);
+		EdgeBatch edges = new EdgeBatch(cities(vertexCount, random));
+		// every road adds both of its cities here, so a uniform pick from it is a pick by degree
+		int[] endpoints = new int[2 * edgesPerVertex * vertexCount];
+		int endpointCount = 0;
+
+		for(int v = 0; v <= edgesPerVertex; v++)
+			for(int u = 0; u < v; u++) {
+				edges.addRoad(u, v, 1 + random.nextInt(100));
+				endpoints[endpointCount++] = u;
+				endpoints[endpointCount++] = v;
+			}
+
+		for(int v = edgesPerVertex + 1; v < vertexCount; v++) {
+			int pickedFrom = endpointCount;
+			// picking the same city twice only adds a parallel road, which the builder drops
+			for(int i = 0; i < edgesPerVertex; i++) {
+				int u = endpoints[random.nextInt(pickedFrom)];
+				edges.addRoad(u, v, 1 + random.nextInt(100));
+				endpoints[endpointCount++] = u;
+				endpoints[endpointCount++] = v;
+			}
+		}
+
+		return edges.build();
+	}
+
+	/**
+	 * Makes the cities of a generated graph, with unique codes and random populations and elevations.
+	 */
+	private static City[] cities(int vertexCount, Random random) {
+		City[] cities = new City[vertexCount];
+
+		for(int v = 0; v < vertexCount; v++) {
+			String code = "C" + Integer.toString(v + 1, 36).toUpperCase();
+			cities[v] = new City(v + 1, code, "CITY " + code, random.nextInt(10000000), random.nextInt(3000));
+		}
+
+		return cities;
+	}
+
+	private static int cellOf(double x, double y, int cellsPerSide) {
+		return Math.min(cellsPerSide - 1, (int) (y * cellsPerSide)) * cellsPerSide + Math.min(cellsPerSide - 1, (int) (x * cellsPerSide));
+	}
+
+	/**
+	 * Used to collect roads in fixed-size arrays, handing them to a builder as each batch fills up.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class EdgeBatch {
+		private final Digraph.Builder<City> builder;
+		private final int[] sources = new int[EDGE_BATCH_SIZE];
+		private final int[] targets = new int[EDGE_BATCH_SIZE];
+		private final int[] weights = new int[EDGE_BATCH_SIZE];
+		private int count;
+
+		public EdgeBatch(City[] cities) {
+			builder = new Digraph.Builder<City>(cities);
+		}
+
+		/**
+		 * Adds a road both ways between two cities.
+		 */
+		public void addRoad(int u, int v, int weight) {
+			if(count + 2 > EDGE_BATCH_SIZE) {
+				builder.addEdges(sources, targets, weights, count);
+				count = 0;
+			}
+			sources[count] = u;
+			targets[count] = v;
+			weights[count++] = weight;
+			sources[count] = v;
+			targets[count] = u;
+			weights[count++] = weight;
+		}
+
+		public Digraph<City> build() {
+			builder.addEdges(sources, targets, weights, count);
+			Digraph<City> graph = builder.build();
+			graph.setVertexKey(City.CODE_KEY);
+			return graph;
+		}
+	}
+}
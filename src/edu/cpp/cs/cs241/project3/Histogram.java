@@ -0,0 +1,122 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class counts non-negative values in buckets whose width grows with the values they hold, the
+ * way HdrHistogram does, so that any percentile can be read back with less than 1% error using a fixed
+ * few thousand counters, whether the values are nanoseconds or numbers of vertices. Values below 128
+ * each get a bucket of their own; above that, every power of two is split into 64 buckets.
+ * <p>
+ * Values may be recorded by many threads at once without locking. Reading a percentile while values
+ * are being recorded gives a result that is up to date to within those values.
+ * @author Joel Tengco
+ *
+ */
+final class Histogram {
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	// enough buckets for every long value
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder totalValue = new LongAdder();
+	private final AtomicLong maxValue = new AtomicLong();
+
+	/**
+	 * Records a value.
+	 * @param value The value, which is taken as 0 if negative.
+	 */
+	void record(long value) {
+		long max;
+
+		value = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(value));
+		totalCount.increment();
+		totalValue.add(value);
+		max = maxValue.get();
+		while(value > max && !maxValue.compareAndSet(max, value))
+			max = maxValue.get();
+	}
+
+	/**
+	 * Gets the number of values recorded.
+	 * @return The number of values.
+	 */
+	long getCount() {
+		return totalCount.sum();
+	}
+
+	/**
+	 * Gets the mean of the values recorded.
+	 * @return The mean, or 0 if no values were recorded.
+	 */
+	double getMean() {
+		long count = totalCount.sum();
+
+		return count == 0 ? 0 : (double) totalValue.sum() / count;
+	}
+
+	/**
+	 * Gets the largest value recorded, exactly.
+	 * @return The largest value, or 0 if no values were recorded.
+	 */
+	long getMax() {
+		return maxValue.get();
+	}
+
+	/**
+	 * Gets the value below or at which the given fraction of the recorded values fall.
+	 * @param fraction The fraction, from 0 to 1, such as 0.99 for the 99th percentile.
+	 * @return The largest value of the bucket holding the percentile, never more than the largest value
+	 * recorded, or 0 if no values were recorded.
+	 */
+	long getPercentile(double fraction) {
+		long rank = Math.max(1, (long) Math.ceil(fraction * totalCount.sum()));
+		long seen = 0;
+
+		for(int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			seen += counts.get(bucket);
+			if(seen >= rank)
+				return Math.min(highestValueOf(bucket), maxValue.get());
+		}
+
+		return maxValue.get();
+	}
+
+	/**
+	 * Forgets every value recorded.
+	 */
+	void reset() {
+		for(int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+			counts.set(bucket, 0);
+		totalCount.reset();
+		totalValue.reset();
+		maxValue.set(0);
+	}
+
+	private static int bucketOf(long value) {
+		if(value < 2 * SUB_BUCKET_COUNT)
+			return (int) value;
+
+		// shift the value down so it lands in [64, 128), one of the 64 buckets of its power of two
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+	}
+
+	private static long highestValueOf(int bucket) {
+		if(bucket < 2 * SUB_BUCKET_COUNT)
+			return bucket;
+
+		int shift = bucket / SUB_BUCKET_COUNT - 1;
+		long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,278 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the edges of a single vertex of a {@link Digraph}: the vertex at the other end and
+ * the weight of each edge, in two parallel integer arrays, so walking them reads memory in order. Each
+ * edge sits at a slot from 0 up to {@link #size()}; removing an edge moves the last edge into its slot.
+ * <p>
+ * Once a vertex has more than a few edges, a hash table from the other vertex of each edge to its slot
+ * is kept alongside, an open-addressing table with linear probing over primitive arrays. Finding,
+ * updating and removing an edge then take constant expected time however many edges the vertex has,
+ * where a vertex with few edges is simply scanned. If the vertex has parallel edges to the same vertex,
+ * the table holds one of them, and the others are found by scanning.
+ * @author Joel Tengco
+ *
+ */
+final class IndexedEdgeList {
+	// vertices with this many edges or fewer are scanned rather than hashed
+	private static final int SCAN_LIMIT = 8;
+	private static final int[] NO_EDGES = new int[0];
+
+	private int[] vertices = NO_EDGES;
+	private int[] weights = NO_EDGES;
+	private int size;
+	private int parallelCount;	// edges sharing their vertex with an edge added before them
+	// the hash table, null while the edges are few: each key is a vertex plus one, 0 for an empty entry
+	private int[] tableKeys;
+	private int[] tableSlots;
+
+	/**
+	 * Constructs a new, empty <code>IndexedEdgeList</code> object.
+	 */
+	IndexedEdgeList() {}
+
+	/**
+	 * Constructs a new <code>IndexedEdgeList</code> object holding a row of an adjacency, in order.
+	 * @param edges The adjacency.
+	 * @param vertexIndex The vertex whose row to copy.
+	 */
+	IndexedEdgeList(Adjacency edges, int vertexIndex) {
+		size = edges.rowEnd(vertexIndex) - edges.rowStart(vertexIndex);
+		if(size == 0)
+			return;
+
+		vertices = new int[size];
+		weights = new int[size];
+		edges.copyEdges(edges.rowStart(vertexIndex), size, vertices, weights, 0);
+		if(size > SCAN_LIMIT)
+			parallelCount = size - buildTable();
+		else
+			for(int slot = 0; slot < size; slot++)
+				if(firstSlotOf(vertices[slot]) != slot)
+					parallelCount++;
+	}
+
+	/**
+	 * Gets the number of edges in this list.
+	 * @return The number of edges.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the vertex at the other end of the edge at the given slot.
+	 * @param slot The slot of the edge.
+	 * @return The index of the vertex.
+	 */
+	int vertex(int slot) {
+		return vertices[slot];
+	}
+
+	/**
+	 * Gets the weight of the edge at the given slot.
+	 * @param slot The slot of the edge.
+	 * @return The weight of the edge.
+	 */
+	int weight(int slot) {
+		return weights[slot];
+	}
+
+	/**
+	 * Finds an edge to or from the given vertex.
+	 * @param vertexIndex The index of the vertex at the other end of the edge.
+	 * @return The slot of the edge, or -1 if there is none. If there are parallel edges, the slot of one of them.
+	 */
+	int indexOf(int vertexIndex) {
+		if(tableKeys == null)
+			return firstSlotOf(vertexIndex);
+
+		int mask = tableKeys.length - 1;
+		for(int i = hash(vertexIndex, mask); tableKeys[i] != 0; i = (i + 1) & mask)
+			if(tableKeys[i] == vertexIndex + 1)
+				return tableSlots[i];
+
+		return -1;
+	}
+
+	/**
+	 * Finds an edge to or from the given vertex with the given weight.
+	 * @param vertexIndex The index of the vertex at the other end of the edge.
+	 * @param weight The weight of the edge.
+	 * @return The slot of the edge, or -1 if there is none.
+	 */
+	int indexOf(int vertexIndex, int weight) {
+		int slot = indexOf(vertexIndex);
+
+		if(slot == -1 || weights[slot] == weight)
+			return slot;
+		if(parallelCount == 0)
+			return -1;
+
+		for(slot = 0; slot < size; slot++)
+			if(vertices[slot] == vertexIndex && weights[slot] == weight)
+				return slot;
+
+		return -1;
+	}
+
+	/**
+	 * Adds an edge to the end of this list.
+	 * @param vertexIndex The index of the vertex at the other end of the edge.
+	 * @param weight The weight of the edge.
+	 */
+	void add(int vertexIndex, int weight) {
+		boolean parallel = indexOf(vertexIndex) != -1;
+
+		if(size == vertices.length) {
+			vertices = Arrays.copyOf(vertices, Math.max(4, size * 2));
+			weights = Arrays.copyOf(weights, vertices.length);
+		}
+		vertices[size] = vertexIndex;
+		weights[size] = weight;
+		size++;
+
+		if(parallel)
+			parallelCount++;
+		else if(tableKeys != null)
+			tablePut(vertexIndex, size - 1);
+		else if(size > SCAN_LIMIT)
+			buildTable();
+	}
+
+	/**
+	 * Changes the weight of the edge at the given slot.
+	 * @param slot The slot of the edge.
+	 * @param weight The new weight of the edge.
+	 */
+	void setWeight(int slot, int weight) {
+		weights[slot] = weight;
+	}
+
+	/**
+	 * Removes the edge at the given slot, moving the last edge of this list into it.
+	 * @param slot The slot of the edge.
+	 */
+	void removeAt(int slot) {
+		int vertexIndex = vertices[slot];
+		int last = --size;
+		int other = -1;
+
+		// look for a parallel edge to take the place of the removed one in the table
+		if(parallelCount > 0) {
+			for(int i = 0; i <= last && other == -1; i++)
+				if(i != slot && vertices[i] == vertexIndex)
+					other = i;
+			if(other != -1)
+				parallelCount--;
+		}
+
+		vertices[slot] = vertices[last];
+		weights[slot] = weights[last];
+		if(other == last)
+			other = slot;
+
+		if(tableKeys != null) {
+			if(indexOf(vertexIndex) == slot) {
+				if(other == -1)
+					tableRemove(vertexIndex);
+				else
+					tablePut(vertexIndex, other);
+			}
+			// the moved edge is now found at its new slot
+			if(last != slot && indexOf(vertices[slot]) == last)
+				tablePut(vertices[slot], slot);
+		}
+	}
+
+	/**
+	 * Scans for the first edge to or from the given vertex.
+	 */
+	private int firstSlotOf(int vertexIndex) {
+		for(int slot = 0; slot < size; slot++)
+			if(vertices[slot] == vertexIndex)
+				return slot;
+
+		return -1;
+	}
+
+	/**
+	 * Builds the hash table from scratch, at most half full, keeping the first slot of each vertex.
+	 * @return The number of distinct vertices in the table.
+	 */
+	private int buildTable() {
+		int capacity = 16;
+		int distinctCount = 0;
+
+		while(capacity < size * 2)
+			capacity <<= 1;
+
+		tableKeys = new int[capacity];
+		tableSlots = new int[capacity];
+		for(int slot = 0; slot < size; slot++) {
+			int mask = capacity - 1;
+			int i = hash(vertices[slot], mask);
+			while(tableKeys[i] != 0 && tableKeys[i] != vertices[slot] + 1)
+				i = (i + 1) & mask;
+			if(tableKeys[i] == 0) {
+				tableKeys[i] = vertices[slot] + 1;
+				tableSlots[i] = slot;
+				distinctCount++;
+			}
+		}
+
+		return distinctCount;
+	}
+
+	/**
+	 * Stores the slot of the given vertex in the table, growing the table if it gets more than half full.
+	 */
+	private void tablePut(int vertexIndex, int slot) {
+		int mask = tableKeys.length - 1;
+		int i = hash(vertexIndex, mask);
+
+		while(tableKeys[i] != 0 && tableKeys[i] != vertexIndex + 1)
+			i = (i + 1) & mask;
+		if(tableKeys[i] == 0 && size * 2 > tableKeys.length) {
+			buildTable();
+			return;
+		}
+
+		tableKeys[i] = vertexIndex + 1;
+		tableSlots[i] = slot;
+	}
+
+	/**
+	 * Removes the given vertex from the table, shifting back the entries probed past it so that no
+	 * probe sequence is broken by the hole.
+	 */
+	private void tableRemove(int vertexIndex) {
+		int mask = tableKeys.length - 1;
+		int hole = hash(vertexIndex, mask);
+
+		while(tableKeys[hole] != vertexIndex + 1)
+			hole = (hole + 1) & mask;
+
+		for(int i = (hole + 1) & mask; tableKeys[i] != 0; i = (i + 1) & mask) {
+			int home = hash(tableKeys[i] - 1, mask);
+			// an entry can fill the hole if the hole lies on its probe sequence, from its home to it
+			if(((i - home) & mask) >= ((i - hole) & mask)) {
+				tableKeys[hole] = tableKeys[i];
+				tableSlots[hole] = tableSlots[i];
+				hole = i;
+			}
+		}
+		tableKeys[hole] = 0;
+	}
+
+	private static int hash(int vertexIndex, int mask) {
+		int h = vertexIndex * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a 4-ary min heap of vertex indices keyed by integers, that also keeps track of
+ * where each vertex sits in the heap. Because of that, a vertex is never in the heap more than once and
+ * its key can be lowered in place (decrease-key), so a shortest path search never has stale entries
+ * to throw away. The heap is stored in plain integer arrays and allocates nothing after construction.
+ * <p>
+ * A 4-ary heap is used rather than a binary one since it is half as deep, and the four children of a
+ * node sit next to each other in memory.
+ * @author Joel Tengco
+ *
+ */
+final class IndexedMinHeap implements Frontier {
+	private static final int ARITY = 4;
+	
+	private final int[] heap;		// vertex at each heap position
+	private final int[] keys;		// key at each heap position
+	private final int[] positions;	// heap position of each vertex, or -1 if it is not in the heap
+	private int size;
+	
+	/**
+	 * Constructs a new, empty <code>IndexedMinHeap</code> object able to hold the vertices
+	 * 0 up to <code>vertexCount - 1</code>.
+	 * @param vertexCount The number of vertices this heap can hold.
+	 */
+	IndexedMinHeap(int vertexCount) {
+		heap = new int[vertexCount];
+		keys = new int[vertexCount];
+		positions = new int[vertexCount];
+		Arrays.fill(positions, -1);
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Checks if the given vertex is in this heap.
+	 * @param vertexIndex The index of the vertex.
+	 * @return True if the vertex is in this heap, false otherwise.
+	 */
+	boolean contains(int vertexIndex) {
+		return positions[vertexIndex] >= 0;
+	}
+	
+	/**
+	 * Inserts the given vertex with the given key, or lowers its key if it is already in this heap
+	 * with a larger one. Offering a larger key for a vertex already in this heap does nothing.
+	 */
+	@Override
+	public void offer(int vertexIndex, int key) {
+		int position = positions[vertexIndex];
+		
+		if(position < 0) {
+			position = size++;
+			heap[position] = vertexIndex;
+			keys[position] = key;
+			positions[vertexIndex] = position;
+			siftUp(position);
+		} else if(key < keys[position]) {
+			keys[position] = key;
+			siftUp(position);
+		}
+	}
+	
+	/**
+	 * Sets the key of the given vertex, inserting it if it is not in this heap. Unlike
+	 * {@link #offer(int, int)}, the key may also be raised.
+	 * @param vertexIndex The index of the vertex.
+	 * @param key The new key of the vertex.
+	 */
+	void update(int vertexIndex, int key) {
+		int position = positions[vertexIndex];
+		
+		if(position >= 0 && key > keys[position]) {
+			keys[position] = key;
+			siftDown(position);
+		} else
+			offer(vertexIndex, key);
+	}
+	
+	@Override
+	public int peekKey() {
+		return keys[0];
+	}
+	
+	@Override
+	public int poll() {
+		int minVertex = heap[0];
+		
+		positions[minVertex] = -1;
+		size--;
+		// move the last element to the root and let it sink
+		if(size > 0) {
+			heap[0] = heap[size];
+			keys[0] = keys[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		
+		return minVertex;
+	}
+	
+	/**
+	 * Removes every vertex still in this heap. This takes time proportional to the number of
+	 * vertices in the heap rather than to the capacity of this heap.
+	 */
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++)
+			positions[heap[i]] = -1;
+		size = 0;
+	}
+	
+	/**
+	 * Moves the element at the given position up until its parent's key is not larger than its own.
+	 * @param position The heap position of the element.
+	 */
+	private void siftUp(int position) {
+		int vertex = heap[position];
+		int key = keys[position];
+		
+		while(position > 0) {
+			int parent = (position - 1) / ARITY;
+			if(keys[parent] <= key)
+				break;
+			
+			// move the parent down into the hole
+			heap[position] = heap[parent];
+			keys[position] = keys[parent];
+			positions[heap[position]] = position;
+			position = parent;
+		}
+		
+		heap[position] = vertex;
+		keys[position] = key;
+		positions[vertex] = position;
+	}
+	
+	/**
+	 * Moves the element at the given position down until none of its children has a smaller key.
+	 * @param position The heap position of the element.
+	 */
+	private void siftDown(int position) {
+		int vertex = heap[position];
+		int key = keys[position];
+		
+		while(true) {
+			int firstChild = position * ARITY + 1;
+			if(firstChild >= size)
+				break;
+			
+			// find the child with the smallest key
+			int lastChild = Math.min(firstChild + ARITY, size);
+			int minChild = firstChild;
+			for(int child = firstChild + 1; child < lastChild; child++)
+				if(keys[child] < keys[minChild])
+					minChild = child;
+			
+			if(keys[minChild] >= key)
+				break;
+			
+			// move the smallest child up into the hole
+			heap[position] = heap[minChild];
+			keys[position] = keys[minChild];
+			positions[heap[position]] = position;
+			position = minChild;
+		}
+		
+		heap[position] = vertex;
+		keys[position] = key;
+		positions[vertex] = position;
+	}
+}
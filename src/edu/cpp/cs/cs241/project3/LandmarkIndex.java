@@ -0,0 +1,254 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the preprocessing for goal-directed (A*) searches using landmarks and the triangle
+ * inequality, also known as ALT. A few vertices are picked as landmarks, and the shortest path length
+ * from every landmark to every vertex, and from every vertex to every landmark, is stored. For a vertex
+ * <i>v</i>, a target <i>t</i> and a landmark <i>L</i>, the triangle inequality gives two lower bounds on
+ * the length of the shortest path from <i>v</i> to <i>t</i>: <i>d(L, t) - d(L, v)</i> and
+ * <i>d(v, L) - d(t, L)</i>. The largest of these over all landmarks steers the search toward the target.
+ * <p>
+ * Landmarks are picked by farthest-point selection: each new landmark is the vertex farthest from the
+ * landmarks picked so far, so that they end up spread around the edges of the graph.
+ * <p>
+ * The tables stay valid lower bounds when edges are removed or vertices are added, but an inserted edge
+ * may create a shortcut that makes them overestimate. See {@link #acceptsEdge(int, int, int)}.
+ * Objects of this class are immutable.
+ * @author Joel Tengco
+ *
+ */
+public final class LandmarkIndex {
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final int[] landmarks;
+	private final int vertexCount;
+	private final int capacity;			// number of vertices the tables have room for, the rest unreachable
+	// both tables are laid out by vertex, so the bounds for one vertex sit next to each other
+	private final int[] fromLandmark;	// fromLandmark[v * k + i] is the path length from landmark i to v
+	private final int[] toLandmark;		// toLandmark[v * k + i] is the path length from v to landmark i
+	private final long buildTimeNanos;
+
+	/**
+	 * Constructs a new <code>LandmarkIndex</code> object from already computed tables.
+	 * @param landmarks The index of each landmark.
+	 * @param vertexCount The number of vertices covered by the tables.
+	 * @param capacity The number of vertices the tables have room for, at least <code>vertexCount</code>.
+	 * @param fromLandmark The path lengths from each landmark to each vertex.
+	 * @param toLandmark The path lengths from each vertex to each landmark.
+	 * @param buildTimeNanos The time it took to compute the tables, in nanoseconds.
+	 */
+	private LandmarkIndex(int[] landmarks, int vertexCount, int capacity, int[] fromLandmark, int[] toLandmark,
+							long buildTimeNanos) {
+		this.landmarks = landmarks;
+		this.vertexCount = vertexCount;
+		this.capacity = capacity;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+		this.buildTimeNanos = buildTimeNanos;
+	}
+
+	/**
+	 * Picks landmarks in the given graph and computes their path length tables.
+	 * @param graph The graph to preprocess.
+	 * @param landmarkCount The number of landmarks wanted. Fewer are picked if the graph has
+	 * fewer vertices.
+	 * @return A new <code>LandmarkIndex</code> object for the given graph.
+	 * @throws IllegalArgumentException If the number of landmarks wanted is not positive.
+	 */
+	static LandmarkIndex build(CompactDigraph<?> graph, int landmarkCount) throws IllegalArgumentException {
+		long startTime = System.nanoTime();
+		int vertexCount = graph.getVertexCount();
+		int k;
+		int[] landmarks;
+		int[] fromLandmark;
+		int[] toLandmark;
+		int[] nearestLandmark;
+
+		if(landmarkCount <= 0)
+			throw new IllegalArgumentException("At least one landmark is needed.");
+
+		k = Math.min(landmarkCount, vertexCount);
+		landmarks = new int[k];
+		fromLandmark = new int[vertexCount * k];
+		toLandmark = new int[vertexCount * k];
+		// path length from the nearest landmark picked so far to each vertex
+		nearestLandmark = new int[vertexCount];
+
+		// the first landmark is the vertex farthest from vertex 0
+		if(k > 0) {
+			SearchContext context = graph.searchAll(graph.internalIndex(0), false);
+			for(int v = 0; v < vertexCount; v++)
+				nearestLandmark[v] = context.pathLength(graph.internalIndex(v));
+			nearestLandmark[0] = 0;
+		}
+
+		for(int i = 0; i < k; i++) {
+			// pick the vertex farthest from every landmark so far, unreachable ones first
+			int landmark = 0;
+			for(int v = 1; v < vertexCount; v++)
+				if(nearestLandmark[v] > nearestLandmark[landmark])
+					landmark = v;
+			landmarks[i] = landmark;
+
+			// fill in the path lengths from this landmark, and update the nearest landmark of each vertex
+			SearchContext context = graph.searchAll(graph.internalIndex(landmark), false);
+			for(int v = 0; v < vertexCount; v++) {
+				fromLandmark[v * k + i] = context.pathLength(graph.internalIndex(v));
+				nearestLandmark[v] = Math.min(nearestLandmark[v], fromLandmark[v * k + i]);
+			}
+			nearestLandmark[landmark] = -1;
+
+			// fill in the path lengths to this landmark by searching backward over incoming edges
+			context = graph.searchAll(graph.internalIndex(landmark), true);
+			for(int v = 0; v < vertexCount; v++)
+				toLandmark[v * k + i] = context.pathLength(graph.internalIndex(v));
+		}
+
+		return new LandmarkIndex(landmarks, vertexCount, vertexCount, fromLandmark, toLandmark, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Gets the number of landmarks in this index.
+	 * @return The number of landmarks.
+	 */
+	public int getLandmarkCount() {
+		return landmarks.length;
+	}
+
+	/**
+	 * Gets the vertex index of a landmark.
+	 * @param i The number of the landmark, starting at zero.
+	 * @return The index of the vertex picked as the i-th landmark.
+	 */
+	public int getLandmark(int i) {
+		return landmarks[i];
+	}
+
+	/**
+	 * Gets the number of vertices covered by this index.
+	 * @return The number of vertices.
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Gets the time it took to pick the landmarks and compute their tables.
+	 * @return The build time in nanoseconds.
+	 */
+	public long getBuildTimeNanos() {
+		return buildTimeNanos;
+	}
+
+	/**
+	 * Gets the approximate memory used by the tables of this index.
+	 * @return The memory used, in bytes.
+	 */
+	public long getMemoryBytes() {
+		return 4L * (fromLandmark.length + toLandmark.length + landmarks.length);
+	}
+
+	/**
+	 * Returns a string formatted as: "<i>k</i> landmarks over <i>n</i> vertices, built in <i>t</i> ms, using <i>m</i> KiB".
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d landmarks over %d vertices, built in %.1f ms, using %d KiB", landmarks.length,
+								vertexCount, buildTimeNanos / 1e6, (getMemoryBytes() + 1023) / 1024);
+	}
+
+	/**
+	 * Gets a lower bound on the length of the shortest path from a vertex to a target vertex. The bound
+	 * is consistent: for an edge from <i>u</i> to <i>v</i> with weight <i>w</i>, the bound of <i>u</i>
+	 * is never more than <i>w</i> plus the bound of <i>v</i>. So an A* search using it settles every
+	 * vertex only once, just like Dijkstra's algorithm.
+	 * @param vertexIndex The index of the vertex.
+	 * @param targetIndex The index of the target vertex.
+	 * @return A lower bound on the shortest path length, or <code>Integer.MAX_VALUE</code> if the tables
+	 * show that the target cannot be reached from the vertex at all.
+	 */
+	int lowerBound(int vertexIndex, int targetIndex) {
+		int k = landmarks.length;
+		int vertexRow = vertexIndex * k;
+		int targetRow = targetIndex * k;
+		int bound = 0;
+
+		for(int i = 0; i < k; i++) {
+			int landmarkToVertex = fromLandmark[vertexRow + i];
+			int landmarkToTarget = fromLandmark[targetRow + i];
+			int vertexToLandmark = toLandmark[vertexRow + i];
+			int targetToLandmark = toLandmark[targetRow + i];
+
+			// d(v, t) >= d(L, t) - d(L, v); if L reaches v but not t, then v cannot reach t either
+			if(landmarkToTarget != UNREACHABLE) {
+				if(landmarkToVertex != UNREACHABLE)
+					bound = Math.max(bound, landmarkToTarget - landmarkToVertex);
+			} else if(landmarkToVertex != UNREACHABLE)
+				return UNREACHABLE;
+
+			// d(v, t) >= d(v, L) - d(t, L); if t reaches L but v does not, then v cannot reach t either
+			if(targetToLandmark != UNREACHABLE) {
+				if(vertexToLandmark == UNREACHABLE)
+					return UNREACHABLE;
+				bound = Math.max(bound, vertexToLandmark - targetToLandmark);
+			}
+		}
+
+		return bound;
+	}
+
+	/**
+	 * Checks if the tables of this index stay exact after inserting the given edge, which is the case
+	 * when the edge is not a shortcut to or from any landmark. If it is, some path lengths in the tables
+	 * would become too long and the bounds could overestimate, so the index has to be rebuilt.
+	 * @param sourceIndex The index of the source vertex of the new edge.
+	 * @param targetIndex The index of the target vertex of the new edge.
+	 * @param weight The weight of the new edge.
+	 * @return True if this index can still be used after inserting the edge, false otherwise.
+	 */
+	boolean acceptsEdge(int sourceIndex, int targetIndex, int weight) {
+		int k = landmarks.length;
+
+		for(int i = 0; i < k; i++) {
+			long landmarkToSource = fromLandmark[sourceIndex * k + i];
+			long targetToLandmark = toLandmark[targetIndex * k + i];
+
+			if(landmarkToSource != UNREACHABLE && landmarkToSource + weight < fromLandmark[targetIndex * k + i])
+				return false;
+			if(targetToLandmark != UNREACHABLE && targetToLandmark + weight < toLandmark[sourceIndex * k + i])
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets a copy of this index covering one more vertex, which has no edges yet and so is unreachable
+	 * from and cannot reach every landmark. The tables have room for more vertices than they cover, all
+	 * of them unreachable, and the copy shares them with this index as long as there is room left, since
+	 * no entry is ever written once the tables are built. Once there is none, the copy gets tables with
+	 * room for twice as many vertices, so adding vertices one at a time costs constant time per vertex.
+	 * @return A new <code>LandmarkIndex</code> object covering the new vertex too.
+	 */
+	LandmarkIndex withVertexAdded() {
+		int k = landmarks.length;
+		int newCapacity = capacity;
+		int[] newFromLandmark = fromLandmark;
+		int[] newToLandmark = toLandmark;
+
+		if(vertexCount == capacity) {
+			newCapacity = Math.max(16, capacity * 2);
+			newFromLandmark = Arrays.copyOf(fromLandmark, newCapacity * k);
+			newToLandmark = Arrays.copyOf(toLandmark, newCapacity * k);
+			Arrays.fill(newFromLandmark, vertexCount * k, newFromLandmark.length, UNREACHABLE);
+			Arrays.fill(newToLandmark, vertexCount * k, newToLandmark.length, UNREACHABLE);
+		}
+		return new LandmarkIndex(landmarks, vertexCount + 1, newCapacity, newFromLandmark, newToLandmark, buildTimeNanos);
+	}
+}
@@ -0,0 +1,240 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class stores the edges of a graph in fixed-size pages, so that a copy with a few rows replaced
+ * can share almost everything with the original, see {@link #withRows(int, int[], int[][], int[][], int[])}.
+ * The start and end of the row of every vertex are kept in pages of 1024 vertices, and the target and
+ * weight of every edge side by side in pages of 4096 edges, each found through a page table. A row is
+ * still one run of consecutive edge ids, but rows are not kept in the order of their vertices: a
+ * replaced row is appended after the last edge, and the edges it had before are left unused.
+ * <p>
+ * Replacing rows copies the page table of the rows and the pages of the rows replaced, and writes the
+ * new rows past the end of the edges, into pages shared with the original. That is safe since the
+ * original never reads past its own end, and only one copy of an adjacency may append to the pages
+ * it shares; any other copy appends to pages of its own. Once more edges are unused than used, the
+ * edges are laid out again from scratch, in the order of their vertices, so the unused edges never
+ * cost more than the edges themselves and a search reads the rows of neighboring vertices close
+ * together again.
+ * <p>
+ * Objects of this class are immutable once constructed.
+ * @author Joel Tengco
+ *
+ */
+final class PagedAdjacency extends Adjacency {
+	private static final int ROW_PAGE_SHIFT = 10;
+	private static final int ROW_PAGE_SIZE = 1 << ROW_PAGE_SHIFT;
+	private static final int EDGE_PAGE_SHIFT = 12;
+	private static final int EDGE_PAGE_SIZE = 1 << EDGE_PAGE_SHIFT;
+
+	private final int vertexCount;
+	private final int edgeCount;			// edges in use
+	private final int edgeEnd;				// one past the last edge id given out, in use or not
+	private final int[][] rowPages;			// start and end of the row of each vertex, two per vertex
+	private final int[][] edgePages;		// target and weight of each edge, shared with the copies of this adjacency
+	private final AtomicInteger sharedEnd;	// end of the edges of the copy that may append to the shared pages
+
+	/**
+	 * Constructs a new <code>PagedAdjacency</code> object from already built pages, which are used as is.
+	 */
+	private PagedAdjacency(int vertexCount, int edgeCount, int edgeEnd, int[][] rowPages, int[][] edgePages,
+							AtomicInteger sharedEnd) {
+		this.vertexCount = vertexCount;
+		this.edgeCount = edgeCount;
+		this.edgeEnd = edgeEnd;
+		this.rowPages = rowPages;
+		this.edgePages = edgePages;
+		this.sharedEnd = sharedEnd;
+	}
+
+	/**
+	 * Copies the given adjacency into pages, with its rows in the order of their vertices.
+	 * @param edges The adjacency to copy.
+	 * @return A new <code>PagedAdjacency</code> object holding the same edges.
+	 */
+	static PagedAdjacency of(Adjacency edges) {
+		return layOut(edges.vertexCount(), edges, new int[0], null, null, null);
+	}
+
+	/**
+	 * Gets a copy of this adjacency with the rows of some vertices replaced, and possibly with more
+	 * vertices, as {@link Adjacency#withRows(int, int[], int[][], int[][], int[])} does. The copy is kept
+	 * in pages, and shares every page but those of the rows replaced with this adjacency, so the cost is
+	 * that of the new rows plus a copy of the page tables, rather than of the whole graph.
+	 */
+	@Override
+	PagedAdjacency withRows(int vertexCount, int[] rows, int[][] rowTargets, int[][] rowWeights, int[] rowSizes) {
+		int newEdgeCount = edgeCount;
+		int newEdgeEnd = edgeEnd;
+		int[][] newRowPages;
+		int[][] newEdgePages = edgePages;
+		AtomicInteger newSharedEnd = sharedEnd;
+
+		for(int k = 0; k < rows.length; k++) {
+			newEdgeCount += rowSizes[k] - (rows[k] < this.vertexCount ? rowEnd(rows[k]) - rowStart(rows[k]) : 0);
+			newEdgeEnd += rowSizes[k];
+		}
+		// lay everything out again once the unused edges outnumber the used ones
+		if((long) newEdgeEnd - newEdgeCount > newEdgeCount || newEdgeEnd < 0)
+			return layOut(vertexCount, this, rows, rowTargets, rowWeights, rowSizes);
+
+		// append to the shared pages only if no other copy has, otherwise start pages of this copy's own
+		if(!sharedEnd.compareAndSet(edgeEnd, newEdgeEnd)) {
+			int lastPage = (edgeEnd - 1) >> EDGE_PAGE_SHIFT;
+			newEdgePages = Arrays.copyOf(edgePages, edgePages.length);
+			if(lastPage >= 0 && (edgeEnd & (EDGE_PAGE_SIZE - 1)) != 0)
+				newEdgePages[lastPage] = newEdgePages[lastPage].clone();
+			Arrays.fill(newEdgePages, lastPage + 1, newEdgePages.length, null);
+			newSharedEnd = new AtomicInteger(newEdgeEnd);
+		}
+		if(newEdgeEnd > 0 && ((newEdgeEnd - 1) >> EDGE_PAGE_SHIFT) >= newEdgePages.length)
+			newEdgePages = Arrays.copyOf(newEdgePages, Math.max(((newEdgeEnd - 1) >> EDGE_PAGE_SHIFT) + 1, newEdgePages.length * 2));
+
+		// the row pages are never written once shared, so each page touched is copied first
+		newRowPages = Arrays.copyOf(rowPages, pageCount(vertexCount, ROW_PAGE_SHIFT));
+		for(int p = rowPages.length; p < newRowPages.length; p++)
+			newRowPages[p] = new int[2 * ROW_PAGE_SIZE];
+		int copiedPage = -1;
+		int position = edgeEnd;
+		for(int k = 0; k < rows.length; k++) {
+			int page = rows[k] >> ROW_PAGE_SHIFT;
+			int slot = (rows[k] & (ROW_PAGE_SIZE - 1)) << 1;
+
+			if(page != copiedPage && page < rowPages.length) {
+				newRowPages[page] = newRowPages[page].clone();
+				copiedPage = page;
+			}
+			put(newEdgePages, position, rowTargets[k], rowWeights[k], rowSizes[k]);
+			newRowPages[page][slot] = position;
+			newRowPages[page][slot + 1] = position + rowSizes[k];
+			position += rowSizes[k];
+		}
+
+		return new PagedAdjacency(vertexCount, newEdgeCount, newEdgeEnd, newRowPages, newEdgePages, newSharedEnd);
+	}
+
+	/**
+	 * Lays out the rows of the given adjacency in new pages, in the order of their vertices, with the
+	 * rows of some vertices replaced.
+	 * @param vertexCount The number of vertices of the new adjacency, at least that of the given one.
+	 * @param edges The adjacency to take the rows not replaced from.
+	 * @param rows The vertices whose rows are replaced, in ascending order.
+	 * @param rowTargets The target of each edge of each new row.
+	 * @param rowWeights The weight of each edge of each new row.
+	 * @param rowSizes The number of edges of each new row.
+	 * @return A new <code>PagedAdjacency</code> object, sharing nothing with the given adjacency.
+	 */
+	private static PagedAdjacency layOut(int vertexCount, Adjacency edges, int[] rows, int[][] rowTargets,
+											int[][] rowWeights, int[] rowSizes) {
+		int[][] rowPages = new int[pageCount(vertexCount, ROW_PAGE_SHIFT)][2 * ROW_PAGE_SIZE];
+		int newEdgeCount = 0;
+		int[][] edgePages;
+		int[] rowTargetBuffer = new int[16];
+		int[] rowWeightBuffer = new int[16];
+		int k = 0;
+
+		for(int v = 0, j = 0; v < vertexCount; v++) {
+			if(j < rows.length && rows[j] == v)
+				newEdgeCount += rowSizes[j++];
+			else if(v < edges.vertexCount())
+				newEdgeCount += edges.rowEnd(v) - edges.rowStart(v);
+		}
+		edgePages = new int[Math.max(1, pageCount(newEdgeCount, EDGE_PAGE_SHIFT))][];
+
+		int position = 0;
+		for(int v = 0; v < vertexCount; v++) {
+			int slot = (v & (ROW_PAGE_SIZE - 1)) << 1;
+			int size;
+
+			if(k < rows.length && rows[k] == v) {
+				size = rowSizes[k];
+				put(edgePages, position, rowTargets[k], rowWeights[k], size);
+				k++;
+			} else if(v < edges.vertexCount()) {
+				size = edges.rowEnd(v) - edges.rowStart(v);
+				if(size > rowTargetBuffer.length) {
+					rowTargetBuffer = new int[Math.max(size, rowTargetBuffer.length * 2)];
+					rowWeightBuffer = new int[rowTargetBuffer.length];
+				}
+				edges.copyEdges(edges.rowStart(v), size, rowTargetBuffer, rowWeightBuffer, 0);
+				put(edgePages, position, rowTargetBuffer, rowWeightBuffer, size);
+			} else
+				size = 0;
+
+			rowPages[v >> ROW_PAGE_SHIFT][slot] = position;
+			rowPages[v >> ROW_PAGE_SHIFT][slot + 1] = position + size;
+			position += size;
+		}
+
+		return new PagedAdjacency(vertexCount, newEdgeCount, newEdgeCount, rowPages, edgePages, new AtomicInteger(newEdgeCount));
+	}
+
+	/**
+	 * Writes a run of edges into the given pages from the given edge id on, allocating pages as needed.
+	 */
+	private static void put(int[][] edgePages, int position, int[] targets, int[] weights, int count) {
+		for(int i = 0; i < count; i++) {
+			int page = (position + i) >> EDGE_PAGE_SHIFT;
+			int slot = ((position + i) & (EDGE_PAGE_SIZE - 1)) << 1;
+
+			if(edgePages[page] == null)
+				edgePages[page] = new int[2 * EDGE_PAGE_SIZE];
+			edgePages[page][slot] = targets[i];
+			edgePages[page][slot + 1] = weights[i];
+		}
+	}
+
+	/**
+	 * Gets the number of pages of the given size needed to hold the given number of entries.
+	 */
+	private static int pageCount(int count, int pageShift) {
+		return (int) (((long) count + (1 << pageShift) - 1) >> pageShift);
+	}
+
+	@Override
+	void copyEdges(int firstEdge, int edgeCount, int[] destTargets, int[] destWeights, int destPosition) {
+		for(int i = 0; i < edgeCount; i++) {
+			int[] page = edgePages[(firstEdge + i) >> EDGE_PAGE_SHIFT];
+			int slot = ((firstEdge + i) & (EDGE_PAGE_SIZE - 1)) << 1;
+
+			destTargets[destPosition + i] = page[slot];
+			destWeights[destPosition + i] = page[slot + 1];
+		}
+	}
+
+	@Override
+	int vertexCount() {
+		return vertexCount;
+	}
+
+	@Override
+	int edgeCount() {
+		return edgeCount;
+	}
+
+	@Override
+	int rowStart(int vertexIndex) {
+		return rowPages[vertexIndex >> ROW_PAGE_SHIFT][(vertexIndex & (ROW_PAGE_SIZE - 1)) << 1];
+	}
+
+	@Override
+	int rowEnd(int vertexIndex) {
+		return rowPages[vertexIndex >> ROW_PAGE_SHIFT][((vertexIndex & (ROW_PAGE_SIZE - 1)) << 1) + 1];
+	}
+
+	@Override
+	int target(int edge) {
+		return edgePages[edge >> EDGE_PAGE_SHIFT][(edge & (EDGE_PAGE_SIZE - 1)) << 1];
+	}
+
+	@Override
+	int weight(int edge) {
+		return edgePages[edge >> EDGE_PAGE_SHIFT][((edge & (EDGE_PAGE_SIZE - 1)) << 1) + 1];
+	}
+}
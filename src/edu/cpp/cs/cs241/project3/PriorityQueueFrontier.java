@@ -0,0 +1,71 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.PriorityQueue;
+
+/**
+ * This class is a lazy {@link Frontier} backed by a <code>java.util.PriorityQueue</code>. Every offer
+ * adds a new element to the queue, even when the vertex is already waiting, so the queue may hold
+ * stale entries that the search has to skip.
+ * @author Joel Tengco
+ *
+ */
+final class PriorityQueueFrontier implements Frontier {
+	private final PriorityQueue<PQElement> queue;
+	
+	/**
+	 * Constructs a new, empty <code>PriorityQueueFrontier</code> object.
+	 */
+	PriorityQueueFrontier() {
+		queue = new PriorityQueue<PQElement>();
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+	
+	@Override
+	public void offer(int vertexIndex, int key) {
+		queue.add(new PQElement(vertexIndex, key));
+	}
+	
+	@Override
+	public int peekKey() {
+		return queue.peek().pathLength;
+	}
+	
+	@Override
+	public int poll() {
+		return queue.remove().vertexIndex;
+	}
+	
+	@Override
+	public void clear() {
+		queue.clear();
+	}
+	
+	/**
+	 * Used to represent the elements in the priority queue, being a vertex along with the
+	 * path length it was offered with.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class PQElement implements Comparable<PQElement> {
+		private int vertexIndex;
+		private int pathLength;
+		
+		public PQElement(int vertexIndex, int pathLength) {
+			this.vertexIndex = vertexIndex;
+			this.pathLength = pathLength;
+		}
+		
+		@Override
+		public int compareTo(PQElement o) {
+			return Integer.compare(pathLength, o.pathLength);
+		}
+	}
+}
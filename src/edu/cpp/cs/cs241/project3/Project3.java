@@ -5,11 +5,20 @@
 package edu.cpp.cs.cs241.project3;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
 import java.util.StringTokenizer;
 
 /**
@@ -23,6 +32,22 @@ import java.util.StringTokenizer;
  * <p>
  * <b>"road.dat" format:</b> for each line in the file, [sourceVertex targetVertex weight] all integers, with the vertices being its number
  * in the graph, for example sourceVertex 1 is the first vertex in the graph, 2 for second and so on.
+ * <p>
+ * Run with <code>-batch [pairsFile] [-out resultsFile] [-unordered] [-times] [-offheap | -reorder] [-graph graphFile]</code>, the program
+ * instead finds the shortest path between every pair of city codes in the pairs file, or standard
+ * input if there is none or it is "-", in parallel through a {@link BatchRouter}, and writes the
+ * results to the results file or standard output. The timing summary is printed to standard error.
+ * With <code>-offheap</code>, the graph is searched from a copy in native memory, see
+ * {@link GraphFile#copyOffHeap(CompactDigraph)}. With <code>-reorder</code>, the frozen graph lays out
+ * its vertices in {@linkplain VertexOrdering#REVERSE_CUTHILL_MCKEE reverse Cuthill-McKee} order. The two
+ * cannot be combined, since the off-heap copy keeps its cities in the order of their indices.
+ * With <code>-graph</code>, the graph is mapped from a graph file written by {@link GraphFile} instead
+ * of being read from "city.dat" and "road.dat", which lets the batch start answering right away however
+ * large the graph is; the file is searched in place, so this cannot be combined with <code>-offheap</code>
+ * or <code>-reorder</code>.
+ * <p>
+ * Run with <code>-replay [scriptFile] [-out resultsFile]</code>, the program replays the commands of
+ * the script file, or standard input, without prompting, such as a log of road changes to apply.
  * @author Joel Tengco
  * 
  */
@@ -38,98 +63,33 @@ public class Project3 {
 	 * @throws IOException If an input/output exception has occurred.
 	 */
 	private void initializeData() throws FileNotFoundException, IOException {
-		// file input variables
-		BufferedReader br;
-		FileReader fr;
-		File file;
-		// data input variables
-		String inputString;
-		StringTokenizer tokenizer;
-		String temp = null;
-		// graph construction variables
-		ArrayList<City> initialCities;
-		int cityNumber;
-		String cityCode;
-		String cityName;
-		int cityPop;
-		int cityElev;
-		
-		// read data from file "city.dat"
-		file = new File("city.dat");
-		if(!file.exists())
-			throw new FileNotFoundException("Error: city.dat file not found");
-		
-		fr = new FileReader(file);
-		br = new BufferedReader(fr);
-		initialCities = new ArrayList<City>();
-		
-		inputString = br.readLine();
-		while(inputString != null && !inputString.equals("")) {
-            tokenizer = new StringTokenizer(inputString);
-            
-            cityNumber = Integer.parseInt(tokenizer.nextToken());
-            cityCode = tokenizer.nextToken();
-            cityName = tokenizer.nextToken();
-            
-            /*
-             * keep attempting to parse the next token;
-             * 	if an exception is thrown, then the next token
-             * 	must have been part of the city name
-             */
-            do {
-            	try {
-            		temp = tokenizer.nextToken();
-            		cityPop = Integer.parseInt(temp);
-            		break;
-            	} catch(NumberFormatException nfe) {
-            		cityName = cityName + " " + temp;
-            	}
-            } while(true);
-            
-            cityElev = Integer.parseInt(tokenizer.nextToken());
-            initialCities.add(new City(cityNumber, cityCode, cityName, cityPop, cityElev));
-            inputString = br.readLine();
-		}
-		
-		// construct graph containing City objects as its vertices
-		graph = new Digraph<City>(initialCities.toArray(new City[initialCities.size()]));
-		
-		br.close();
-		// end read data from file "city.dat"
-		
-		
-		// read data from file "road.dat"
-		file = new File("road.dat");
-		if(!file.exists())
-            throw new FileNotFoundException("Error: road.dat file not found");
-		
-		fr = new FileReader(file);
-		br = new BufferedReader(fr);
-		
-		inputString = br.readLine();
-		while(inputString != null && !inputString.equals("")) {
-            tokenizer = new StringTokenizer(inputString);
-            graph.addEdge(Integer.parseInt(tokenizer.nextToken()) - 1,		// source vertex index
-                            Integer.parseInt(tokenizer.nextToken()) - 1,	// target vertex index
-                            Integer.parseInt(tokenizer.nextToken()));		// weight for that edge
-            
-            inputString = br.readLine();
-		}
-		
-		br.close();
-		// end read data from file "road.dat"
+		DataFileLoader loader = new DataFileLoader();
+		
+		graph = loader.load(new File("city.dat"), new File("road.dat"));
+		// malformed lines were skipped, so say which ones
+		for(String error : loader.getErrors())
+			System.err.println("Warning: " + error);
+		
+		// search from both ends for the D command
+		graph.setSearchMode(SearchMode.BIDIRECTIONAL);
+		// remember the routes asked for most, until the next I or R command
+		graph.setRouteCache(new RouteCache(1024, EvictionPolicy.W_TINY_LFU));
+		// build the compact view of the graph now, rather than on the first query
+		graph.freeze();
 	}
 	
 	/**
 	 * Initializes the user interface object with the necessary prompt and options for the user.
+	 * @param ui The user interface to initialize, with the prompt message "Command?".
 	 */
-	private void initializeUI() {
-		// build the user interface with the following prompt message and options
-		ui = new UI("Command?");
+	private void initializeUI(UI ui) {
+		// build the user interface with the following options
+		this.ui = ui;
 		ui.addOption('Q', "Query the city information by entering the city code.");
 		ui.addOption('D', "Find the minimum distance between two cities.");
 		ui.addOption('I', "Insert a road by entering two city codes and distance.");
 		ui.addOption('R', "Remove an existing road by entering two city codes.");
+		ui.addOption('S', "Display the statistics of the searches so far.");
 		ui.addOption('H', "Display this message.");
 		ui.addOption('E', "Exit.");
 	}
@@ -146,6 +106,8 @@ public class Project3 {
 		
 		ui.printPrompt("City Code:");
 		userInput = ui.getUserInput(1);
+		if(userInput == null)
+			return;
 		tokenizer = new StringTokenizer(userInput);
 		targetCode = tokenizer.nextToken();
 		vertexIndex = graph.getVertexIndex(new City(targetCode));
@@ -170,12 +132,14 @@ public class Project3 {
 		int sourceIndex;
 		int targetIndex;
 		// graph info variables
-		int[] pathInfo = null;
-		String[] pathCityCodes;
-		String result;
+		ShortestPath path;
+		PrimitiveIterator.OfInt pathVertices;
+		StringBuilder result;
 		
 		ui.printPrompt("City codes:");
 		userInput = ui.getUserInput(2);
+		if(userInput == null)
+			return;
 		tokenizer = new StringTokenizer(userInput);
 		cityCode1 = tokenizer.nextToken();
 		cityCode2 = tokenizer.nextToken();
@@ -193,30 +157,27 @@ public class Project3 {
 			return;
 		}
 		
-		// get an integer array containing the shortest path length along with the path in vertex indices
+		// get the shortest path, holding its length along with the path in vertex indices
 		try {
-			pathInfo = graph.getShortestPath(sourceIndex, targetIndex);
+			path = graph.findShortestPath(sourceIndex, targetIndex);
 		} catch(IllegalArgumentException iae) {
 			ui.printError(iae.getMessage());
 			return;
 		}
 		
-		pathCityCodes = new String[pathInfo.length - 1];
-		for(int i = 1; i < pathInfo.length; i++)
-			pathCityCodes[i - 1] = graph.getVertex(pathInfo[i]).getCityCode();
+		result = new StringBuilder(String.format("The minimum distance between %s and %s is %d through the route: ",
+													graph.getVertex(sourceIndex).getCityName(),
+													graph.getVertex(targetIndex).getCityName(), path.getLength()));
 		
-		result = String.format("The minimum distance between %s and %s is %d through the route: ",
-								graph.getVertex(sourceIndex).getCityName(),
-								graph.getVertex(targetIndex).getCityName(), pathInfo[0]);
+		// append the city code of each vertex on the path to the result
+		pathVertices = path.iterator();
+		result.append(graph.getVertex(pathVertices.nextInt()).getCityCode());
+		while(pathVertices.hasNext())
+			result.append(", ").append(graph.getVertex(pathVertices.nextInt()).getCityCode());
+		result.append('.');
 		
-		// concatenate the path sequence to the result string
-		result = result.concat(pathCityCodes[0]);
-		for(int i = 1; i < pathCityCodes.length; i++)
-			result = result.concat(", " + pathCityCodes[i]);
-		result = result.concat(".");
-		
-		// print the final resulting string to screen
-		ui.printToScreen(result);
+		// print the final result to screen
+		ui.printToScreen(result.toString());
 	}
 	
 	/**
@@ -238,6 +199,8 @@ public class Project3 {
 		
 		ui.printPrompt("City codes and distance:");
 		userInput = ui.getUserInput(3);
+		if(userInput == null)
+			return;
 		tokenizer = new StringTokenizer(userInput);
 		
 		cityCode1 = tokenizer.nextToken();
@@ -297,6 +260,8 @@ public class Project3 {
 		
 		ui.printPrompt("City codes:");
 		userInput = ui.getUserInput(2);
+		if(userInput == null)
+			return;
 		tokenizer = new StringTokenizer(userInput);
 		
 		cityCode1 = tokenizer.nextToken();
@@ -326,6 +291,39 @@ public class Project3 {
 		}
 	}
 	
+	/**
+	 * Executes the S command of this program, which is to display the time and work taken by the
+	 * searches of each search mode used so far, as recorded by {@link SearchStatistics}. Routes found
+	 * in the route cache take no search, and so are not counted.
+	 */
+	private void execSCommand() {
+		boolean searched = false;
+		
+		for(SearchMode mode : SearchMode.values()) {
+			SearchStatistics statistics = SearchStatistics.get(mode);
+			if(statistics.getSearchCount() > 0) {
+				ui.printToScreen(statistics.toString());
+				searched = true;
+			}
+		}
+		
+		if(!searched)
+			ui.printToScreen("No searches have been run yet.");
+	}
+	
+	/**
+	 * Starts recording the statistics of the searches for the S command, and makes them available
+	 * through JMX as well. The program goes on without JMX if they cannot be registered.
+	 */
+	private void initializeStatistics() {
+		SearchStatistics.setEnabled(true);
+		try {
+			SearchStatistics.registerMBeans();
+		} catch(Exception e) {
+			System.err.println("Warning: " + e.getMessage());
+		}
+	}
+	
 	/**
 	 * Starts the program, and then prompts the user for a command and executes it accordingly,
 	 * until the user opts to exit the program.
@@ -341,8 +339,57 @@ public class Project3 {
 			System.exit(1);
 		}
 		
-		initializeUI();			// build the user interface
+		initializeUI(new UI("Command?"));	// build the user interface
+		initializeStatistics();				// record the searches for the S command
+		runCommands();
+	}
+	
+	/**
+	 * Reads the data files, and then replays a script of Q, D, I and R commands without prompting,
+	 * as described in {@link UI}, writing all output to one buffered writer. A summary of the number of
+	 * commands, their throughput and the number of errors is printed to standard error at the end.
+	 * @param options The command line arguments following "-replay".
+	 */
+	public void startReplay(String[] options) {
+		String scriptFile = "-";
+		String resultsFile = null;
+		
+		for(int i = 0; i < options.length; i++) {
+			if(options[i].equals("-out") && i + 1 < options.length)
+				resultsFile = options[++i];
+			else if(i == 0 && !options[i].startsWith("-") || options[i].equals("-"))
+				scriptFile = options[i];
+			else {
+				System.err.println("Usage: Project3 -replay [scriptFile] [-out resultsFile]");
+				System.exit(1);
+			}
+		}
 		
+		try {
+			initializeData();	// read input files and store its data
+			
+			InputStream in = scriptFile.equals("-") ? System.in : new FileInputStream(scriptFile);
+			OutputStream out = resultsFile == null ? System.out : new FileOutputStream(resultsFile);
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+				Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 20)) {
+				initializeUI(new UI("Command?", reader, writer));
+				initializeStatistics();
+				runCommands();
+				System.err.println(ui.getScriptSummary());
+			}
+		} catch(FileNotFoundException fnfe) {
+			System.err.println(fnfe.getMessage());
+			System.exit(1);
+		} catch(Exception e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Gets a command from the user interface and executes it accordingly, until the exit command.
+	 */
+	private void runCommands() {
 		// main loop, will only return once the user opts to exit with 'e' or 'E'
 		do {
 			ui.promptUser();
@@ -363,6 +410,10 @@ public class Project3 {
 			case 'r':
 				execRCommand();
 				break;
+			// display the search statistics
+			case 's':
+				execSCommand();
+				break;
 			// display the help message
 			case 'h':
 				ui.printHelp();
@@ -374,12 +425,109 @@ public class Project3 {
 		} while(true);
 	}
 	
+	/**
+	 * Reads the data files, or maps the graph file if one is given, and then routes every pair of city
+	 * codes given in the batch options, without prompting the user.
+	 * @param options The command line arguments following "-batch".
+	 */
+	public void startBatch(String[] options) {
+		String pairsFile = "-";
+		String resultsFile = null;
+		boolean ordered = true;
+		boolean timed = false;
+		boolean offHeap = false;
+		boolean reordered = false;
+		String graphFile = null;
+		
+		for(int i = 0; i < options.length; i++) {
+			if(options[i].equals("-out") && i + 1 < options.length)
+				resultsFile = options[++i];
+			else if(options[i].equals("-unordered"))
+				ordered = false;
+			else if(options[i].equals("-times"))
+				timed = true;
+			else if(options[i].equals("-offheap"))
+				offHeap = true;
+			else if(options[i].equals("-reorder"))
+				reordered = true;
+			else if(options[i].equals("-graph") && i + 1 < options.length)
+				graphFile = options[++i];
+			else if(i == 0 && !options[i].startsWith("-") || options[i].equals("-"))
+				pairsFile = options[i];
+			else
+				exitWithBatchUsage();
+		}
+		// a mapped graph file is already off the heap, and laid out in the order of its cities
+		if(graphFile != null && (offHeap || reordered))
+			exitWithBatchUsage();
+		// the off-heap copy is laid out in the order of the cities too, whatever the frozen graph's order
+		if(offHeap && reordered)
+			exitWithBatchUsage();
+		
+		try {
+			BatchRouter router;
+			
+			if(graphFile != null) {
+				// nothing is parsed: the sections of the file are read in place as the searches touch them
+				BinaryCityGraph mappedGraph = GraphFile.map(new File(graphFile));
+				router = new BatchRouter(mappedGraph, mappedGraph::getVertexIndex, SearchMode.BIDIRECTIONAL,
+											Runtime.getRuntime().availableProcessors());
+			} else if(offHeap) {
+				initializeData();	// read input files and store its data
+				// move the graph into native memory, and let the heap copy go
+				BinaryCityGraph offHeapGraph = GraphFile.copyOffHeap(graph.freeze());
+				graph = null;
+				router = new BatchRouter(offHeapGraph, offHeapGraph::getVertexIndex, SearchMode.BIDIRECTIONAL,
+											Runtime.getRuntime().availableProcessors());
+			} else {
+				initializeData();	// read input files and store its data
+				if(reordered)
+					graph.setVertexOrdering(VertexOrdering.REVERSE_CUTHILL_MCKEE);
+				router = new BatchRouter(graph.freeze(), graph::getVertexIndex, SearchMode.BIDIRECTIONAL,
+											Runtime.getRuntime().availableProcessors());
+			}
+			router.setOrdered(ordered);
+			router.setTimed(timed);
+			
+			InputStream in = pairsFile.equals("-") ? System.in : new FileInputStream(pairsFile);
+			OutputStream out = resultsFile == null ? System.out : new FileOutputStream(resultsFile);
+			// large buffers, so the results go out in few writes however many there are
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+				Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 20)) {
+				router.run(reader, writer);
+			}
+			System.err.println(router.getSummary());
+		} catch(FileNotFoundException fnfe) {
+			System.err.println(fnfe.getMessage());
+			System.exit(1);
+		} catch(Exception e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Prints the options of batch mode and exits.
+	 */
+	private static void exitWithBatchUsage() {
+		System.err.println("Usage: Project3 -batch [pairsFile] [-out resultsFile] [-unordered] [-times] "
+							+ "[-offheap | -reorder] [-graph graphFile]");
+		System.exit(1);
+	}
+	
 	/**
 	 * Entry point for the program.
-	 * @param args Currently does not pertain to this program.
+	 * @param args Empty to run interactively, "-batch" followed by its options to route pairs of
+	 * city codes in bulk, or "-replay" followed by its options to replay a script of commands; see
+	 * the class description.
 	 */
 	public static void main(String[] args) {
 		Project3 program = new Project3();
-		program.start();
+		if(args.length > 0 && args[0].equals("-batch"))
+			program.startBatch(Arrays.copyOfRange(args, 1, args.length));
+		else if(args.length > 0 && args[0].equals("-replay"))
+			program.startReplay(Arrays.copyOfRange(args, 1, args.length));
+		else
+			program.start();
 	}
 }
@@ -0,0 +1,44 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This enum lists the priority queues a shortest path search can use to pick the next vertex to settle.
+ * Edge weights are never negative, so the path lengths a search settles never go down, which the
+ * bucket based queues rely on to avoid comparing path lengths at all.
+ * @author Joel Tengco
+ *
+ */
+public enum QueueStrategy {
+	/**
+	 * A <code>java.util.PriorityQueue</code> holding one object per offer. Vertices whose path length
+	 * improves are offered again, and their old entries are skipped when they come out of the queue.
+	 */
+	PRIORITY_QUEUE,
+	/**
+	 * An indexed 4-ary heap over integer arrays. Every vertex is in the heap at most once and its
+	 * path length is lowered in place, so no objects are allocated and no stale entries are kept.
+	 */
+	INDEXED_HEAP,
+	/**
+	 * Dial's bucket queue: one bucket per path length, in a circular array as wide as the largest edge
+	 * weight. Vertices are offered and their path lengths lowered in constant time, and the next vertex
+	 * is found by stepping over empty buckets, which is fast when edge weights are small integers.
+	 */
+	DIAL_BUCKETS,
+	/**
+	 * A radix heap, which sorts waiting vertices into 32 buckets by the highest bit in which their path
+	 * length differs from the last one settled. Vertices whose path length improves are offered again,
+	 * as with {@link #PRIORITY_QUEUE}, but into integer arrays, and each entry is moved at most 32 times
+	 * whatever the edge weights.
+	 */
+	RADIX_HEAP,
+	/**
+	 * Picks a queue for each search from the edges of the graph: {@link #DIAL_BUCKETS} when the largest
+	 * edge weight is small, and {@link #RADIX_HEAP} otherwise, or when searching a contraction hierarchy,
+	 * whose shortcuts can be far longer than any edge.
+	 */
+	AUTO
+}
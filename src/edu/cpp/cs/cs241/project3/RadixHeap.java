@@ -0,0 +1,124 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class is a lazy {@link Frontier} known as a radix heap. It keeps the last key polled, and puts
+ * every entry in the bucket given by the highest bit in which its key differs from that last key, so
+ * bucket 0 holds the keys equal to it and bucket <i>i</i> the keys that agree with it above bit
+ * <i>i</i> - 1. Offering an entry is a constant time append. Once bucket 0 runs out, the smallest
+ * key of the lowest bucket that is not empty becomes the last key, and that bucket's entries are
+ * spread over the buckets below it; since an entry only ever moves to a lower bucket, each is moved
+ * at most 32 times, whatever the largest edge weight.
+ * <p>
+ * The heap relies on the keys being monotone, as they are in Dijkstra's algorithm: no vertex may be
+ * offered with a key below the last key polled. Like {@link PriorityQueueFrontier}, offering a vertex
+ * already waiting adds a second entry for it, so the search must skip the stale ones, but the entries
+ * are kept in integer arrays reused from one search to the next rather than in objects.
+ * @author Joel Tengco
+ *
+ */
+final class RadixHeap implements Frontier {
+	// one bucket for keys equal to the last key, plus one per bit of a non-negative int
+	private static final int BUCKET_COUNT = 32;
+
+	private final int[][] vertices;	// vertex of each entry of each bucket
+	private final int[][] keys;		// key of each entry of each bucket
+	private final int[] counts;		// number of entries in each bucket
+	private int size;
+	private int lastKey;			// no entry has a smaller key
+
+	/**
+	 * Constructs a new, empty <code>RadixHeap</code> object.
+	 */
+	RadixHeap() {
+		vertices = new int[BUCKET_COUNT][16];
+		keys = new int[BUCKET_COUNT][16];
+		counts = new int[BUCKET_COUNT];
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an entry for the given vertex with the given key.
+	 * @throws IllegalArgumentException If the key is smaller than the last key polled.
+	 */
+	@Override
+	public void offer(int vertexIndex, int key) throws IllegalArgumentException {
+		if(key < lastKey)
+			throw new IllegalArgumentException("Keys of a radix heap must not go below the last key polled.");
+
+		add(bucketOf(key), vertexIndex, key);
+		size++;
+	}
+
+	@Override
+	public int peekKey() {
+		if(counts[0] == 0)
+			refill();
+
+		return lastKey;
+	}
+
+	@Override
+	public int poll() {
+		if(counts[0] == 0)
+			refill();
+
+		size--;
+		return vertices[0][--counts[0]];
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(counts, 0);
+		size = 0;
+		lastKey = 0;
+	}
+
+	private int bucketOf(int key) {
+		return key == lastKey ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ lastKey);
+	}
+
+	private void add(int bucket, int vertexIndex, int key) {
+		int count = counts[bucket];
+
+		if(count == vertices[bucket].length) {
+			vertices[bucket] = Arrays.copyOf(vertices[bucket], count * 2);
+			keys[bucket] = Arrays.copyOf(keys[bucket], count * 2);
+		}
+		vertices[bucket][count] = vertexIndex;
+		keys[bucket][count] = key;
+		counts[bucket] = count + 1;
+	}
+
+	/**
+	 * Makes the smallest key waiting the last key, and moves the entries of the lowest bucket that is
+	 * not empty to the buckets below it, so that bucket 0 holds at least one entry.
+	 */
+	private void refill() {
+		int bucket = 1;
+		int count;
+		int minKey = Integer.MAX_VALUE;
+
+		while(counts[bucket] == 0)
+			bucket++;
+
+		count = counts[bucket];
+		for(int i = 0; i < count; i++)
+			minKey = Math.min(minKey, keys[bucket][i]);
+		lastKey = minKey;
+
+		// the bucket is emptied first, since none of its entries can land in it again
+		counts[bucket] = 0;
+		for(int i = 0; i < count; i++)
+			add(bucketOf(keys[bucket][i]), vertices[bucket][i], keys[bucket][i]);
+	}
+}
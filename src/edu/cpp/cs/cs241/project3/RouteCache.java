@@ -0,0 +1,309 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class represents a bounded cache of shortest paths, keyed by their source and target vertex
+ * indices, placed in front of the searches of a {@link Digraph} with {@link Digraph#setRouteCache(RouteCache)}.
+ * <p>
+ * The cache remembers the version of the graph its routes were found in. Every change to the graph
+ * bumps its version, so the first lookup after a change empties the cache rather than handing out a
+ * route that may no longer be the shortest. Once the cache is full, routes are evicted according to its
+ * {@link EvictionPolicy}. The hit, miss and eviction counts help to pick a good capacity.
+ * <p>
+ * A pair of vertices with no route between them is cached as well, as {@link #UNREACHABLE}, so that
+ * asking again for a route that does not exist is a hit rather than another search of the whole graph.
+ * <p>
+ * Like <code>Digraph</code>, this class is not thread-safe, and a cache must not be shared by two graphs.
+ * @author Joel Tengco
+ *
+ */
+public final class RouteCache {
+	/**
+	 * Cached in place of the route from one vertex to another when the target is unreachable from the source.
+	 */
+	static final ShortestPath UNREACHABLE = new ShortestPath(-1, new int[] { -1 });
+
+	private final int capacity;
+	private final EvictionPolicy policy;
+	// both areas are kept in access order, least recently used first
+	private final LinkedHashMap<Long, ShortestPath> window;
+	private final LinkedHashMap<Long, ShortestPath> main;
+	private final int windowCapacity;
+	private final int mainCapacity;
+	private final FrequencySketch sketch;
+	private long graphVersion = Long.MIN_VALUE;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+
+	/**
+	 * Constructs a new, empty <code>RouteCache</code> object.
+	 * @param capacity The most routes this cache holds at once.
+	 * @param policy The way routes are picked for eviction once this cache is full.
+	 * @throws IllegalArgumentException If the capacity is not positive.
+	 */
+	public RouteCache(int capacity, EvictionPolicy policy) throws IllegalArgumentException {
+		if(capacity <= 0)
+			throw new IllegalArgumentException("Route cache capacity must be positive.");
+
+		this.capacity = capacity;
+		this.policy = policy;
+		if(policy == EvictionPolicy.W_TINY_LFU) {
+			// the window takes about one percent of the capacity
+			windowCapacity = Math.max(1, capacity / 100);
+			sketch = new FrequencySketch(capacity);
+		} else {
+			windowCapacity = 0;
+			sketch = null;
+		}
+		mainCapacity = capacity - windowCapacity;
+		window = new LinkedHashMap<Long, ShortestPath>(16, 0.75f, true);
+		main = new LinkedHashMap<Long, ShortestPath>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets the most routes this cache holds at once.
+	 * @return The capacity of this cache.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the way routes are picked for eviction once this cache is full.
+	 * @return The eviction policy of this cache.
+	 */
+	public EvictionPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Gets the number of routes this cache holds now.
+	 * @return The number of routes.
+	 */
+	public int size() {
+		return window.size() + main.size();
+	}
+
+	/**
+	 * Gets the number of lookups that found their route in this cache.
+	 * @return The number of hits.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Gets the number of lookups that did not find their route in this cache.
+	 * @return The number of misses.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Gets the number of routes evicted, or not admitted, to keep this cache within its capacity.
+	 * @return The number of evictions.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Gets the number of times this cache was emptied because the graph changed.
+	 * @return The number of invalidations.
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	/**
+	 * Gets the fraction of lookups that found their route in this cache.
+	 * @return The hit rate, between 0 and 1, or 0 if there were no lookups.
+	 */
+	public double getHitRate() {
+		long lookups = hitCount + missCount;
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	/**
+	 * Removes every route from this cache. The counters are kept.
+	 */
+	public void clear() {
+		window.clear();
+		main.clear();
+	}
+
+	/**
+	 * Returns a string formatted as: "<i>size</i>/<i>capacity</i> routes (<i>policy</i>), <i>h</i> hits,
+	 * <i>m</i> misses, <i>e</i> evictions, <i>i</i> invalidations".
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d/%d routes (%s), %d hits, %d misses, %d evictions, %d invalidations", size(), capacity,
+								policy, hitCount, missCount, evictionCount, invalidationCount);
+	}
+
+	/**
+	 * Looks up the route from one vertex to another.
+	 * @param sourceIndex The index of the source vertex.
+	 * @param targetIndex The index of the target vertex.
+	 * @param version The current version of the graph.
+	 * @return The cached route, {@link #UNREACHABLE} if the target is known to be unreachable from the
+	 * source, or null if there is nothing cached for the current version.
+	 */
+	ShortestPath get(int sourceIndex, int targetIndex, long version) {
+		Long key = key(sourceIndex, targetIndex);
+		ShortestPath path;
+
+		checkVersion(version);
+		if(sketch != null)
+			sketch.increment(key);
+
+		path = main.get(key);
+		if(path == null)
+			path = window.get(key);
+
+		if(path == null)
+			missCount++;
+		else
+			hitCount++;
+
+		return path;
+	}
+
+	/**
+	 * Adds the route from one vertex to another, evicting another route if this cache is full.
+	 * @param sourceIndex The index of the source vertex.
+	 * @param targetIndex The index of the target vertex.
+	 * @param version The version of the graph the route was found in.
+	 * @param path The route, or {@link #UNREACHABLE} if there is none.
+	 */
+	void put(int sourceIndex, int targetIndex, long version, ShortestPath path) {
+		Long key = key(sourceIndex, targetIndex);
+
+		checkVersion(version);
+		if(policy == EvictionPolicy.LRU) {
+			main.put(key, path);
+			if(main.size() > mainCapacity) {
+				removeEldest(main);
+				evictionCount++;
+			}
+			return;
+		}
+
+		window.put(key, path);
+		if(window.size() <= windowCapacity)
+			return;
+
+		// the route leaving the window competes with the least recently used route of the main area
+		Map.Entry<Long, ShortestPath> candidate = removeEldest(window);
+		if(main.size() < mainCapacity) {
+			main.put(candidate.getKey(), candidate.getValue());
+			return;
+		}
+
+		evictionCount++;
+		if(mainCapacity > 0) {
+			Long victim = main.keySet().iterator().next();
+			if(sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+				main.remove(victim);
+				main.put(candidate.getKey(), candidate.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Empties this cache if the graph has changed since its routes were found.
+	 */
+	private void checkVersion(long version) {
+		if(version == graphVersion)
+			return;
+
+		if(size() > 0)
+			invalidationCount++;
+		clear();
+		graphVersion = version;
+	}
+
+	private static Long key(int sourceIndex, int targetIndex) {
+		return ((long) sourceIndex << 32) | (targetIndex & 0xFFFFFFFFL);
+	}
+
+	private static Map.Entry<Long, ShortestPath> removeEldest(LinkedHashMap<Long, ShortestPath> map) {
+		Iterator<Map.Entry<Long, ShortestPath>> iterator = map.entrySet().iterator();
+		Map.Entry<Long, ShortestPath> eldest = iterator.next();
+		// copy the entry out, since it may not be valid after it is removed
+		Map.Entry<Long, ShortestPath> copy = new AbstractMap.SimpleImmutableEntry<Long, ShortestPath>(eldest);
+
+		iterator.remove();
+		return copy;
+	}
+
+	/**
+	 * Used to estimate how often each key was looked up recently: a count-min sketch of four rows of
+	 * small counters, each key counted once per row at a hashed position, with the smallest of its four
+	 * counters as the estimate. All counters are halved every so often, so old popularity fades.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class FrequencySketch {
+		private static final int ROWS = 4;
+		private static final int MAX_COUNT = 15;
+		private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+
+		private final int[] counters;
+		private final int mask;
+		private final int sampleSize;
+		private int samples;
+
+		public FrequencySketch(int capacity) {
+			int width = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+
+			counters = new int[ROWS * width];
+			mask = width - 1;
+			sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * capacity);
+		}
+
+		public void increment(long key) {
+			for(int row = 0; row < ROWS; row++) {
+				int i = index(key, row);
+				if(counters[i] < MAX_COUNT)
+					counters[i]++;
+			}
+
+			if(++samples >= sampleSize) {
+				for(int i = 0; i < counters.length; i++)
+					counters[i] >>>= 1;
+				samples /= 2;
+			}
+		}
+
+		public int frequency(long key) {
+			int frequency = MAX_COUNT;
+
+			for(int row = 0; row < ROWS; row++)
+				frequency = Math.min(frequency, counters[index(key, row)]);
+
+			return frequency;
+		}
+
+		private int index(long key, int row) {
+			// mix every bit of the key into the low bits of the hash
+			long hash = key ^ SEEDS[row];
+			hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+			hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+			hash ^= hash >>> 31;
+			return row * (mask + 1) + (int) (hash & mask);
+		}
+	}
+}
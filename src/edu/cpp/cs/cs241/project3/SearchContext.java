@@ -0,0 +1,255 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the working state of a shortest path search, so that it can be reused from one
+ * search to the next instead of being allocated again. Each thread has its own context, obtained
+ * through {@link #get(int)}, plus a second one through {@link #getReverse(int)} for searches that
+ * also grow backward from the target.
+ * <p>
+ * Rather than clearing its arrays before every search, a context stamps each vertex it touches with
+ * the number of the current search. A vertex whose stamp is not the current one is treated as not yet
+ * reached, so starting a search takes constant time and a search only ever touches the vertices it
+ * reaches, no matter how many vertices the graph has.
+ * @author Joel Tengco
+ *
+ */
+final class SearchContext {
+	private static final ThreadLocal<SearchContext> CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+	private static final ThreadLocal<SearchContext> REVERSE_CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+	
+	private int[] pathLengths;		// tentative path length of each reached vertex
+	private int[] parents;			// vertex each reached vertex was reached from
+	private int[] potentials;		// lower bound on the remaining path length of each reached vertex
+	private int[] reachedStamps;	// search number in which each vertex was last reached
+	private int[] settledStamps;	// search number in which each vertex was last settled
+	private int stamp;
+	private IndexedMinHeap heap;
+	private PriorityQueueFrontier priorityQueue;
+	private BucketQueue bucketQueue;
+	private RadixHeap radixHeap;
+	// running totals of the work done by every search with this context, read by SearchStatistics
+	private long settledCount;
+	private long relaxedCount;
+	private long reachedCount;
+	private long staleCount;
+	
+	/**
+	 * Constructs a new, empty <code>SearchContext</code> object.
+	 */
+	private SearchContext() {
+		pathLengths = new int[0];
+		parents = new int[0];
+		potentials = new int[0];
+		reachedStamps = new int[0];
+		settledStamps = new int[0];
+		heap = new IndexedMinHeap(0);
+	}
+	
+	/**
+	 * Gets the search context of the calling thread, ready for a new search over a graph with
+	 * the given number of vertices. A thread must not start a second search while one is still
+	 * using its context.
+	 * @param vertexCount The number of vertices in the graph to be searched.
+	 * @return The calling thread's search context.
+	 */
+	static SearchContext get(int vertexCount) {
+		SearchContext context = CONTEXTS.get();
+		
+		context.begin(vertexCount);
+		return context;
+	}
+	
+	/**
+	 * Gets the second search context of the calling thread, used for the backward half of a search
+	 * that grows from both ends, ready for a new search over a graph with the given number of vertices.
+	 * @param vertexCount The number of vertices in the graph to be searched.
+	 * @return The calling thread's reverse search context.
+	 */
+	static SearchContext getReverse(int vertexCount) {
+		SearchContext context = REVERSE_CONTEXTS.get();
+		
+		context.begin(vertexCount);
+		return context;
+	}
+	
+	/**
+	 * Adds up the work done so far by every search of the calling thread, over both of its contexts.
+	 * The totals only ever grow, so the work of one search is the difference between the totals
+	 * before and after it.
+	 * @param totals Filled with the number of vertices settled, edges relaxed, vertices reached (each
+	 * of which was offered to a queue) and stale queue entries discarded, in that order.
+	 * @param offset The position in the array of the first total.
+	 */
+	static void workTotals(long[] totals, int offset) {
+		SearchContext context = CONTEXTS.get();
+		SearchContext reverseContext = REVERSE_CONTEXTS.get();
+		
+		totals[offset] = context.settledCount + reverseContext.settledCount;
+		totals[offset + 1] = context.relaxedCount + reverseContext.relaxedCount;
+		totals[offset + 2] = context.reachedCount + reverseContext.reachedCount;
+		totals[offset + 3] = context.staleCount + reverseContext.staleCount;
+	}
+	
+	/**
+	 * Starts a new search, growing the arrays of this context if the graph has more vertices than
+	 * any graph searched before.
+	 * @param vertexCount The number of vertices in the graph to be searched.
+	 */
+	private void begin(int vertexCount) {
+		if(vertexCount > reachedStamps.length) {
+			int capacity = Math.max(vertexCount, reachedStamps.length * 2);
+			
+			pathLengths = new int[capacity];
+			parents = new int[capacity];
+			potentials = new int[capacity];
+			reachedStamps = new int[capacity];
+			settledStamps = new int[capacity];
+			heap = new IndexedMinHeap(capacity);
+			bucketQueue = null;
+			stamp = 0;
+		}
+		
+		// once the stamps run out, clear them and start counting over
+		if(stamp == Integer.MAX_VALUE) {
+			Arrays.fill(reachedStamps, 0);
+			Arrays.fill(settledStamps, 0);
+			stamp = 0;
+		}
+		
+		stamp++;
+	}
+	
+	/**
+	 * Gets an empty frontier of the given strategy, reused from earlier searches where possible.
+	 * @param strategy The kind of priority queue wanted, which must not be {@link QueueStrategy#AUTO}.
+	 * @return An empty frontier.
+	 */
+	Frontier frontier(QueueStrategy strategy) {
+		Frontier frontier;
+		
+		switch(strategy) {
+		case PRIORITY_QUEUE:
+			if(priorityQueue == null)
+				priorityQueue = new PriorityQueueFrontier();
+			frontier = priorityQueue;
+			break;
+		case DIAL_BUCKETS:
+			if(bucketQueue == null)
+				bucketQueue = new BucketQueue(reachedStamps.length);
+			frontier = bucketQueue;
+			break;
+		case RADIX_HEAP:
+			if(radixHeap == null)
+				radixHeap = new RadixHeap();
+			frontier = radixHeap;
+			break;
+		default:
+			frontier = heap;
+		}
+		
+		frontier.clear();
+		return frontier;
+	}
+	
+	/**
+	 * Gets the tentative path length of the given vertex in the current search.
+	 * @param vertexIndex The index of the vertex.
+	 * @return The path length the vertex was last reached with, or <code>Integer.MAX_VALUE</code> if
+	 * it has not been reached in the current search.
+	 */
+	int pathLength(int vertexIndex) {
+		return reachedStamps[vertexIndex] == stamp ? pathLengths[vertexIndex] : Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Gets the vertex the given vertex was last reached from in the current search.
+	 * @param vertexIndex The index of a vertex reached in the current search.
+	 * @return The index of the vertex before it on its path, or -1 for the source.
+	 */
+	int parent(int vertexIndex) {
+		return parents[vertexIndex];
+	}
+	
+	/**
+	 * Records that the given vertex was reached with the given path length.
+	 * @param vertexIndex The index of the vertex.
+	 * @param pathLength The length of the path the vertex was reached with.
+	 * @param parentIndex The index of the vertex before it on the path, or -1 for the source.
+	 */
+	void reach(int vertexIndex, int pathLength, int parentIndex) {
+		reachedCount++;
+		reachedStamps[vertexIndex] = stamp;
+		pathLengths[vertexIndex] = pathLength;
+		parents[vertexIndex] = parentIndex;
+	}
+	
+	/**
+	 * Gets the potential recorded for the given vertex in the current search, see
+	 * {@link #setPotential(int, int)}.
+	 * @param vertexIndex The index of a vertex reached in the current search.
+	 * @return The potential of the vertex.
+	 */
+	int potential(int vertexIndex) {
+		return potentials[vertexIndex];
+	}
+	
+	/**
+	 * Records the potential of a reached vertex, which a goal-directed search uses as a lower bound
+	 * on the length of the rest of the path, so it only has to be worked out once per vertex.
+	 * @param vertexIndex The index of a vertex reached in the current search.
+	 * @param potential The potential of the vertex.
+	 */
+	void setPotential(int vertexIndex, int potential) {
+		potentials[vertexIndex] = potential;
+	}
+	
+	/**
+	 * Checks if the given vertex was settled in the current search.
+	 * @param vertexIndex The index of the vertex.
+	 * @return True if the vertex is settled, false otherwise.
+	 */
+	boolean isSettled(int vertexIndex) {
+		return settledStamps[vertexIndex] == stamp;
+	}
+	
+	/**
+	 * Records that the given vertex is settled, meaning its path length is final.
+	 * @param vertexIndex The index of the vertex.
+	 */
+	void settle(int vertexIndex) {
+		settledCount++;
+		settledStamps[vertexIndex] = stamp;
+	}
+	
+	/**
+	 * Counts the edges of a settled vertex, each of which the search relaxes.
+	 * @param edgeCount The number of edges of the vertex.
+	 */
+	void relax(int edgeCount) {
+		relaxedCount += edgeCount;
+	}
+	
+	/**
+	 * Counts a vertex polled from a lazy queue after it had been settled already, and thus skipped.
+	 */
+	void discardStale() {
+		staleCount++;
+	}
+	
+	/**
+	 * Follows the parents from the given vertex back to the source of the current search, and
+	 * collects the vertices on the way in order from source to target. The path is copied, since the
+	 * parents are overwritten by the next search of this context.
+	 * @param targetIndex The index of a vertex reached in the current search.
+	 * @return A new array holding the index of each vertex on the path to the target.
+	 */
+	int[] pathTo(int targetIndex) {
+		return ShortestPath.follow(targetIndex, parents);
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This enum lists the algorithms a graph can use to find the shortest path between two vertices.
+ * All of them find a path of the same, shortest length, but when several shortest paths exist
+ * they may not pick the same one.
+ * @author Joel Tengco
+ *
+ */
+public enum SearchMode {
+	/**
+	 * Dijkstra's algorithm, growing a search from the source vertex until the target is settled.
+	 */
+	DIJKSTRA,
+	/**
+	 * Dijkstra's algorithm run from both ends at once, forward from the source over outgoing edges
+	 * and backward from the target over incoming edges. The search stops once the smallest path
+	 * lengths waiting on both sides add up to no less than the best path found where the two
+	 * searches meet, which typically settles about half as many vertices.
+	 */
+	BIDIRECTIONAL,
+	/**
+	 * A* search with landmarks and the triangle inequality, see {@link LandmarkIndex}. Vertices are
+	 * settled in order of their path length plus a lower bound on the rest of the path to the target,
+	 * which steers the search toward the target. Falls back to {@link #DIJKSTRA} when the graph has
+	 * no landmarks.
+	 */
+	ALT,
+	/**
+	 * A bidirectional search over the {@link ContractionHierarchy} of the graph, which only follows
+	 * edges leading to more important vertices and so settles very few vertices. The hierarchy is
+	 * built the first time it is needed, and again after every change to the graph, which makes this
+	 * mode a good fit for many queries between few changes.
+	 */
+	CONTRACTION_HIERARCHY
+}
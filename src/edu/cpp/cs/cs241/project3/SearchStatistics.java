@@ -0,0 +1,252 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class gathers statistics of the shortest path searches run through
+ * {@link CompactDigraph#findShortestPath(int, int, QueueStrategy, SearchMode)} and
+ * {@link CompactDigraph#getShortestPathLength(int, int, QueueStrategy, SearchMode)}, and thus every
+ * search of a {@link Digraph} that its route cache does not answer, with one object per {@link SearchMode}.
+ * For each search it records the time taken and the work done: the vertices settled, the edges relaxed,
+ * the vertices pushed onto and popped from the queues, and the popped vertices discarded because they
+ * had been settled already. Times and settled vertices are kept in {@link Histogram}s, so that their
+ * percentiles show the slow searches that a mean hides, and the rest as totals.
+ * <p>
+ * Recording is off by default, and is turned on for every mode with {@link #setEnabled(boolean)}. The
+ * searches always keep count of their work in their per-thread state, which costs a few additions per
+ * vertex settled; while recording is off, the only other cost is checking whether it is on, once per
+ * search. The statistics can be watched through JMX once {@link #registerMBeans()} is called, under the
+ * names "edu.cpp.cs.cs241.project3:type=SearchStatistics,mode=<i>mode</i>".
+ * @author Joel Tengco
+ *
+ */
+public final class SearchStatistics implements SearchStatisticsMBean {
+	private static final SearchStatistics[] BY_MODE = new SearchStatistics[SearchMode.values().length];
+	// the work totals and time at the start of the calling thread's search, then at its end
+	private static final ThreadLocal<long[]> PROBES = ThreadLocal.withInitial(() -> new long[10]);
+	private static volatile boolean enabled;
+
+	private final SearchMode mode;
+	private final LongAdder unreachableCount = new LongAdder();
+	private final LongAdder relaxedCount = new LongAdder();
+	private final LongAdder pushCount = new LongAdder();
+	private final LongAdder staleCount = new LongAdder();
+	private final Histogram nanos = new Histogram();
+	private final Histogram settledVertices = new Histogram();
+
+	static {
+		for(SearchMode mode : SearchMode.values())
+			BY_MODE[mode.ordinal()] = new SearchStatistics(mode);
+	}
+
+	private SearchStatistics(SearchMode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Gets the statistics of the searches of the given mode.
+	 * @param mode The search mode.
+	 * @return The statistics of that mode.
+	 */
+	public static SearchStatistics get(SearchMode mode) {
+		return BY_MODE[mode.ordinal()];
+	}
+
+	/**
+	 * Starts or stops recording searches, for every search mode.
+	 * @param enabled True to record searches, false to stop.
+	 */
+	public static void setEnabled(boolean enabled) {
+		SearchStatistics.enabled = enabled;
+	}
+
+	/**
+	 * Checks if searches are being recorded.
+	 * @return True if searches are recorded, false otherwise.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Registers the statistics of every search mode with the platform MBean server, unless they are
+	 * registered already.
+	 * @throws JMException If the MBeans cannot be registered.
+	 */
+	public static void registerMBeans() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		for(SearchStatistics statistics : BY_MODE) {
+			ObjectName name = new ObjectName("edu.cpp.cs.cs241.project3:type=SearchStatistics,mode=" + statistics.mode.name());
+			if(!server.isRegistered(name))
+				server.registerMBean(statistics, name);
+		}
+	}
+
+	/**
+	 * Gets the statistics a search of the given mode is to be recorded in.
+	 * @param mode The search mode.
+	 * @return The statistics of that mode, or null if recording is off.
+	 */
+	static SearchStatistics recorder(SearchMode mode) {
+		return enabled ? BY_MODE[mode.ordinal()] : null;
+	}
+
+	/**
+	 * Marks the start of a search by the calling thread, which must be followed by {@link #end(boolean)}
+	 * once it is done.
+	 */
+	void begin() {
+		long[] probe = PROBES.get();
+
+		SearchContext.workTotals(probe, 0);
+		probe[4] = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of the search the calling thread started with {@link #begin()}, and records it.
+	 * @param reached True if the search found a path, false if the target was unreachable.
+	 */
+	void end(boolean reached) {
+		long[] probe = PROBES.get();
+
+		probe[9] = System.nanoTime();
+		SearchContext.workTotals(probe, 5);
+		nanos.record(probe[9] - probe[4]);
+		settledVertices.record(probe[5] - probe[0]);
+		relaxedCount.add(probe[6] - probe[1]);
+		pushCount.add(probe[7] - probe[2]);
+		staleCount.add(probe[8] - probe[3]);
+		if(!reached)
+			unreachableCount.increment();
+	}
+
+	/**
+	 * Gets the search mode these statistics are of.
+	 * @return The search mode.
+	 */
+	public SearchMode getMode() {
+		return mode;
+	}
+
+	@Override
+	public boolean isRecordingEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setRecordingEnabled(boolean enabled) {
+		setEnabled(enabled);
+	}
+
+	@Override
+	public long getSearchCount() {
+		return nanos.getCount();
+	}
+
+	@Override
+	public long getUnreachableCount() {
+		return unreachableCount.sum();
+	}
+
+	@Override
+	public double getMeanMicros() {
+		return nanos.getMean() / 1e3;
+	}
+
+	@Override
+	public double getMedianMicros() {
+		return nanos.getPercentile(0.5) / 1e3;
+	}
+
+	@Override
+	public double getPercentile90Micros() {
+		return nanos.getPercentile(0.9) / 1e3;
+	}
+
+	@Override
+	public double getPercentile99Micros() {
+		return nanos.getPercentile(0.99) / 1e3;
+	}
+
+	@Override
+	public double getPercentile999Micros() {
+		return nanos.getPercentile(0.999) / 1e3;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return nanos.getMax() / 1e3;
+	}
+
+	@Override
+	public double getMeanSettledVertices() {
+		return settledVertices.getMean();
+	}
+
+	@Override
+	public long getPercentile99SettledVertices() {
+		return settledVertices.getPercentile(0.99);
+	}
+
+	@Override
+	public double getMeanEdgeRelaxations() {
+		return perSearch(relaxedCount.sum());
+	}
+
+	@Override
+	public double getMeanQueuePushes() {
+		return perSearch(pushCount.sum());
+	}
+
+	@Override
+	public double getMeanQueuePops() {
+		// every pop either settles a vertex or discards a stale entry
+		return settledVertices.getMean() + perSearch(staleCount.sum());
+	}
+
+	@Override
+	public double getMeanStaleDiscards() {
+		return perSearch(staleCount.sum());
+	}
+
+	@Override
+	public void reset() {
+		unreachableCount.reset();
+		relaxedCount.reset();
+		pushCount.reset();
+		staleCount.reset();
+		nanos.reset();
+		settledVertices.reset();
+	}
+
+	/**
+	 * Returns a summary of these statistics, formatted as: "<i>mode</i>: <i>n</i> searches (<i>u</i>
+	 * unreachable), us mean/50%/90%/99%/99.9%/max <i>...</i>; per search settled mean <i>s</i> (99%
+	 * <i>p</i>), relaxed <i>r</i>, pushed <i>a</i>, popped <i>b</i>, stale <i>c</i>".
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: %d searches (%d unreachable), us mean/50%%/90%%/99%%/99.9%%/max %.1f/%.1f/%.1f/%.1f/%.1f/%.1f; "
+								+ "per search settled mean %.1f (99%% %d), relaxed %.1f, pushed %.1f, popped %.1f, stale %.1f",
+								mode, getSearchCount(), getUnreachableCount(), getMeanMicros(), getMedianMicros(),
+								getPercentile90Micros(), getPercentile99Micros(), getPercentile999Micros(), getMaxMicros(),
+								getMeanSettledVertices(), getPercentile99SettledVertices(), getMeanEdgeRelaxations(),
+								getMeanQueuePushes(), getMeanQueuePops(), getMeanStaleDiscards());
+	}
+
+	private double perSearch(long total) {
+		long count = nanos.getCount();
+
+		return count == 0 ? 0 : (double) total / count;
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This interface is the management interface of {@link SearchStatistics}, through which the statistics
+ * of the shortest path searches of each {@link SearchMode} can be watched from a JMX console such as
+ * JConsole or VisualVM. Times are in microseconds, and work is per search.
+ * @author Joel Tengco
+ *
+ */
+public interface SearchStatisticsMBean {
+	/**
+	 * Checks if searches are being recorded, for every search mode.
+	 * @return True if searches are recorded, false otherwise.
+	 */
+	boolean isRecordingEnabled();
+
+	/**
+	 * Starts or stops recording searches, for every search mode.
+	 * @param enabled True to record searches, false to stop.
+	 */
+	void setRecordingEnabled(boolean enabled);
+
+	/**
+	 * Gets the number of searches recorded.
+	 * @return The number of searches.
+	 */
+	long getSearchCount();
+
+	/**
+	 * Gets the number of searches recorded whose target was unreachable.
+	 * @return The number of searches that found no path.
+	 */
+	long getUnreachableCount();
+
+	/**
+	 * Gets the mean time a search took.
+	 * @return The mean time in microseconds.
+	 */
+	double getMeanMicros();
+
+	/**
+	 * Gets the median time a search took.
+	 * @return The median time in microseconds.
+	 */
+	double getMedianMicros();
+
+	/**
+	 * Gets the 90th percentile of the time a search took.
+	 * @return The 90th percentile in microseconds.
+	 */
+	double getPercentile90Micros();
+
+	/**
+	 * Gets the 99th percentile of the time a search took.
+	 * @return The 99th percentile in microseconds.
+	 */
+	double getPercentile99Micros();
+
+	/**
+	 * Gets the 99.9th percentile of the time a search took.
+	 * @return The 99.9th percentile in microseconds.
+	 */
+	double getPercentile999Micros();
+
+	/**
+	 * Gets the longest time a search took.
+	 * @return The longest time in microseconds.
+	 */
+	double getMaxMicros();
+
+	/**
+	 * Gets the mean number of vertices a search settled.
+	 * @return The mean number of settled vertices.
+	 */
+	double getMeanSettledVertices();
+
+	/**
+	 * Gets the 99th percentile of the number of vertices a search settled.
+	 * @return The 99th percentile of settled vertices.
+	 */
+	long getPercentile99SettledVertices();
+
+	/**
+	 * Gets the mean number of edges a search relaxed.
+	 * @return The mean number of edge relaxations.
+	 */
+	double getMeanEdgeRelaxations();
+
+	/**
+	 * Gets the mean number of vertices a search pushed onto its queues.
+	 * @return The mean number of queue pushes.
+	 */
+	double getMeanQueuePushes();
+
+	/**
+	 * Gets the mean number of vertices a search popped from its queues.
+	 * @return The mean number of queue pops.
+	 */
+	double getMeanQueuePops();
+
+	/**
+	 * Gets the mean number of popped vertices a search discarded as already settled.
+	 * @return The mean number of stale entries discarded.
+	 */
+	double getMeanStaleDiscards();
+
+	/**
+	 * Forgets every search recorded so far.
+	 */
+	void reset();
+}
@@ -0,0 +1,232 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class represents a shortest path found in a graph: its length (accumulated weights) and the
+ * index of each vertex on it, from source to target. Unlike the array returned by
+ * {@link Digraph#getShortestPath(int, int)}, the length is kept apart from the vertices, and the
+ * vertices can be walked one at a time with {@link #iterator()} without copying them.
+ * <p>
+ * A path taken out of a {@link ShortestPathTree} holds no vertices of its own, only the parent links
+ * of the tree and its target. Its length is then read without touching the path at all, and
+ * {@link #reverseIterator()} walks the parent links from the target back to the source. The vertices
+ * are copied into an array only the first time they are asked for by position or from the source on.
+ * <p>
+ * Objects of this class are immutable.
+ * @author Joel Tengco
+ *
+ */
+public final class ShortestPath implements Iterable<Integer> {
+	private final int length;
+	private final int targetIndex;
+	private final int[] parents;		// parent links the path is read from, or null if the vertices are given
+	private volatile int[] vertices;	// index of each vertex on the path, filled in when first needed
+	
+	/**
+	 * Constructs a new <code>ShortestPath</code> object with the given length and vertices.
+	 * @param length The length of the path.
+	 * @param vertices The index of each vertex on the path, from source to target, which must not
+	 * be modified afterwards.
+	 */
+	ShortestPath(int length, int[] vertices) {
+		this.length = length;
+		this.targetIndex = vertices[vertices.length - 1];
+		this.parents = null;
+		this.vertices = vertices;
+	}
+	
+	/**
+	 * Constructs a new <code>ShortestPath</code> object read from the given parent links, without
+	 * copying them.
+	 * @param length The length of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @param parents The parent of each vertex, -1 for the source, which must not be modified afterwards.
+	 */
+	ShortestPath(int length, int targetIndex, int[] parents) {
+		this.length = length;
+		this.targetIndex = targetIndex;
+		this.parents = parents;
+	}
+	
+	/**
+	 * Follows the given parents from a vertex back to the root of their tree, and collects the vertices
+	 * on the way in order from root to vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @param parents The parent of each vertex, -1 for the root.
+	 * @return A new array holding the index of each vertex on the path to the vertex.
+	 */
+	static int[] follow(int targetIndex, int[] parents) {
+		int pathVertexCount = 0;
+		int[] path;
+		
+		// count the vertices first so the path can be filled from its end
+		for(int v = targetIndex; v != -1; v = parents[v])
+			pathVertexCount++;
+		
+		path = new int[pathVertexCount];
+		for(int v = targetIndex; v != -1; v = parents[v])
+			path[--pathVertexCount] = v;
+		
+		return path;
+	}
+	
+	/**
+	 * Gets the length of this path, being the sum of the weights of its edges. This never copies the
+	 * vertices of the path.
+	 * @return The length of this path.
+	 */
+	public int getLength() {
+		return length;
+	}
+	
+	/**
+	 * Gets the number of vertices on this path, including the source and the target.
+	 * @return The number of vertices on this path.
+	 */
+	public int getVertexCount() {
+		int[] pathVertices = vertices;
+		int count = 0;
+		
+		if(pathVertices != null)
+			return pathVertices.length;
+		
+		for(int v = targetIndex; v != -1; v = parents[v])
+			count++;
+		return count;
+	}
+	
+	/**
+	 * Gets the index of a vertex on this path.
+	 * @param i The position of the vertex on this path, zero being the source.
+	 * @return The index of the vertex at the given position.
+	 */
+	public int getVertex(int i) {
+		return vertices()[i];
+	}
+	
+	/**
+	 * Gets the index of the first vertex on this path.
+	 * @return The index of the source vertex.
+	 */
+	public int getSource() {
+		int[] pathVertices = vertices;
+		int v = targetIndex;
+		
+		if(pathVertices != null)
+			return pathVertices[0];
+		
+		while(parents[v] != -1)
+			v = parents[v];
+		return v;
+	}
+	
+	/**
+	 * Gets the index of the last vertex on this path.
+	 * @return The index of the target vertex.
+	 */
+	public int getTarget() {
+		return targetIndex;
+	}
+	
+	/**
+	 * Gets an iterator over the index of each vertex on this path, from source to target. The
+	 * returned iterator also hands out the indices unboxed through <code>nextInt()</code>.
+	 */
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		int[] pathVertices = vertices();
+		
+		return new PrimitiveIterator.OfInt() {
+			private int next = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return next < pathVertices.length;
+			}
+			
+			@Override
+			public int nextInt() {
+				if(next >= pathVertices.length)
+					throw new NoSuchElementException();
+				return pathVertices[next++];
+			}
+		};
+	}
+	
+	/**
+	 * Gets an iterator over the index of each vertex on this path, from target back to source. For a
+	 * path read from parent links, the iterator follows the links one at a time, and nothing else is
+	 * allocated however long the path is.
+	 * @return An iterator over the vertices of this path in reverse.
+	 */
+	public PrimitiveIterator.OfInt reverseIterator() {
+		int[] pathVertices = vertices;
+		
+		if(pathVertices != null)
+			return new PrimitiveIterator.OfInt() {
+				private int next = pathVertices.length - 1;
+				
+				@Override
+				public boolean hasNext() {
+					return next >= 0;
+				}
+				
+				@Override
+				public int nextInt() {
+					if(next < 0)
+						throw new NoSuchElementException();
+					return pathVertices[next--];
+				}
+			};
+		
+		return new PrimitiveIterator.OfInt() {
+			private int next = targetIndex;
+			
+			@Override
+			public boolean hasNext() {
+				return next != -1;
+			}
+			
+			@Override
+			public int nextInt() {
+				int vertexIndex = next;
+				
+				if(vertexIndex == -1)
+					throw new NoSuchElementException();
+				next = parents[vertexIndex];
+				return vertexIndex;
+			}
+		};
+	}
+	
+	/**
+	 * Builds an array in the format returned by {@link Digraph#getShortestPath(int, int)}: the
+	 * length of this path as the first element, followed by the index of each vertex on it.
+	 * @return A new array describing this path.
+	 */
+	public int[] toArray() {
+		int[] pathVertices = vertices();
+		int[] resultArray = new int[pathVertices.length + 1];
+		
+		resultArray[0] = length;
+		System.arraycopy(pathVertices, 0, resultArray, 1, pathVertices.length);
+		return resultArray;
+	}
+	
+	/**
+	 * Gets the vertices of this path in order, copying them out of the parent links the first time.
+	 */
+	private int[] vertices() {
+		int[] pathVertices = vertices;
+		
+		if(pathVertices == null)
+			vertices = pathVertices = follow(targetIndex, parents);
+		return pathVertices;
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This interface represents anything that can find the shortest path between two vertices of a graph,
+ * identified by their indices. All implementations answer in the same formats, so callers such as the
+ * D command of {@link Project3} can use any of them without changes.
+ * @author Joel Tengco
+ *
+ */
+public interface ShortestPathFinder {
+	/**
+	 * Gets the shortest path from one vertex to another. The first element of the returned array is
+	 * the shortest path's length (accumulated weights), and the rest of the array is the index of
+	 * each vertex in the path, from source to target.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return An integer array containing the path length as its first element and the rest being
+	 * the path represented as the index of each vertex contained in the path.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	int[] getShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException;
+
+	/**
+	 * Finds the shortest path from one vertex to another, the same way as {@link #getShortestPath(int, int)},
+	 * but returns it as a {@link ShortestPath}.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	ShortestPath findShortestPath(int sourceIndex, int targetIndex) throws IllegalArgumentException;
+
+	/**
+	 * Gets only the length of the shortest path from one vertex to another, without building the path.
+	 * @param sourceIndex The index of the vertex whose the source of the path.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The length of the shortest path from the source vertex to the target vertex.
+	 * @throws IllegalArgumentException If the target vertex is unreachable from the source vertex.
+	 */
+	int getShortestPathLength(int sourceIndex, int targetIndex) throws IllegalArgumentException;
+}
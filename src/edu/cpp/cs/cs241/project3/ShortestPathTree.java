@@ -0,0 +1,123 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This class represents the shortest paths from one source vertex to every vertex of a graph, as found
+ * by a single search. It holds, for each vertex, the length of its shortest path from the source and the
+ * vertex before it on that path. Any of these paths can then be taken out of the tree in time
+ * proportional to its number of vertices, so routes from one source to many targets only need one search.
+ * <p>
+ * Objects of this class are immutable, and are obtained through {@link Digraph#shortestPathTree(int)}.
+ * @author Joel Tengco
+ *
+ */
+public final class ShortestPathTree {
+	private final int sourceIndex;
+	private final int[] pathLengths;	// path length of each vertex, or Integer.MAX_VALUE if unreachable
+	private final int[] parents;		// vertex before each vertex on its path, or -1
+
+	/**
+	 * Constructs a new <code>ShortestPathTree</code> object from the given arrays.
+	 * @param sourceIndex The index of the source vertex.
+	 * @param pathLengths The path length of each vertex, which must not be modified afterwards.
+	 * @param parents The parent of each vertex, which must not be modified afterwards.
+	 */
+	ShortestPathTree(int sourceIndex, int[] pathLengths, int[] parents) {
+		this.sourceIndex = sourceIndex;
+		this.pathLengths = pathLengths;
+		this.parents = parents;
+	}
+
+	/**
+	 * Copies the path lengths and parents of every vertex out of a finished search.
+	 * @param sourceIndex The index of the vertex the search started from.
+	 * @param vertexCount The number of vertices of the graph searched.
+	 * @param context The search context, with every reachable vertex settled.
+	 * @return A new <code>ShortestPathTree</code> object holding the result of the search.
+	 */
+	static ShortestPathTree of(int sourceIndex, int vertexCount, SearchContext context) {
+		int[] pathLengths = new int[vertexCount];
+		int[] parents = new int[vertexCount];
+
+		for(int v = 0; v < vertexCount; v++) {
+			pathLengths[v] = context.pathLength(v);
+			parents[v] = pathLengths[v] == Integer.MAX_VALUE ? -1 : context.parent(v);
+		}
+
+		return new ShortestPathTree(sourceIndex, pathLengths, parents);
+	}
+
+	/**
+	 * Gets the index of the vertex all paths in this tree start from.
+	 * @return The index of the source vertex.
+	 */
+	public int getSource() {
+		return sourceIndex;
+	}
+
+	/**
+	 * Gets the number of vertices covered by this tree, reachable or not.
+	 * @return The number of vertices of the graph searched.
+	 */
+	public int getVertexCount() {
+		return pathLengths.length;
+	}
+
+	/**
+	 * Checks if there is a path from the source vertex to the given vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @return True if the vertex can be reached from the source, false otherwise.
+	 */
+	public boolean isReachable(int targetIndex) {
+		return pathLengths[targetIndex] != Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Gets the length of the shortest path from the source vertex to the given vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @return The length of the shortest path to the vertex.
+	 * @throws IllegalArgumentException If the vertex is unreachable from the source vertex.
+	 */
+	public int getPathLength(int targetIndex) throws IllegalArgumentException {
+		if(!isReachable(targetIndex))
+			throw new IllegalArgumentException("Vertex with target index is unreachable.");
+
+		return pathLengths[targetIndex];
+	}
+
+	/**
+	 * Gets the vertex before the given vertex on its shortest path from the source vertex.
+	 * @param targetIndex The index of the vertex.
+	 * @return The index of the vertex before it, or -1 if the vertex is the source or is unreachable.
+	 */
+	public int getParent(int targetIndex) {
+		return parents[targetIndex];
+	}
+
+	/**
+	 * Gets the shortest path from the source vertex to the given vertex, in the same format as
+	 * {@link Digraph#getShortestPath(int, int)}.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return An integer array containing the path length as its first element and the rest being
+	 * the path represented as the index of each vertex contained in the path.
+	 * @throws IllegalArgumentException If the vertex is unreachable from the source vertex.
+	 */
+	public int[] getShortestPath(int targetIndex) throws IllegalArgumentException {
+		return findShortestPath(targetIndex).toArray();
+	}
+
+	/**
+	 * Finds the shortest path from the source vertex to the given vertex. The path reads the parents
+	 * of this tree rather than copying them, so this takes constant time; the path's vertices are only
+	 * copied out if they are asked for from the source on.
+	 * @param targetIndex The index of the vertex whose the target of this path.
+	 * @return The shortest path from the source vertex to the given vertex.
+	 * @throws IllegalArgumentException If the vertex is unreachable from the source vertex.
+	 */
+	public ShortestPath findShortestPath(int targetIndex) throws IllegalArgumentException {
+		return new ShortestPath(getPathLength(targetIndex), targetIndex, parents);
+	}
+}
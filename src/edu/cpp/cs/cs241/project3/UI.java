@@ -4,6 +4,10 @@
 
 package edu.cpp.cs.cs241.project3;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
@@ -15,6 +19,13 @@ import java.util.StringTokenizer;
  * message to be used regularly to prompt the user. The main functionality of this
  * class is to add options into the user interface in order to set up what this class
  * is looking for when receiving input from the user.
+ * <p>
+ * A user interface may instead replay a script of commands, one per line, with the inputs of each
+ * command either following it on the same line or on the next line, as a user would enter them. Lines
+ * that are blank or start with '#' are skipped. Nothing is prompted, and all output, errors included,
+ * goes to a single buffered writer, with each error preceded by "Error: ". Inputs that would make an
+ * interactive user retry instead count as an error and skip the command, and the end of the script
+ * reads as the exit command 'E', which must thus be one of the options.
  * @author Joel Tengco
  *
  */
@@ -23,6 +34,13 @@ public class UI {
 	private ArrayList<Option> options;
 	private Scanner input;
 	private StringTokenizer tokenizer;
+	// used only when replaying a script
+	private BufferedReader script;
+	private Writer output;
+	private String pendingInput;	// the rest of the line of the last command, if it has inputs there
+	private int commandCount;
+	private int errorCount;
+	private long startTime;
 	
 	/**
 	 * Constructs a new <code>UI</code> object with the given prompt message.
@@ -34,6 +52,21 @@ public class UI {
 		options = new ArrayList<Option>();
 	}
 	
+	/**
+	 * Constructs a new <code>UI</code> object that replays a script of commands rather than
+	 * prompting the user, as described in the class description.
+	 * @param promptMessage A string that would be used when prompting the user, unused while replaying.
+	 * @param script The script of commands to replay.
+	 * @param output The writer all output goes to, which is flushed by {@link #getScriptSummary()}.
+	 */
+	public UI(String promptMessage, BufferedReader script, Writer output) {
+		this.promptMessage = promptMessage;
+		this.script = script;
+		this.output = output;
+		options = new ArrayList<Option>();
+		startTime = System.nanoTime();
+	}
+	
 	/**
 	 * Adds a new option to this user interface. Take caution that duplicate
 	 * options are allowed and may cause the interface to malfunction. Duplicate
@@ -55,7 +88,8 @@ public class UI {
 	 * Prints out the prompt message that this user interface was first instantiated with.
 	 */
 	public void promptUser() {
-		System.out.print(promptMessage + " ");
+		if(script == null)
+			System.out.print(promptMessage + " ");
 	}
 	
 	/**
@@ -63,7 +97,7 @@ public class UI {
 	 */
 	public void printHelp() {
 		for(Option opt : options)
-			System.out.println("  " + opt.toString());
+			printToScreen("  " + opt.toString());
 	}
 	
 	/**
@@ -71,7 +105,8 @@ public class UI {
 	 * @param output The prompt to output to the user.
 	 */
 	public void printPrompt(String output) {
-        System.out.print(output + " ");
+		if(script == null)
+			System.out.print(output + " ");
 	}
 	
 	/**
@@ -79,7 +114,10 @@ public class UI {
 	 * @param output The string to print out to the screen.
 	 */
 	public void printToScreen(String output) {
-		System.out.println(output);
+		if(script == null)
+			System.out.println(output);
+		else
+			writeLine(output);
 	}
 	
 	/**
@@ -87,7 +125,12 @@ public class UI {
 	 * @param message An error to print out to the screen.
 	 */
 	public void printError(String message) {
-		System.err.println(message);
+		if(script == null)
+			System.err.println(message);
+		else {
+			errorCount++;
+			writeLine("Error: " + message);
+		}
 	}
 	
 	/**
@@ -99,6 +142,9 @@ public class UI {
 		String rawInput;
 		String command;
 		
+		if(script != null)
+			return getScriptCommand();
+		
 		do {
 			try {
 				rawInput = input.nextLine();
@@ -116,21 +162,55 @@ public class UI {
 				
 				throw new IllegalArgumentException("Command given does not match any of the options.");
 			} catch(NoSuchElementException nsee) {
-				System.err.println("Please enter a command.");
+				printError("Please enter a command.");
 			} catch(IllegalArgumentException iae) {
-				System.err.println(iae.getMessage());
+				printError(iae.getMessage());
 			} catch(Exception e) {
-				System.err.println(e.getMessage());
+				printError(e.getMessage());
 			}
 		} while(true);
 	}
 	
+	/**
+	 * Gets the next command of the script being replayed, skipping and counting as errors any that
+	 * do not match the options. Any inputs following the command on its line are kept for the next
+	 * call of {@link #getUserInput(int)}.
+	 * @return One of characters that represent the options in this user interface, in lower case,
+	 * or 'e' once the script is exhausted.
+	 */
+	private char getScriptCommand() {
+		String rawInput;
+		String command;
+		
+		while((rawInput = readScriptLine()) != null) {
+			tokenizer = new StringTokenizer(rawInput);
+			if(!tokenizer.hasMoreTokens() || rawInput.trim().startsWith("#"))
+				continue;
+			
+			command = tokenizer.nextToken();
+			commandCount++;
+			pendingInput = tokenizer.hasMoreTokens() ? tokenizer.nextToken("") : null;
+			
+			if(command.length() == 1)
+				for(Option opt : options)
+					if(command.compareToIgnoreCase(opt.getOptLetter()) == 0)
+						return Character.toLowerCase(command.charAt(0));
+			
+			printError(command.length() > 1 ? "Invalid command given." : "Command given does not match any of the options.");
+		}
+		
+		return 'e';
+	}
+	
 	/**
 	 * Gets inputs from the user, according to the given number of inputs needed. For example, if the number
 	 * of inputs needed is 1, then this interface will keep prompting the user for a valid input until one
 	 * single token is given. An empty string is returned when the number of inputs needed is specified as zero.
+	 * When replaying a script, the inputs are taken from the line of the last command if it had any, or
+	 * else from the next line, and an invalid input is not retried.
 	 * @param inputsNeeded Number of inputs (tokens) needed from the user.
-	 * @return An empty string for zero inputs needed, otherwise the user's raw input.
+	 * @return An empty string for zero inputs needed, otherwise the user's raw input. When replaying a
+	 * script, null if the input was invalid, which is then reported as an error.
 	 */
 	public String getUserInput(int inputsNeeded) {
 		String rawInput;
@@ -138,6 +218,17 @@ public class UI {
 		if(inputsNeeded == 0)
 			return "";
 		
+		if(script != null) {
+			rawInput = pendingInput != null ? pendingInput : readScriptLine();
+			pendingInput = null;
+			tokenizer = new StringTokenizer(rawInput == null ? "" : rawInput);
+			if(tokenizer.countTokens() == inputsNeeded)
+				return rawInput;
+			
+			printError(tokenizer.countTokens() == 0 ? "Please enter an input." : "Invalid number of inputs.");
+			return null;
+		}
+		
 		do {
 			try {
 				rawInput = input.nextLine();
@@ -153,6 +244,52 @@ public class UI {
 		} while(true);
 	}
 	
+	/**
+	 * Flushes the output of the script being replayed, and returns a summary of the replay so far,
+	 * formatted as: "Replayed <i>n</i> commands in <i>s</i> s: <i>r</i> commands/s, <i>e</i> errors".
+	 * @return The summary of the replay.
+	 * @throws IllegalStateException If this user interface is not replaying a script.
+	 */
+	public String getScriptSummary() throws IllegalStateException {
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		
+		if(script == null)
+			throw new IllegalStateException("No script is being replayed.");
+		
+		try {
+			output.flush();
+		} catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+		
+		return String.format("Replayed %d commands in %.3f s: %.0f commands/s, %d errors",
+								commandCount, seconds, seconds == 0 ? 0 : commandCount / seconds, errorCount);
+	}
+	
+	/**
+	 * Reads the next line of the script being replayed.
+	 * @return The line, or null at the end of the script.
+	 */
+	private String readScriptLine() {
+		try {
+			return script.readLine();
+		} catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+	}
+	
+	/**
+	 * Writes a line to the output of the script being replayed.
+	 */
+	private void writeLine(String line) {
+		try {
+			output.write(line);
+			output.write('\n');
+		} catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+	}
+	
 	/**
 	 * This class represents an option in this user interface. It simply has an option letter
 	 * to represent it, along with a description to describe its purpose.
@@ -0,0 +1,118 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This class maps vertex keys to vertex indices using an open-addressing hash table with linear
+ * probing. Keys are compared with <code>equals</code> and hashed with <code>hashCode</code>, so
+ * whoever produces the keys decides what makes two vertices equivalent. If the same key is put
+ * more than once, the first index is kept, matching a linear scan that returns the first match.
+ * @author Joel Tengco
+ *
+ */
+final class VertexIndex {
+	private Object[] keys;
+	private int[] indices;
+	private int size;
+
+	/**
+	 * Constructs a new, empty <code>VertexIndex</code> object with room for the given number of keys
+	 * before it needs to grow.
+	 * @param expectedKeys The number of keys expected to be put into this index.
+	 */
+	VertexIndex(int expectedKeys) {
+		int capacity = 16;
+
+		// keep the table at most half full
+		while(capacity < expectedKeys * 2)
+			capacity <<= 1;
+
+		keys = new Object[capacity];
+		indices = new int[capacity];
+	}
+
+	/**
+	 * Gets a copy of this index, which can be added to without changing this one.
+	 * @return A new <code>VertexIndex</code> object with the same keys and vertex indices.
+	 */
+	VertexIndex copy() {
+		VertexIndex copy = new VertexIndex(0);
+
+		copy.keys = keys.clone();
+		copy.indices = indices.clone();
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * Gets the vertex index stored for the given key.
+	 * @param key The key to look up.
+	 * @return The vertex index of the key, or -1 if the key is not in this index.
+	 */
+	int get(Object key) {
+		int mask = keys.length - 1;
+
+		for(int slot = slotOf(key, mask); keys[slot] != null; slot = (slot + 1) & mask)
+			if(keys[slot].equals(key))
+				return indices[slot];
+
+		return -1;
+	}
+
+	/**
+	 * Stores the given vertex index for the given key, unless the key is already in this index.
+	 * @param key The key of the vertex.
+	 * @param vertexIndex The index of the vertex.
+	 */
+	void putIfAbsent(Object key, int vertexIndex) {
+		int mask = keys.length - 1;
+		int slot;
+
+		for(slot = slotOf(key, mask); keys[slot] != null; slot = (slot + 1) & mask)
+			if(keys[slot].equals(key))
+				return;
+
+		keys[slot] = key;
+		indices[slot] = vertexIndex;
+
+		if(++size * 2 > keys.length)
+			grow();
+	}
+
+	/**
+	 * Doubles the capacity of this index and reinserts every key.
+	 */
+	private void grow() {
+		Object[] oldKeys = keys;
+		int[] oldIndices = indices;
+		int mask;
+
+		keys = new Object[oldKeys.length * 2];
+		indices = new int[oldKeys.length * 2];
+		mask = keys.length - 1;
+
+		for(int i = 0; i < oldKeys.length; i++)
+			if(oldKeys[i] != null) {
+				int slot = slotOf(oldKeys[i], mask);
+				while(keys[slot] != null)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				indices[slot] = oldIndices[i];
+			}
+	}
+
+	/**
+	 * Gets the home slot of the given key, spreading the bits of its hash code so that keys
+	 * with similar hash codes do not cluster. The slot only depends on the key's hash code, so tables
+	 * saved to a file, such as the city code table of a {@link GraphFile}, can be probed the same way.
+	 * @param key The key to hash.
+	 * @param mask The table length minus one.
+	 * @return The slot to start probing from.
+	 */
+	static int slotOf(Object key, int mask) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+/**
+ * This enum lists the orders a frozen graph can lay out its vertices in. The order only changes where
+ * each vertex's edges and search state sit in memory, not the vertex indices callers see: a search
+ * reads the state of a vertex's neighbors right after its own, so the closer neighbors are numbered,
+ * the more of those reads hit the cache. Vertices read from a file are numbered in the order of its
+ * lines, which has nothing to do with which vertices are neighbors.
+ * @author Joel Tengco
+ *
+ */
+public enum VertexOrdering {
+	/**
+	 * The vertices keep the order of their indices.
+	 */
+	NONE,
+	/**
+	 * The vertices are numbered in the order a breadth-first search over edges in both directions
+	 * reaches them, starting from the first vertex of each connected part of the graph. Neighbors are
+	 * then mostly within a few levels of the search of each other.
+	 */
+	BREADTH_FIRST,
+	/**
+	 * The reverse Cuthill-McKee order: a breadth-first search from a vertex at the edge of each
+	 * connected part of the graph that visits the neighbors of a vertex from fewest edges to most,
+	 * numbered backward. It keeps the indices of every pair of neighbors close together, which is
+	 * what keeps the state read by a search in as few cache lines as possible.
+	 */
+	REVERSE_CUTHILL_MCKEE
+}
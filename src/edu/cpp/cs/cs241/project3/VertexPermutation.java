@@ -0,0 +1,236 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import java.util.Arrays;
+
+/**
+ * This class maps the vertex indices of a graph, which callers see, to the positions its vertices have
+ * been laid out at in memory by a {@link VertexOrdering}, and back. A {@link CompactDigraph} holding a
+ * permutation keeps its edges and runs its searches in the internal numbering, and translates vertex
+ * indices on the way in and paths on the way out.
+ * <p>
+ * Objects of this class are immutable once constructed.
+ * @author Joel Tengco
+ *
+ */
+final class VertexPermutation {
+	private final int[] toInternal;	// internal index of each vertex index
+	private final int[] toExternal;	// vertex index of each internal index
+
+	/**
+	 * Constructs a new <code>VertexPermutation</code> object from the vertex index of each internal index.
+	 * @param toExternal The vertex index of each internal index, which must not be modified afterwards.
+	 */
+	private VertexPermutation(int[] toExternal) {
+		this.toExternal = toExternal;
+		toInternal = new int[toExternal.length];
+		for(int i = 0; i < toExternal.length; i++)
+			toInternal[toExternal[i]] = i;
+	}
+
+	/**
+	 * Works out the permutation that lays out the vertices of a graph in the given order. Both orders
+	 * follow the edges in both directions, so that vertices connected either way end up close.
+	 * @param ordering The order wanted, which must not be {@link VertexOrdering#NONE}.
+	 * @param outgoing The outgoing edges of every vertex.
+	 * @param incoming The incoming edges of every vertex.
+	 * @return A new <code>VertexPermutation</code> object for the graph.
+	 */
+	static VertexPermutation of(VertexOrdering ordering, Adjacency outgoing, Adjacency incoming) {
+		int vertexCount = outgoing.vertexCount();
+		boolean reverseCuthillMcKee = ordering == VertexOrdering.REVERSE_CUTHILL_MCKEE;
+		int[] order = new int[vertexCount];	// vertex index of each internal index, in the order visited
+		int[] levels = new int[vertexCount];	// breadth-first level of each vertex, while finding a peripheral one
+		boolean[] visited = new boolean[vertexCount];
+		int visitedCount = 0;
+
+		for(int start = 0; start < vertexCount; start++) {
+			if(visited[start])
+				continue;
+
+			int root = reverseCuthillMcKee ? peripheralVertex(start, outgoing, incoming, levels) : start;
+			visitedCount = visit(root, reverseCuthillMcKee, outgoing, incoming, order, visitedCount, visited);
+		}
+
+		if(reverseCuthillMcKee)
+			for(int i = 0, j = vertexCount - 1; i < j; i++, j--) {
+				int v = order[i];
+				order[i] = order[j];
+				order[j] = v;
+			}
+
+		return new VertexPermutation(order);
+	}
+
+	/**
+	 * Gets the internal index of a vertex.
+	 * @param vertexIndex The index of the vertex, as callers see it.
+	 * @return The position of the vertex in memory.
+	 */
+	int internal(int vertexIndex) {
+		return toInternal[vertexIndex];
+	}
+
+	/**
+	 * Gets the vertex at an internal index.
+	 * @param internalIndex The position of the vertex in memory.
+	 * @return The index of the vertex, as callers see it.
+	 */
+	int external(int internalIndex) {
+		return toExternal[internalIndex];
+	}
+
+	/**
+	 * Turns a path of internal indices into one of vertex indices.
+	 * @param path The path, by internal index.
+	 * @return A new <code>ShortestPath</code> object holding the same path by vertex index.
+	 */
+	ShortestPath external(ShortestPath path) {
+		int[] vertices = new int[path.getVertexCount()];
+
+		for(int i = 0; i < vertices.length; i++)
+			vertices[i] = toExternal[path.getVertex(i)];
+
+		return new ShortestPath(path.getLength(), vertices);
+	}
+
+	/**
+	 * Turns a shortest path tree over internal indices into one over vertex indices.
+	 * @param tree The tree, by internal index.
+	 * @return A new <code>ShortestPathTree</code> object holding the same tree by vertex index.
+	 */
+	ShortestPathTree external(ShortestPathTree tree) {
+		int[] pathLengths = new int[tree.getVertexCount()];
+		int[] parents = new int[tree.getVertexCount()];
+
+		for(int i = 0; i < pathLengths.length; i++) {
+			int parent = tree.getParent(i);
+			pathLengths[toExternal[i]] = tree.isReachable(i) ? tree.getPathLength(i) : Integer.MAX_VALUE;
+			parents[toExternal[i]] = parent == -1 ? -1 : toExternal[parent];
+		}
+
+		return new ShortestPathTree(toExternal[tree.getSource()], pathLengths, parents);
+	}
+
+	/**
+	 * Lays out the given edges in the internal order, with the targets of the edges renumbered to match.
+	 * @param edges The edges of every vertex, by vertex index.
+	 * @return A new <code>Adjacency</code> object holding the same edges by internal index.
+	 */
+	Adjacency apply(Adjacency edges) {
+		return edges.permuted(toInternal, toExternal);
+	}
+
+	/**
+	 * Lays out the given edges in the order of the vertex indices again, undoing {@link #apply(Adjacency)}.
+	 * @param edges The edges of every vertex, by internal index.
+	 * @return A new <code>Adjacency</code> object holding the same edges by vertex index.
+	 */
+	Adjacency undo(Adjacency edges) {
+		return edges.permuted(toExternal, toInternal);
+	}
+
+	/**
+	 * Numbers the vertices reachable from the given one over edges in either direction in breadth-first
+	 * order, appending them to the given order.
+	 * @return The number of vertices in the order now.
+	 */
+	private static int visit(int root, boolean byDegree, Adjacency outgoing, Adjacency incoming,
+								int[] order, int orderCount, boolean[] visited) {
+		int head = orderCount;
+		long[] neighbors = new long[16];
+
+		visited[root] = true;
+		order[orderCount++] = root;
+		while(head < orderCount) {
+			int v = order[head++];
+			int first = orderCount;
+
+			for(int side = 0; side < 2; side++) {
+				Adjacency edges = side == 0 ? outgoing : incoming;
+				for(int e = edges.rowStart(v); e < edges.rowEnd(v); e++) {
+					int u = edges.target(e);
+					if(!visited[u]) {
+						visited[u] = true;
+						order[orderCount++] = u;
+					}
+				}
+			}
+
+			// Cuthill-McKee takes the new neighbors from fewest edges to most
+			if(byDegree && orderCount - first > 1) {
+				int count = orderCount - first;
+				if(neighbors.length < count)
+					neighbors = new long[Math.max(count, neighbors.length * 2)];
+				for(int i = 0; i < count; i++)
+					neighbors[i] = (long) degree(order[first + i], outgoing, incoming) << 32 | order[first + i];
+				Arrays.sort(neighbors, 0, count);
+				for(int i = 0; i < count; i++)
+					order[first + i] = (int) neighbors[i];
+			}
+		}
+
+		return orderCount;
+	}
+
+	/**
+	 * Finds a vertex at the edge of the part of the graph holding the given vertex, the way George and
+	 * Liu do: search breadth-first from a vertex, move to a vertex of fewest edges among the farthest
+	 * ones found, and repeat for as long as that takes the farthest vertices farther away.
+	 * @param levels Scratch space, one integer per vertex, all 0, which they are again on return.
+	 */
+	private static int peripheralVertex(int start, Adjacency outgoing, Adjacency incoming, int[] levels) {
+		int[] queue = new int[16];
+		int root = start;
+		int eccentricity = -1;
+
+		// a few rounds are enough to get close to the edge, and each one searches the whole part
+		for(int round = 0; round < 8; round++) {
+			int queueCount = 1;
+			int head = 0;
+			int farthest = root;
+
+			queue[0] = root;
+			levels[root] = 1;
+			while(head < queueCount) {
+				int v = queue[head++];
+				for(int side = 0; side < 2; side++) {
+					Adjacency edges = side == 0 ? outgoing : incoming;
+					for(int e = edges.rowStart(v); e < edges.rowEnd(v); e++) {
+						int u = edges.target(e);
+						if(levels[u] == 0) {
+							levels[u] = levels[v] + 1;
+							if(queueCount == queue.length)
+								queue = Arrays.copyOf(queue, queueCount * 2);
+							queue[queueCount++] = u;
+						}
+					}
+				}
+
+				if(levels[v] > levels[farthest]
+						|| (levels[v] == levels[farthest] && degree(v, outgoing, incoming) < degree(farthest, outgoing, incoming)))
+					farthest = v;
+			}
+
+			int farthestLevel = levels[farthest];
+			// clear the levels for the next search, touching only the vertices this one reached
+			for(int i = 0; i < queueCount; i++)
+				levels[queue[i]] = 0;
+
+			if(farthestLevel - 1 <= eccentricity)
+				break;
+			eccentricity = farthestLevel - 1;
+			root = farthest;
+		}
+
+		return root;
+	}
+
+	private static int degree(int vertexIndex, Adjacency outgoing, Adjacency incoming) {
+		return outgoing.rowEnd(vertexIndex) - outgoing.rowStart(vertexIndex)
+				+ incoming.rowEnd(vertexIndex) - incoming.rowStart(vertexIndex);
+	}
+}
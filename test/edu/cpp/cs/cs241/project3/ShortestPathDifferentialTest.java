@@ -0,0 +1,287 @@
+/**
+ * Part of Project 3 for CS 241 Winter 2018
+ */
+
+package edu.cpp.cs.cs241.project3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the searches of this project against a plain Dijkstra's algorithm over an
+ * adjacency matrix, on small random graphs changed at random between queries: the repairs of a
+ * {@link DynamicShortestPathTree}, every {@link SearchMode} with every {@link QueueStrategy} and
+ * {@link VertexOrdering}, and the snapshots of a {@link ConcurrentDigraph}. Every graph is built from
+ * a fixed seed, so a failure names the seed it happened on and can be run again.
+ * @author Joel Tengco
+ *
+ */
+public class ShortestPathDifferentialTest {
+	private static final int SEEDS = 8;
+	private static final int MAX_VERTICES = 64;
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	@Test
+	public void trackedTreesMatchDijkstraAfterEveryChange() {
+		for(int seed = 0; seed < SEEDS; seed++) {
+			Random random = new Random(seed);
+			Model model = new Model(24, 60, random);
+			Digraph<City> graph = model.toDigraph();
+			DynamicShortestPathTree first = graph.trackShortestPathTree(0);
+			DynamicShortestPathTree second = graph.trackShortestPathTree(5);
+
+			for(int step = 0; step < 300; step++) {
+				model.change(graph, null, random);
+				assertTreeMatches(model, first, "seed " + seed + ", step " + step);
+				assertTreeMatches(model, second, "seed " + seed + ", step " + step);
+			}
+		}
+	}
+
+	@Test
+	public void everySearchMatchesDijkstra() {
+		for(VertexOrdering ordering : VertexOrdering.values())
+			for(QueueStrategy strategy : QueueStrategy.values())
+				for(SearchMode mode : SearchMode.values())
+					for(int seed = 0; seed < SEEDS; seed++) {
+						String where = ordering + ", " + strategy + ", " + mode + ", seed " + seed;
+						Random random = new Random(seed);
+						Model model = new Model(20 + random.nextInt(20), 40 + random.nextInt(80), random);
+						Digraph<City> graph = model.toDigraph();
+
+						graph.setVertexOrdering(ordering);
+						graph.setQueueStrategy(strategy);
+						graph.setSearchMode(mode);
+						graph.setRouteCache(new RouteCache(16, EvictionPolicy.LRU));
+						if(mode == SearchMode.ALT)
+							graph.buildLandmarks(3);
+
+						// a few queries between changes, so the frozen view and any hierarchy are rebuilt
+						for(int step = 0; step < 12; step++) {
+							for(int query = 0; query < 10; query++)
+								assertSearchMatches(model, graph, random.nextInt(model.vertexCount), random.nextInt(model.vertexCount), where);
+							model.change(graph, null, random);
+						}
+					}
+	}
+
+	@Test
+	public void concurrentSnapshotsMatchDigraph() {
+		for(int seed = 0; seed < SEEDS; seed++) {
+			Random random = new Random(seed);
+			Model model = new Model(24, 60, random);
+			ConcurrentDigraph<City> graph = new ConcurrentDigraph<City>(model.toDigraph());
+			ArrayList<CompactDigraph<City>> snapshots = new ArrayList<CompactDigraph<City>>();
+			ArrayList<Model> models = new ArrayList<Model>();
+
+			for(int round = 0; round < 40; round++) {
+				ConcurrentDigraph<City>.Batch batch = graph.newBatch();
+				int changes = 1 + random.nextInt(6);
+
+				for(int i = 0; i < changes; i++)
+					model.change(null, batch, random);
+				batch.commit();
+				snapshots.add(graph.snapshot());
+				models.add(model.copy());
+
+				for(QueueStrategy strategy : QueueStrategy.values())
+					for(SearchMode mode : SearchMode.values()) {
+						if(mode == SearchMode.CONTRACTION_HIERARCHY)
+							continue;
+						graph.setQueueStrategy(strategy);
+						graph.setSearchMode(mode);
+						for(int query = 0; query < 5; query++)
+							assertSearchMatches(model, graph, random.nextInt(model.vertexCount), random.nextInt(model.vertexCount),
+												strategy + ", " + mode + ", seed " + seed + ", round " + round);
+					}
+			}
+
+			// every snapshot still holds the graph as it was when it was taken
+			for(int i = 0; i < snapshots.size(); i++)
+				for(int query = 0; query < 20; query++) {
+					Model old = models.get(i);
+					assertSearchMatches(old, snapshots.get(i), random.nextInt(old.vertexCount), random.nextInt(old.vertexCount),
+										"seed " + seed + ", snapshot " + i);
+				}
+		}
+	}
+
+	@Test
+	public void contractionHierarchiesAreRejectedByConcurrentDigraph() {
+		ConcurrentDigraph<City> graph = new ConcurrentDigraph<City>(new Model(4, 4, new Random(0)).toDigraph());
+
+		assertThrows(IllegalArgumentException.class, () -> graph.setSearchMode(SearchMode.CONTRACTION_HIERARCHY));
+	}
+
+	private static void assertTreeMatches(Model model, DynamicShortestPathTree tree, String where) {
+		int[] expected = model.dijkstra(tree.getSource());
+
+		for(int v = 0; v < model.vertexCount; v++) {
+			assertEquals(expected[v] != UNREACHABLE, tree.isReachable(v), where + ", vertex " + v);
+			if(expected[v] != UNREACHABLE) {
+				assertEquals(expected[v], tree.getPathLength(v), where + ", vertex " + v);
+				model.assertPath(tree.getSource(), v, expected[v], tree.getShortestPath(v), where);
+			}
+		}
+	}
+
+	private static void assertSearchMatches(Model model, ShortestPathFinder graph, int sourceIndex, int targetIndex, String where) {
+		int expected = model.dijkstra(sourceIndex)[targetIndex];
+		String pair = where + ", " + sourceIndex + " to " + targetIndex;
+
+		if(expected == UNREACHABLE) {
+			assertThrows(IllegalArgumentException.class, () -> graph.getShortestPath(sourceIndex, targetIndex), pair);
+			assertThrows(IllegalArgumentException.class, () -> graph.getShortestPathLength(sourceIndex, targetIndex), pair);
+			return;
+		}
+
+		assertEquals(expected, graph.getShortestPathLength(sourceIndex, targetIndex), pair);
+		model.assertPath(sourceIndex, targetIndex, expected, graph.getShortestPath(sourceIndex, targetIndex), pair);
+	}
+
+	/**
+	 * Used to hold the expected edges of a graph in an adjacency matrix, make the same random changes
+	 * to it and to a graph under test, and find the expected path lengths.
+	 * @author Joel Tengco
+	 *
+	 */
+	private static class Model {
+		private final int[][] weights;	// weight of each edge, or -1 where there is none
+		private int vertexCount;
+
+		public Model(int vertexCount, int edgeCount, Random random) {
+			weights = new int[MAX_VERTICES][MAX_VERTICES];
+			for(int[] row : weights)
+				Arrays.fill(row, -1);
+			this.vertexCount = vertexCount;
+			for(int e = 0; e < edgeCount; e++) {
+				int source = random.nextInt(vertexCount);
+				int target = random.nextInt(vertexCount);
+				if(source != target)
+					weights[source][target] = randomWeight(random);
+			}
+		}
+
+		private Model(Model model) {
+			weights = new int[MAX_VERTICES][];
+			for(int v = 0; v < MAX_VERTICES; v++)
+				weights[v] = model.weights[v].clone();
+			vertexCount = model.vertexCount;
+		}
+
+		public Model copy() {
+			return new Model(this);
+		}
+
+		public Digraph<City> toDigraph() {
+			City[] cities = new City[vertexCount];
+
+			for(int v = 0; v < vertexCount; v++)
+				cities[v] = city(v);
+
+			Digraph<City> graph = new Digraph<City>(cities);
+			graph.setVertexKey(City.CODE_KEY);
+			for(int source = 0; source < vertexCount; source++)
+				for(int target = 0; target < vertexCount; target++)
+					if(weights[source][target] != -1)
+						graph.addEdge(source, target, weights[source][target]);
+
+			return graph;
+		}
+
+		/**
+		 * Makes one random change to this model, and the same change to the given graph or batch,
+		 * whichever is not null: an edge added, removed or reweighted, or a vertex added.
+		 */
+		public void change(Digraph<City> graph, ConcurrentDigraph<City>.Batch batch, Random random) {
+			int kind = random.nextInt(10);
+			int source = random.nextInt(vertexCount);
+			int target = random.nextInt(vertexCount);
+			int weight = randomWeight(random);
+
+			if(kind == 0 && vertexCount < MAX_VERTICES) {
+				City city = city(vertexCount);
+				if(graph != null)
+					graph.addVertex(city);
+				else
+					batch.addVertex(city);
+				vertexCount++;
+			} else if(source == target) {
+				return;
+			} else if(weights[source][target] == -1) {
+				// parallel edges are never added, so every edge is the one the matrix holds
+				if(graph != null)
+					graph.addEdge(source, target, weight);
+				else
+					batch.addEdge(source, target, weight);
+				weights[source][target] = weight;
+			} else if(kind < 5 || batch != null) {
+				if(graph != null)
+					graph.removeEdge(source, target);
+				else
+					batch.removeEdge(source, target);
+				weights[source][target] = -1;
+			} else {
+				assertEquals(weights[source][target], graph.updateEdgeWeight(source, target, weight));
+				weights[source][target] = weight;
+			}
+		}
+
+		/**
+		 * Finds the path length from a vertex to every vertex, UNREACHABLE where there is no path.
+		 */
+		public int[] dijkstra(int sourceIndex) {
+			int[] pathLengths = new int[vertexCount];
+			boolean[] settled = new boolean[vertexCount];
+
+			Arrays.fill(pathLengths, UNREACHABLE);
+			pathLengths[sourceIndex] = 0;
+			while(true) {
+				int current = -1;
+				for(int v = 0; v < vertexCount; v++)
+					if(!settled[v] && pathLengths[v] != UNREACHABLE && (current == -1 || pathLengths[v] < pathLengths[current]))
+						current = v;
+				if(current == -1)
+					return pathLengths;
+
+				settled[current] = true;
+				for(int v = 0; v < vertexCount; v++)
+					if(weights[current][v] != -1)
+						pathLengths[v] = Math.min(pathLengths[v], pathLengths[current] + weights[current][v]);
+			}
+		}
+
+		/**
+		 * Checks that a path, in the format of {@link Digraph#getShortestPath(int, int)}, runs over edges
+		 * of this model from the source to the target, and that its length is the expected one.
+		 */
+		public void assertPath(int sourceIndex, int targetIndex, int expectedLength, int[] path, String where) {
+			int length = 0;
+
+			assertEquals(expectedLength, path[0], where);
+			assertEquals(sourceIndex, path[1], where);
+			assertEquals(targetIndex, path[path.length - 1], where);
+			for(int i = 1; i < path.length - 1; i++) {
+				assertTrue(weights[path[i]][path[i + 1]] != -1, where + ", no edge " + path[i] + " to " + path[i + 1]);
+				length += weights[path[i]][path[i + 1]];
+			}
+			assertEquals(expectedLength, length, where);
+		}
+
+		private static City city(int index) {
+			return new City(index + 1, "C" + index, "City " + index, 0, 0);
+		}
+
+		private static int randomWeight(Random random) {
+			// some zero weights, which make ties between paths
+			return random.nextInt(8) == 0 ? 0 : 1 + random.nextInt(50);
+		}
+	}
+}